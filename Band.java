@@ -0,0 +1,327 @@
+// Band plays a board too big for one process by splitting it into
+// bands of rows, each played by a worker process of its own. Band k
+// of a board of m rows and n columns holds rows k*m/bands up to
+// (k+1)*m/bands. Its worker plays them on a Board with a halo, one
+// ghost row above and one below, which it swaps with the bands
+// above and below every round through a Transport. Columns wrap
+// around within a band as on a whole board, and the bands wrap
+// around in a ring, so together they play one torus.
+//
+// Each band starts its players from its own PRNG, split off the
+// seed in band order, as if it were a board of its own, with the
+// life points, time horizon, misanthropy and optimism PDTrials uses.
+// A run depends on the number of bands the way a threaded board
+// depends on its number of threads.
+//
+//   java Band bands transport rounds m n seed [population]
+//
+// starts a worker JVM for every band on this machine and prints the
+// cooperation rate and deaths of the whole board every round, then
+// the mean, min and max certainty after the last one. The transport
+// is socket:port, for a SocketTransport with band k on port + k, or
+// file:directory, for a FileTransport with its mailboxes in the
+// directory.
+//
+//   java Band worker k bands transport rounds m n seed population
+//
+// plays band k by itself and prints its cooperations and deaths
+// every round, then the sum, min and max of its certainties and how
+// many players it has. Workers on several machines use the
+// transport socket:port:host0,host1,... with the host of each band.
+//
+// @version 17-Oct-2026
+//
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import static java.lang.Math.*;
+
+public class Band {
+
+    private Band (){
+    }
+
+
+    /**
+     * open opens the transport band k of the given number of bands
+     * talks to its neighbors through.
+     *
+     * @param  transport  socket:port[:hosts] or file:directory
+     * @param  band  this band's number, k
+     * @param  bands  the number of bands
+     * @param  width  the number of columns
+     *
+     * @return  the transport
+     **/
+    static Transport open (String transport, int band, int bands, int width)
+	throws IOException {
+
+	String[] parts = transport.split(":", 3);
+
+	if (parts[0].equals("socket")){
+
+	    String[] hosts = new String[bands];
+	    Arrays.fill(hosts, "localhost");
+	    if (parts.length > 2){
+		hosts = parts[2].split(",");
+	    }
+	    return new SocketTransport(band, bands, hosts,
+				       Integer.parseInt(parts[1]));
+	}
+	else if (parts[0].equals("file")){
+	    return new FileTransport(Paths.get(parts[1]), band, bands,
+				     Board.haloSize(width));
+	}
+	throw new IllegalArgumentException("unknown transport " + transport);
+    }
+
+
+    /**
+     * worker plays band k of a board and prints a line for every
+     * round: the round, its cooperations and its deaths, tab
+     * separated. After the last round it prints "certainty", the
+     * sum, min and max of its players' certainties and their number.
+     *
+     * @param  band  this band's number, k
+     * @param  bands  the number of bands
+     * @param  transport  see open
+     * @param  rounds  the number of rounds to play
+     * @param  m  the number of rows of the whole board
+     * @param  n  the number of columns
+     * @param  seed  the seed of the whole board
+     * @param  population  the name of a population. See Populations
+     **/
+    static void worker (int band, int bands, String transport, int rounds,
+			int m, int n, long seed, String population)
+	throws IOException {
+
+	int top = band*m/bands;
+	int rows = (band + 1)*m/bands - top;
+
+	// bands split their PRNGs off the seed in band order
+	SplittableRandom prng = new SplittableRandom(seed);
+	SplittableRandom band_prng = prng.split();
+	for (int k = 0; k < band; k++ ){
+	    band_prng = prng.split();
+	}
+
+	PDTrials trials = new PDTrials(1, 1, seed);
+	float[] certainties = new float[rows*n];
+	Populations.generate(Populations.named(population, rows, n,
+					       trials.deviant_ratio),
+			     certainties, band_prng);
+
+	// the ghost rows get their players from the neighboring bands
+	// before anyone looks at them
+	ArrayList<ArrayList<Player>> players =
+	    new ArrayList<ArrayList<Player>>(n);
+	for (int i = 0; i < n; i++ ){
+
+	    ArrayList<Player> column = new ArrayList<Player>(rows + 2);
+	    for (int j = -1; j <= rows; j++ ){
+
+		float certainty = (j < 0 || j == rows)
+		    ? 0 : certainties[i*rows + j];
+		column.add(new Player(trials.life_points,
+				      certainty*trials.misanthropy,
+				      certainty, trials.time_horizon,
+				      trials.optimism, null));
+	    }
+	    players.add(column);
+	}
+	Board game = new Board(players, 1, band_prng.nextLong());
+
+	try (Transport halo = open(transport, band, bands, n)){
+
+	    game.setHalo(halo);
+	    for (int r = 0; r < rounds; r++ ){
+		game.round();
+		System.out.printf("%d\t%d\t%d\n", r, game.getCooperations(),
+				  game.getDeaths());
+	    }
+	}
+
+	double sum = 0;
+	float min = Float.MAX_VALUE;
+	float max = -Float.MAX_VALUE;
+	for (int i = 0; i < n; i++ ){
+	    for (int j = 1; j <= rows; j++ ){
+		float certainty = game.getCertainty(i, j);
+		sum += certainty;
+		min = min(min, certainty);
+		max = max(max, certainty);
+	    }
+	}
+	System.out.printf("certainty\t%s\t%s\t%s\t%d\n", sum, min, max,
+			  (long)rows*n);
+	System.out.flush();
+    }
+
+
+    /**
+     * launch starts a worker JVM for every band, with the same class
+     * path and JVM options as this one, and prints what they play
+     * as a whole board.
+     *
+     * @param  bands  the number of bands
+     * @param  transport  socket:port or file:directory
+     * @param  rounds  the number of rounds to play
+     * @param  m  the number of rows of the board
+     * @param  n  the number of columns
+     * @param  seed  the seed of the board
+     * @param  population  the name of a population. See Populations
+     *
+     * @return  whether every worker finished
+     **/
+    static boolean launch (int bands, String transport, int rounds,
+			   int m, int n, long seed, String population)
+	throws IOException, InterruptedException {
+
+	// mailboxes left over from an earlier run would be read as if
+	// they were this run's
+	if (transport.startsWith("file:")){
+
+	    Path directory = Paths.get(transport.substring(5));
+	    Files.createDirectories(directory);
+	    try (DirectoryStream<Path> old =
+		 Files.newDirectoryStream(directory, "band-*")){
+		for (Path mailbox : old){
+		    Files.delete(mailbox);
+		}
+	    }
+	}
+
+	ArrayList<String> command = new ArrayList<String>();
+	command.add(ProcessHandle.current().info().command().orElse("java"));
+	command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+	command.add("-cp");
+	command.add(System.getProperty("java.class.path"));
+	command.add("Band");
+	command.add("worker");
+	int band_argument = command.size();
+	command.add("");
+	for (Object argument : new Object[] { bands, transport, rounds, m, n,
+					      seed, population }){
+	    command.add(String.valueOf(argument));
+	}
+
+	final long[][] cooperations = new long[bands][rounds];
+	final long[][] deaths = new long[bands][rounds];
+	final String[] certainties = new String[bands];
+	Process[] workers = new Process[bands];
+	Thread[] readers = new Thread[bands];
+
+	for (int k = 0; k < bands; k++ ){
+
+	    command.set(band_argument, String.valueOf(k));
+	    workers[k] = new ProcessBuilder(command)
+		.redirectError(ProcessBuilder.Redirect.INHERIT).start();
+
+	    // every worker's output is read as it comes, so none of them
+	    // stops on a full pipe while the others wait for it
+	    final int band = k;
+	    final BufferedReader output = new BufferedReader
+		(new InputStreamReader(workers[k].getInputStream()));
+	    readers[k] = new Thread(){
+		    public void run (){
+			try {
+			    String line;
+			    while ((line = output.readLine()) != null){
+				String[] fields = line.split("\t");
+				if (fields[0].equals("certainty")){
+				    certainties[band] = line;
+				    continue;
+				}
+				int r = Integer.parseInt(fields[0]);
+				cooperations[band][r] = Long.parseLong(fields[1]);
+				deaths[band][r] = Long.parseLong(fields[2]);
+			    }
+			}
+			catch (IOException e){
+			    // the worker's exit status says what went wrong
+			}
+		    }
+		};
+	    readers[k].start();
+	}
+
+	boolean finished = true;
+	for (int k = 0; k < bands; k++ ){
+	    readers[k].join();
+	    if (workers[k].waitFor() != 0 || certainties[k] == null){
+		System.err.printf("band %d failed \n", k);
+		finished = false;
+	    }
+	}
+	if (!finished){
+	    return false;
+	}
+
+	System.out.println("round\tcooperation\tdeaths");
+	for (int r = 0; r < rounds; r++ ){
+
+	    long round_cooperations = 0;
+	    long round_deaths = 0;
+	    for (int k = 0; k < bands; k++ ){
+		round_cooperations += cooperations[k][r];
+		round_deaths += deaths[k][r];
+	    }
+	    System.out.printf("%d\t%.6f\t%d\n", r,
+			      (double)round_cooperations / (4.0*m*n),
+			      round_deaths);
+	}
+
+	double sum = 0;
+	float min = Float.MAX_VALUE;
+	float max = -Float.MAX_VALUE;
+	for (int k = 0; k < bands; k++ ){
+	    String[] fields = certainties[k].split("\t");
+	    sum += Double.parseDouble(fields[1]);
+	    min = min(min, Float.parseFloat(fields[2]));
+	    max = max(max, Float.parseFloat(fields[3]));
+	}
+	System.out.printf("certainty mean %.4f min %.4f max %.4f \n",
+			  sum / ((double)m*n), min, max);
+	return true;
+    }
+
+
+    public static void main (String[] args) throws Exception {
+
+	String usage = "usage: Band bands transport rounds m n seed [population]\n"
+	    + "       Band worker k bands transport rounds m n seed population\n"
+	    + "transports: socket:port[:host0,host1,...] or file:directory";
+
+	if (args.length > 0 && args[0].equals("worker") && args.length == 9){
+	    worker(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+		   args[3], Integer.parseInt(args[4]),
+		   Integer.parseInt(args[5]), Integer.parseInt(args[6]),
+		   Long.parseLong(args[7]), args[8]);
+	    return;
+	}
+	if (args.length < 6 || args.length > 7 || args[0].equals("worker")){
+	    System.err.println(usage);
+	    System.exit(1);
+	}
+
+	int bands = Integer.parseInt(args[0]);
+	int m = Integer.parseInt(args[3]);
+	if (bands < 1 || bands > m){
+	    System.err.println("there must be from 1 to m bands");
+	    System.exit(1);
+	}
+	if (!launch(bands, args[1], Integer.parseInt(args[2]), m,
+		    Integer.parseInt(args[4]), Long.parseLong(args[5]),
+		    args.length > 6 ? args[6] : "uniform")){
+	    System.exit(1);
+	}
+    }
+}
@@ -10,223 +10,2449 @@
 // A Board is the environment on which they play, and the board
 // implements the rules of the game.
 //
+// The state of every player is kept in flat primitive arrays
+// rather than in Player objects. The player in column i, row j
+// lives at index i*world_height + j of each array. Players are
+// only used to build a Board and to inspect it.
+//
 // @author Jessica Sorrell
 // @version 25-Oct-2014
 //
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 import static java.lang.Math.*;
 import java.lang.StringBuilder;
-import java.util.Collections;
 
 public class Board {
 
 
     // hidden data members
-    private Random prng = new Random();     
-    private ArrayList<ArrayList<Player>> world;      //the game grid
 
-    // These arrays hold the players' decision to defect or 
+    private int world_width;     // number of columns
+    private int world_height;    // number of rows
+    private int num_cells;
+
+    // per-player state, indexed by i*world_height + j
+    private int[] life_points;
+    private int[] total_life;
+    private float[] misanthropy;
+    private float[] certainty;
+    private float[] optimism;
+
+    // every player remembers memory_span rounds. The memories of
+    // the player at index c are a ring buffer in
+    // memories[c*memory_span] through memories[(c+1)*memory_span - 1].
+    // Every player pushes a memory every round, so all the buffers
+    // share one head: memory_head is the slot of the oldest memory.
+    // memory_sum and weighted_memory_sum hold each player's running
+    // sums, the same way Player keeps them.
+    private int memory_span;
+    private float[] memories;
+    private int memory_head;
+    private double[] memory_sum;
+    private double[] weighted_memory_sum;
+
+    private final int cooperate = 1;
+    private final int defect = -1;
+
+    private final float PROB_MUTATION = (float)0.2;
+
+    // how players evaluate their decision functions, one of
+    // Sigmoid.EXACT, Sigmoid.TABLE or Sigmoid.RATIONAL
+    private int decision_function = Sigmoid.EXACT;
+
+    // These arrays hold the players' decision to defect or
     // cooperate each round
     // There are separate arrays for games played between players
     // on vertical axes and games player on horizontal axis.
-    // This is for simplicity's sake for the time being, but should
-    // be changed.
-    private ArrayList<ArrayList<DecisionPair>> vert_decisions;
-    private ArrayList<ArrayList<DecisionPair>> horiz_decisions;
-
-    private float[][] push_memories; //memory values
-    private int space_horizon;     //will implement later
-    // currently players can only see North, South, East, and West
-   
-    
-    public Board (ArrayList<ArrayList<Player>> world, 
-		  int space_horizon){ 
+    // The game at index c of the vertical arrays is played between
+    // the player at c (vert_first) and its northern neighbor
+    // (vert_second). The game at index c of the horizontal arrays is
+    // played between the player at c (horiz_first) and its eastern
+    // neighbor (horiz_second).
+    private byte[] vert_first;
+    private byte[] vert_second;
+    private byte[] horiz_first;
+    private byte[] horiz_second;
+
+    // A packed board keeps the decisions in bitsets instead, one bit
+    // per player, set if the player cooperates. Bit c of word c/64
+    // of each bitset belongs to the player at index c, and there is
+    // one bitset for the player's decision in each of its four
+    // games. A player's opponents' decisions are the same bitsets
+    // shifted by one row or one column, so damage is worked out for
+    // 64 players at a time with shifts, bitwise adders and
+    // Long.bitCount. The byte arrays are dropped while packed.
+    // edge_words and edge_bits hold the words a strip shares with
+    // its neighbors until every strip has decided.
+    private boolean packed;
+    private long[] north_bits;
+    private long[] east_bits;
+    private long[] south_bits;
+    private long[] west_bits;
+    private int[] edge_words;
+    private long[] edge_bits;
+
+    // With vector_damage set, an unpacked board runs DAMAGE a column
+    // at a time through VectorDamage. Each strip gets the sums of
+    // the column's decisions back in its strip_outcomes.
+    private boolean vector_damage;
+    private byte[][] strip_outcomes;
+
+    // With track_activity set, the board keeps track of which tiles
+    // of TILE_SIDE by TILE_SIDE players are still changing. A player
+    // is settled when its chance of cooperating is within
+    // activity_tolerance of 0 or 1, so that it makes the same four
+    // decisions every round without drawing a mood, and all of its
+    // memories are the outcome of those decisions, so they stay the
+    // same too. A tile whose players, and the players of the four
+    // tiles around it, are all settled loses the same life points
+    // every round. It sleeps: DECIDE and DAMAGE skip it, and its
+    // losses are added up when it wakes, either for the round in
+    // which its first player would die or after a round in which a
+    // tile next to it was not settled. tile_wake is the first round
+    // a sleeping tile plays again, tile_since the round it fell
+    // asleep and tile_cooperations the cooperations it makes each
+    // round. tile_busy marks the awake tiles that had a player which
+    // was not settled, or was born, in the last round.
+    private boolean track_activity;
+    private float activity_tolerance;
+    private int tiles_wide;
+    private int tiles_high;
+    private int[] tile_wake;
+    private int[] tile_since;
+    private int[] tile_cooperations;
+    private boolean[] tile_busy;
+    private boolean[] tile_settled;
+    private long asleep_cooperations;     // of the tiles asleep now
+    private long slept_cooperations;      // of those asleep last round
+    private int rounds_played;            // by this board, so far
+
+    static final int TILE_SIDE = 32;
+
+    // A board with a halo is one band of rows of a bigger board,
+    // split over several processes. Its first and last rows are
+    // ghosts of the edge rows of the bands above and below it: they
+    // do not play, but after DECIDE the band sends its own edge rows
+    // through the halo transport and gets the ghosts' decisions, and
+    // the parameters their children would inherit, back. The players
+    // of a band are the rows from first_row to last_row. See Band.
+    private Transport halo;
+    private ByteBuffer[] halo_buffers;   // to and from north and south
+    private int first_row;
+    private int last_row;
+
+    // While metrics is set, round() times its phases into it. The
+    // pool keeps the threads it starts in pool_threads, so that the
+    // metrics can count what they allocate.
+    private Metrics metrics;
+    private ArrayList<Thread> pool_threads = new ArrayList<Thread>();
+
+    // While convergence_window is above 0, every round adds the mean
+    // and median certainty and the death rate to a ring of the last
+    // 2*convergence_window rounds of each, in history, and keeps the
+    // sums of the last window of rounds and of the window before it.
+    // The mean comes from certainty_sum and the median from a
+    // histogram of the certainties in bins of 1/CERTAINTY_BINS, both
+    // brought up to date from the players born each round, not the
+    // whole board.
+    private int convergence_window;
+    private float convergence_tolerance;
+    private int watched_rounds;           // since setConvergence
+    private int convergence_round = -1;   // when it converged, if it has
+    private double certainty_sum;
+    private int[] certainty_bins;
+    private double[][] history;           // [series][round % 2*window]
+    private double[] recent_sums;         // of the last window, by series
+    private double[] previous_sums;       // of the window before it
+
+    static final int CERTAINTY_BINS = 1024;      // per unit of certainty
+
+    // The payoff of a game is A + B*m + C*t + D*m*t, where m is 1
+    // if the player cooperated and t is 1 if its opponent did
+    private static final int PAYOFF_A = DecisionPair.payoff(-1, -1);
+    private static final int PAYOFF_B = DecisionPair.payoff(1, -1)
+	- PAYOFF_A;
+    private static final int PAYOFF_C = DecisionPair.payoff(-1, 1)
+	- PAYOFF_A;
+    private static final int PAYOFF_D = DecisionPair.payoff(1, 1)
+	- DecisionPair.payoff(1, -1) - DecisionPair.payoff(-1, 1) + PAYOFF_A;
+
+    // The board is split into num_strips strips of columns. Every
+    // random number a strip needs, for decisions and for births,
+    // comes from its own PRNG stream, split off from master_prng.
+    // The streams are SplitMix rather than SplittableRandom, which
+    // makes the same numbers, so that a Checkpoint can save them.
+    // A serial board is a single strip. pool is null while rounds
+    // are serial. The child_ arrays hold the parameters of the baby
+    // chosen for each dead player until it is born, so that no baby
+    // inherits from a newborn. Each strip counts the cooperations
+    // and deaths of the last round in its own slot of the strip_
+    // arrays. DAMAGE queues the players of each strip that die, in
+    // index order, in strip_dead, so that births only visit them.
+    private SplitMix master_prng;
+    private ForkJoinPool pool;
+    private int num_strips;
+    private SplitMix[] strip_prngs;
+    private int[] strip_cooperations;
+    private int[] strip_deaths;
+    private int[][] strip_dead;
+    private int[] strip_dead_count;
+    private int[] child_total_life;
+    private float[] child_misanthropy;
+    private float[] child_certainty;
+    private float[] child_optimism;
+
+    private static final int DECIDE = 0;
+    private static final int DAMAGE = 1;
+    private static final int CHOOSE_PARENTS = 2;
+    private static final int BIRTH = 3;
+    private static final int GATHER = 4;
+
+    // a copy of the certainties for getSummaryStats to rearrange
+    private float[] scratch;
+
+    // space_horizon is how far players can see. With a horizon of
+    // 1 a player only knows the outcome of its own four games, with
+    // its neighbors to the North, South, East and West. With a
+    // horizon of r it knows the outcomes of the games of every
+    // player within r - 1 steps of it, in the von Neumann (diamond)
+    // or Moore (square) sense, and remembers their average.
+    //
+    // Those averages come from prefix sums over a copy of the
+    // outcomes padded by r - 1 on every side, so that neighborhoods
+    // which wrap around the board are contiguous. A Moore
+    // neighborhood is four lookups in a summed-area table. A von
+    // Neumann neighborhood is found by sliding a diamond down each
+    // column: each step gains two diagonal edges and loses two,
+    // which are four lookups in tables of sums along the diagonals
+    // and antidiagonals. Either way a round costs O(players) for any
+    // horizon.
+    private int space_horizon;
+    private int neighborhood = VON_NEUMANN;
+    private byte[] outcomes;       // each player's four decisions, summed
+    private int padded_height;     // the padded tables' column length
+    private int[] diagonal_sums;   // or the summed-area table, for Moore
+    private int[] antidiagonal_sums;
+    private int[] top_sums;        // the neighborhood sums of row 0
+
+    static final int VON_NEUMANN = 0;
+    static final int MOORE = 1;
+
+
+    public Board (ArrayList<ArrayList<Player>> world,
+		  int space_horizon){
+	this(world, space_horizon, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Board builds a board from a grid of players. Each player's
+     * parameters are copied onto the board; their PRNGs are not.
+     * Every random number the board uses comes from the given
+     * seed, so two boards built from the same players and seed
+     * play out identically.
+     *
+     * @param  world  the players, as a list of columns
+     * @param  space_horizon  how far players can see, at least 1.
+     * A neighborhood must fit on the board, so 2*space_horizon - 1
+     * can be no more than its width or height
+     * @param  seed  the seed for all of this board's PRNGs
+     **/
+    public Board (ArrayList<ArrayList<Player>> world,
+		  int space_horizon, long seed){
 	int width = world.size();
 	int height = world.get(0).size();
-	this.world = world;
 	this.space_horizon = space_horizon;
 
-	push_memories = new float[width][height];
+	if (space_horizon < 1 || 2*space_horizon - 1 > min(width, height)){
+	    throw new IllegalArgumentException
+		("space horizon must be from 1 to (min(width, height) + 1)/2");
+	}
+
+	world_width = width;
+	world_height = height;
+	num_cells = width * height;
+	first_row = 0;
+	last_row = height;
+
+	life_points = new int[num_cells];
+	total_life = new int[num_cells];
+	misanthropy = new float[num_cells];
+	certainty = new float[num_cells];
+	optimism = new float[num_cells];
+
+	memory_span = world.get(0).get(0).getMemory();
+	memories = new float[num_cells * memory_span];
+	memory_head = 0;
+	memory_sum = new double[num_cells];
+	weighted_memory_sum = new double[num_cells];
+
+	// copy the players into the flat arrays
+	for (int i = 0; i < width; i++ ){
+
+	    ArrayList<Player> column = world.get(i);
+
+	    for (int j = 0; j < height; j++ ){
+
+		Player player = column.get(j);
+		int cell = i*height + j;
+
+		if (player.getMemory() != memory_span){
+		    throw new IllegalArgumentException
+			("all players must have the same memory span");
+		}
+
+		life_points[cell] = player.getLP();
+		total_life[cell] = player.total_life;
+		misanthropy[cell] = player.getMisanthropy();
+		certainty[cell] = player.getCertainty();
+		optimism[cell] = player.getOptimism();
+
+		System.arraycopy(player.getMemories(), 0, memories,
+				 cell*memory_span, memory_span);
+		resum(cell);
+	    }
+	}
+
+	//create decision grids. no games have been played yet
+	setPacked(false);
+
+	child_total_life = new int[num_cells];
+	child_misanthropy = new float[num_cells];
+	child_certainty = new float[num_cells];
+	child_optimism = new float[num_cells];
+	neighborhoodTables();
+
+	master_prng = new SplitMix(seed);
+	setThreads(1);
+    }
+
+    // default constructor
+    public Board (){
+
+    }
+
+
+    /**
+     * neighborhoodTables allocates the outcomes and the padded
+     * tables of sums that players who can see further than their own
+     * games need.
+     **/
+    private void neighborhoodTables (){
+
+	if (space_horizon > 1){
+
+	    int radius = space_horizon - 1;
+	    padded_height = world_height + 2*radius + 2;
+	    outcomes = new byte[num_cells];
+	    diagonal_sums =
+		new int[(world_width + 2*radius + 1)*padded_height];
+	    antidiagonal_sums = new int[diagonal_sums.length];
+	    top_sums = new int[world_width];
+	}
+    }
+
+
+    /**
+     * save writes everything this board needs to play on from where
+     * it is into a checkpoint, as these sections:
+     *
+     *   13 ints     width, height, memory span, memory head, space
+     *               horizon, neighborhood, decision function, packed,
+     *               vector damage, tracking activity (1 or 0), the
+     *               activity tolerance's float bits, rounds played
+     *               and the number of strips
+     *   longs       seed and gamma of the master PRNG, then of each
+     *               strip's PRNG
+     *   ints        each strip's cooperations, then its deaths, in
+     *               the last round
+     *   per player  int life points, int total life, float
+     *               misanthropy, certainty and optimism, each a
+     *               section of width*height values in board index
+     *               order
+     *   floats      the memories, memory span per player, in slot
+     *               order
+     *   doubles     memory sums, then weighted memory sums
+     *   grids       four sections of longs, the north, east, south
+     *               and west bitsets, if packed. Otherwise four of
+     *               width*height bytes, vert_first, vert_second,
+     *               horiz_first and horiz_second
+     *   tiles       if tracking activity, int sections of each
+     *               tile's wake round, sleep round and cooperations,
+     *               then 2 longs, the cooperations of the tiles
+     *               asleep now and of those asleep last round
+     *
+     * Everything else is rebuilt during a round. See Checkpoint.
+     *
+     * @param  out  the checkpoint
+     **/
+    void save (Checkpoint out) throws IOException {
+
+	out.put(new int[] {
+		world_width, world_height, memory_span, memory_head,
+		space_horizon, neighborhood, decision_function,
+		packed ? 1 : 0, vector_damage ? 1 : 0, track_activity ? 1 : 0,
+		Float.floatToRawIntBits(activity_tolerance), rounds_played,
+		num_strips });
+
+	long[] streams = new long[2*(num_strips + 1)];
+	streams[0] = master_prng.getSeed();
+	streams[1] = master_prng.getGamma();
+	for (int strip = 0; strip < num_strips; strip++ ){
+	    streams[2*strip + 2] = strip_prngs[strip].getSeed();
+	    streams[2*strip + 3] = strip_prngs[strip].getGamma();
+	}
+	out.put(streams);
+	out.put(strip_cooperations);
+	out.put(strip_deaths);
+
+	out.put(life_points);
+	out.put(total_life);
+	out.put(misanthropy);
+	out.put(certainty);
+	out.put(optimism);
+	out.put(memories);
+	out.put(memory_sum);
+	out.put(weighted_memory_sum);
+
+	if (packed){
+	    out.put(north_bits);
+	    out.put(east_bits);
+	    out.put(south_bits);
+	    out.put(west_bits);
+	}
+	else {
+	    out.put(vert_first);
+	    out.put(vert_second);
+	    out.put(horiz_first);
+	    out.put(horiz_second);
+	}
+
+	if (track_activity){
+	    out.put(tile_wake);
+	    out.put(tile_since);
+	    out.put(tile_cooperations);
+	    out.put(new long[] { asleep_cooperations, slept_cooperations });
+	}
+    }
+
+
+    /**
+     * restore reads the state of a board, as save wrote it, into
+     * this board, which must have been built with Board().
+     *
+     * @param  in  the checkpoint
+     **/
+    void restore (Checkpoint in) throws IOException {
+
+	int[] header = new int[13];
+	in.get(header);
+
+	world_width = header[0];
+	world_height = header[1];
+	num_cells = world_width*world_height;
+	first_row = 0;
+	last_row = world_height;
+	memory_span = header[2];
+	memory_head = header[3];
+	space_horizon = header[4];
+	neighborhood = header[5];
+	decision_function = header[6];
+	rounds_played = header[11];
+
+	// setThreads splits new streams off master_prng, so the saved
+	// streams are put back afterwards
+	long[] streams = new long[2*(header[12] + 1)];
+	in.get(streams);
+	master_prng = new SplitMix(streams[0], streams[1]);
+	setThreads(header[12]);
+	master_prng = new SplitMix(streams[0], streams[1]);
+	for (int strip = 0; strip < num_strips; strip++ ){
+	    strip_prngs[strip] =
+		new SplitMix(streams[2*strip + 2], streams[2*strip + 3]);
+	}
+	in.get(strip_cooperations);
+	in.get(strip_deaths);
+
+	life_points = new int[num_cells];
+	total_life = new int[num_cells];
+	misanthropy = new float[num_cells];
+	certainty = new float[num_cells];
+	optimism = new float[num_cells];
+	memories = new float[num_cells*memory_span];
+	memory_sum = new double[num_cells];
+	weighted_memory_sum = new double[num_cells];
+
+	in.get(life_points);
+	in.get(total_life);
+	in.get(misanthropy);
+	in.get(certainty);
+	in.get(optimism);
+	in.get(memories);
+	in.get(memory_sum);
+	in.get(weighted_memory_sum);
+
+	setPacked(header[7] == 1);
+	if (packed){
+	    in.get(north_bits);
+	    in.get(east_bits);
+	    in.get(south_bits);
+	    in.get(west_bits);
+	}
+	else {
+	    in.get(vert_first);
+	    in.get(vert_second);
+	    in.get(horiz_first);
+	    in.get(horiz_second);
+	}
+	setVectorDamage(header[8] == 1);
+
+	if (header[9] == 1){
+	    setActivityTracking(true, Float.intBitsToFloat(header[10]));
+	    in.get(tile_wake);
+	    in.get(tile_since);
+	    in.get(tile_cooperations);
+
+	    long[] cooperations = new long[2];
+	    in.get(cooperations);
+	    asleep_cooperations = cooperations[0];
+	    slept_cooperations = cooperations[1];
+	}
+
+	child_total_life = new int[num_cells];
+	child_misanthropy = new float[num_cells];
+	child_certainty = new float[num_cells];
+	child_optimism = new float[num_cells];
+	neighborhoodTables();
+    }
+
+
+    /**
+     * getRounds returns the number of rounds this Board has played
+     *
+     * @return  rounds_played  the number of rounds played
+     **/
+    int getRounds (){
+	return rounds_played;
+    }
+
+
+    /**
+     * getWidth returns the number of columns on this Board
+     *
+     * @return  world_width  the number of columns
+     **/
+    int getWidth (){
+	return world_width;
+    }
+
+
+    /**
+     * getHeight returns the number of rows on this Board
+     *
+     * @return  world_height  the number of rows
+     **/
+    int getHeight (){
+	return world_height;
+    }
+
+
+    /**
+     * getMemorySpan returns how many rounds players on this Board
+     * remember
+     *
+     * @return  memory_span  the players' time horizon
+     **/
+    int getMemorySpan (){
+	return memory_span;
+    }
+
+
+    /**
+     * getCertainty returns the certainty of the player in column i,
+     * row j
+     *
+     * @param  i  the column of the player
+     * @param  j  the row of the player
+     *
+     * @return  the player's certainty
+     **/
+    float getCertainty (int i, int j){
+	return certainty[i*world_height + j];
+    }
+
+
+    /**
+     * getPlayer returns a copy of the player in column i, row j.
+     * Changes to the copy are not written back to the Board. Players
+     * on a Board have no PRNG of their own, so the copy has none
+     * until it is given one with setPRNG.
+     *
+     * @param  i  the column of the player
+     * @param  j  the row of the player
+     *
+     * @return  player  a snapshot of the player at i, j
+     **/
+    Player getPlayer (int i, int j){
+
+	int cell = i*world_height + j;
+
+	Player player = new Player(total_life[cell], misanthropy[cell],
+				   certainty[cell], memory_span,
+				   optimism[cell], null);
+	player.setLP(lifePoints(cell));
+
+	float[] player_memories = new float[memory_span];
+	for (int k = 0; k < memory_span; k++ ){
+	    player_memories[k] =
+		memories[cell*memory_span + (memory_head + k) % memory_span];
+	}
+	player.setMemories(player_memories);
+	return player;
+    }
+
+
+    /**
+     * decide returns the decision of the player at the given index,
+     * based on what it remembers about its environment. This is
+     * Player.getDecision() run on the flat arrays.
+     *
+     * @param  cell  the index of the player
+     * @param  mood  a uniform random number in [0, 1)
+     *
+     * @return decision  return cooperate or defect
+     **/
+    private int decide (int cell, float mood){
+
+	// compare mood to threshold. cooperate or defect accordingly
+	return (mood <= threshold(cell)) ? cooperate : defect;
+    }
+
+
+    /**
+     * threshold returns the chance that the player at the given
+     * index cooperates in a game this round.
+     *
+     * @param  cell  the index of the player
+     *
+     * @return  the player's decision function at what it remembers
+     **/
+    private float threshold (int cell){
+
+	// take a weighted average of memories. recent memories
+	// are weighted more heavily.
+	float conditions = (float)
+	    (weighted_memory_sum[cell] / (memory_span*(memory_span + 1)/2));
+
+	// evaluate this player's decision function at the given point
+	return Sigmoid.evaluate(decision_function,
+				misanthropy[cell] - conditions*certainty[cell]);
+    }
+
+
+    /**
+     * pushMemory adds a new memory for the player at the given
+     * index, overwriting its oldest memory in slot memory_head.
+     * The caller advances memory_head once every player has pushed.
+     * This is Player.pushMemory() run on the flat arrays.
+     *
+     * @param  cell  the index of the player
+     * @param  mem_val  The value representing the memory
+     **/
+    private void pushMemory (int cell, float mem_val){
+
+	int slot = cell*memory_span + memory_head;
+
+	weighted_memory_sum[cell] += memory_span*mem_val - memory_sum[cell];
+	memory_sum[cell] += mem_val - memories[slot];
+	memories[slot] = mem_val;
+
+	// once per trip around the buffer, start the sums over. The
+	// head is about to wrap to 0, so the slots are in age order.
+	if (memory_head == memory_span - 1){
+	    resum(cell);
+	}
+    }
+
+
+    /**
+     * resum recomputes the memory sums of the player at the given
+     * index from scratch. It must only be called while memory_head
+     * is 0, when the player's slots are in age order.
+     *
+     * @param  cell  the index of the player
+     **/
+    private void resum (int cell){
+
+	int base = cell*memory_span;
+
+	memory_sum[cell] = 0;
+	weighted_memory_sum[cell] = 0;
+	for (int k = 0; k < memory_span; k++ ){
+	    memory_sum[cell] += memories[base + k];
+	    weighted_memory_sum[cell] += (k+1)*memories[base + k];
+	}
+    }
+
+
+    /**
+     * setDecisionFunction chooses how players on this Board evaluate
+     * their decision functions. See Sigmoid for the accuracy of each.
+     *
+     * @param  function  Sigmoid.EXACT, Sigmoid.TABLE or Sigmoid.RATIONAL
+     **/
+    void setDecisionFunction (int function){
+	this.decision_function = function;
+    }
+
+
+    /**
+     * setNeighborhood chooses the shape of what players can see when
+     * their space horizon is more than 1.
+     *
+     * @param  neighborhood  VON_NEUMANN or MOORE
+     **/
+    void setNeighborhood (int neighborhood){
+	this.neighborhood = neighborhood;
+    }
+
+
+    /**
+     * setPacked switches this Board between byte and bitset decision
+     * grids. Both play out the same way from the same seed. The
+     * four bitsets take 4 bits per player against the 32 of the four
+     * byte grids, an eighth of the memory: 8 MB instead of 64 MB on
+     * a 4096x4096 board.
+     *
+     * @param  packed  true for bitsets
+     **/
+    void setPacked (boolean packed){
+
+	if (packed && (track_activity || halo != null)){
+	    throw new IllegalStateException
+		("a board that tracks activity, or is a band, can not be packed");
+	}
+	this.packed = packed;
+
+	if (packed){
+	    int words = (num_cells + 63) / 64;
+	    north_bits = new long[words];
+	    east_bits = new long[words];
+	    south_bits = new long[words];
+	    west_bits = new long[words];
+	    vert_first = vert_second = horiz_first = horiz_second = null;
+	}
+	else {
+	    vert_first = new byte[num_cells];
+	    vert_second = new byte[num_cells];
+	    horiz_first = new byte[num_cells];
+	    horiz_second = new byte[num_cells];
+	    north_bits = east_bits = south_bits = west_bits = null;
+	}
+    }
+
+
+    /**
+     * setVectorDamage switches DAMAGE on an unpacked board between
+     * the scalar loop and the Vector API kernel in VectorDamage,
+     * which plays out the same way. The kernel needs the JVM to be
+     * started with --add-modules jdk.incubator.vector; without it,
+     * or if the payoffs are too large for its byte lanes, the
+     * scalar loop is kept. Packed boards always use their own
+     * DAMAGE, and bands of a bigger board always use the scalar
+     * loop.
+     *
+     * @param  vector_damage  true to use the kernel
+     *
+     * @return  whether the kernel will be used
+     **/
+    boolean setVectorDamage (boolean vector_damage){
+
+	// check for the module before VectorDamage is ever loaded
+	this.vector_damage = vector_damage && halo == null
+	    && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+	    && VectorDamage.fits();
+	return this.vector_damage;
+    }
+
+
+    /**
+     * setActivityTracking switches tracking of settled tiles on or
+     * off. While it is on, settled players decide without drawing
+     * moods, so a board plays out differently than without it, and
+     * a tolerance above 0 treats players who are only nearly
+     * settled as settled, which is an approximation: each of their
+     * decisions comes out the other way with a chance of at most
+     * the tolerance. With a tolerance of 0 only players whose
+     * decision function rounds to exactly 0 or 1 are settled. A
+     * tracked board does not use the Vector API kernel.
+     *
+     * @param  track_activity  true to let settled tiles sleep
+     * @param  tolerance  how close to 0 or 1 a player's chance of
+     * cooperating must be for it to be settled
+     **/
+    void setActivityTracking (boolean track_activity, float tolerance){
+
+	if (track_activity && (packed || space_horizon > 1 || halo != null)){
+	    throw new IllegalStateException
+		("activity tracking needs a whole, unpacked board with a space horizon of 1");
+	}
+
+	// bring the life points of sleeping tiles up to date
+	if (this.track_activity){
+	    for (int tile = 0; tile < tile_wake.length; tile++ ){
+		if (tile_wake[tile] > rounds_played){
+		    wake(tile, rounds_played);
+		}
+	    }
+	}
+
+	this.track_activity = track_activity;
+	this.activity_tolerance = tolerance;
+
+	if (track_activity){
+	    tiles_wide = (world_width + TILE_SIDE - 1) / TILE_SIDE;
+	    tiles_high = (world_height + TILE_SIDE - 1) / TILE_SIDE;
+	    tile_wake = new int[tiles_wide*tiles_high];
+	    tile_since = new int[tile_wake.length];
+	    tile_cooperations = new int[tile_wake.length];
+	    tile_busy = new boolean[tile_wake.length];
+	    tile_settled = new boolean[tile_wake.length];
+	}
+	else {
+	    tile_wake = tile_since = tile_cooperations = null;
+	    tile_busy = tile_settled = null;
+	}
+	asleep_cooperations = 0;
+    }
+
+
+    /**
+     * setHalo makes this board one band of a bigger board, whose
+     * first and last rows are ghosts of the neighboring bands' edge
+     * rows, or makes it a whole board again. A band must be
+     * unpacked, with a space horizon of 1, and does not track
+     * activity. A checkpoint of a band does not save its halo.
+     *
+     * @param  halo  the transport to the neighboring bands, or null
+     **/
+    void setHalo (Transport halo){
+
+	if (halo != null && (packed || track_activity || space_horizon > 1
+			     || world_height < 3 || convergence_window > 0)){
+	    throw new IllegalStateException
+		("a band must be unpacked and untracked, with a space horizon of 1 and at least 3 rows, and can not watch for convergence");
+	}
+	this.halo = halo;
+
+	if (halo != null){
+	    first_row = 1;
+	    last_row = world_height - 1;
+	    vector_damage = false;
+
+	    // a decision and the four parameters a child inherits for
+	    // every column
+	    halo_buffers = new ByteBuffer[4];
+	    for (int k = 0; k < 4; k++ ){
+		halo_buffers[k] = ByteBuffer.allocate(haloSize(world_width));
+	    }
+	}
+	else {
+	    first_row = 0;
+	    last_row = world_height;
+	    halo_buffers = null;
+	}
+    }
+
+
+    /**
+     * haloSize returns how many bytes a band of the given width
+     * sends each of its neighbors every round
+     *
+     * @param  width  the number of columns
+     *
+     * @return  the size of a halo message
+     **/
+    static int haloSize (int width){
+	return width*(1 + 4*4);
+    }
+
+
+    /**
+     * exchangeHalo sends the decisions and parameters of this band's
+     * edge rows to its neighbors and puts theirs in the ghost rows.
+     * A message is the edge row's decisions towards the neighbor,
+     * one byte per column, then the total life, misanthropy,
+     * certainty and optimism of each of its players.
+     **/
+    private void exchangeHalo (){
+
+	ByteBuffer to_north = halo_buffers[0];
+	ByteBuffer to_south = halo_buffers[1];
+	ByteBuffer from_north = halo_buffers[2];
+	ByteBuffer from_south = halo_buffers[3];
+	for (ByteBuffer buffer : halo_buffers){
+	    buffer.clear();
+	}
+
+	// the top row's northern decisions are its own, and the bottom
+	// row's southern ones are kept in the ghost row below it
+	int top = first_row;
+	int bottom = last_row - 1;
+	for (int i = 0; i < world_width; i++ ){
+	    to_north.put(vert_first[i*world_height + top]);
+	    to_south.put(vert_second[i*world_height + bottom + 1]);
+	}
+	putEdge(to_north, top);
+	putEdge(to_south, bottom);
+	to_north.flip();
+	to_south.flip();
+
+	try {
+	    halo.exchange(to_north, to_south, from_north, from_south);
+	}
+	catch (IOException e){
+	    throw new UncheckedIOException(e);
+	}
+	from_north.flip();
+	from_south.flip();
+
+	// the band above sends its bottom row's southern decisions,
+	// which are the other side of this band's top row's northern
+	// games, and the band below its top row's northern decisions
+	for (int i = 0; i < world_width; i++ ){
+	    vert_second[i*world_height + top] = from_north.get();
+	    vert_first[i*world_height + bottom + 1] = from_south.get();
+	}
+	getEdge(from_north, top - 1);
+	getEdge(from_south, bottom + 1);
+    }
+
+
+    /**
+     * putEdge puts the parameters a child would inherit from each
+     * player of the given row in a halo message
+     *
+     * @param  message  the message
+     * @param  j  the row
+     **/
+    private void putEdge (ByteBuffer message, int j){
+
+	for (int i = 0; i < world_width; i++ ){
+	    int cell = i*world_height + j;
+	    message.putInt(total_life[cell]);
+	    message.putFloat(misanthropy[cell]);
+	    message.putFloat(certainty[cell]);
+	    message.putFloat(optimism[cell]);
+	}
+    }
+
+
+    /**
+     * getEdge sets the parameters of the players of the given ghost
+     * row from a halo message
+     *
+     * @param  message  the message
+     * @param  j  the ghost row
+     **/
+    private void getEdge (ByteBuffer message, int j){
+
+	for (int i = 0; i < world_width; i++ ){
+	    int cell = i*world_height + j;
+	    total_life[cell] = message.getInt();
+	    misanthropy[cell] = message.getFloat();
+	    certainty[cell] = message.getFloat();
+	    optimism[cell] = message.getFloat();
+	}
+    }
+
+
+    /**
+     * setMetrics starts timing every round into the given metrics,
+     * or stops timing rounds.
+     *
+     * @param  metrics  where to time rounds, or null
+     **/
+    void setMetrics (Metrics metrics){
+	this.metrics = metrics;
+    }
+
+
+    /**
+     * setConvergence starts or stops watching for this board to
+     * settle. While it watches, each round's mean certainty, median
+     * certainty and death rate are averaged over the last window of
+     * rounds and over the window before it, and the board has
+     * converged once the two averages of all three differ by no
+     * more than the tolerance. Watching starts over from this
+     * round, and the median is only exact to 1/CERTAINTY_BINS. A
+     * band can not stop on its own, so it can not watch, and a
+     * board restored from a checkpoint does not watch until told
+     * to again.
+     *
+     * @param  window  the number of rounds in a window, or 0 to stop
+     * watching
+     * @param  tolerance  how far apart the averages of two windows
+     * may be, in certainty or in deaths per player per round
+     **/
+    void setConvergence (int window, float tolerance){
+
+	if (window > 0 && halo != null){
+	    throw new IllegalStateException("a band can not watch for convergence");
+	}
+
+	convergence_window = window;
+	convergence_tolerance = tolerance;
+	watched_rounds = 0;
+	convergence_round = -1;
+	if (window <= 0){
+	    certainty_bins = null;
+	    history = null;
+	    return;
+	}
+
+	history = new double[3][2*window];
+	recent_sums = new double[3];
+	previous_sums = new double[3];
+	certainty_bins = new int[2*CERTAINTY_BINS];
+	certainty_sum = 0;
+	for (int cell = 0; cell < num_cells; cell++ ){
+	    certainty_sum += certainty[cell];
+	    countCertainty(certainty[cell], 1);
+	}
+    }
+
+
+    /**
+     * converged returns whether this board has converged since
+     * setConvergence was called. See setConvergence.
+     **/
+    boolean converged (){
+	return convergence_round >= 0;
+    }
+
+    /**
+     * getConvergenceRound returns the round this board converged
+     * in, counted like getRounds, or -1 if it has not converged.
+     **/
+    int getConvergenceRound (){
+	return convergence_round;
+    }
+
+
+    /**
+     * countCertainty adds to, or takes from, the bin of a certainty
+     * in the histogram, growing it to fit
+     *
+     * @param  b  the certainty
+     * @param  count  1 to add it, -1 to take it away
+     **/
+    private void countCertainty (float b, int count){
+
+	int bin = Math.max(0, (int)(b * CERTAINTY_BINS));
+	if (bin >= certainty_bins.length){
+	    certainty_bins = Arrays.copyOf(certainty_bins,
+					   Math.max(bin + 1,
+						    2*certainty_bins.length));
+	}
+	certainty_bins[bin] += count;
+    }
+
+
+    /**
+     * countBirths brings the certainty sum and histogram up to date
+     * with the players about to be born, once CHOOSE_PARENTS has
+     * picked their certainties and before BIRTH replaces the old
+     * ones. Only the dead are visited, one strip after another.
+     **/
+    private void countBirths (){
+
+	for (int strip = 0; strip < num_strips; strip++ ){
+
+	    int[] dead = strip_dead[strip];
+	    for (int k = 0; k < strip_dead_count[strip]; k++ ){
+
+		int cell = dead[k];
+		if (life_points[cell] <= 0){
+		    certainty_sum += child_certainty[cell] - certainty[cell];
+		    countCertainty(certainty[cell], -1);
+		    countCertainty(child_certainty[cell], 1);
+		}
+	    }
+	}
+    }
+
+
+    /**
+     * watchConvergence adds the round just played to the windows,
+     * and records the round if the board has just converged.
+     **/
+    private void watchConvergence (){
+
+	// the median, from the histogram
+	int middle = (num_cells - 1)/2;
+	int bin = 0;
+	int below = certainty_bins[0];
+	while (below <= middle){
+	    bin++;
+	    below += certainty_bins[bin];
+	}
+
+	double[] values = { certainty_sum / num_cells,
+			    (bin + 0.5) / CERTAINTY_BINS,
+			    (double)getDeaths() / num_cells };
+
+	int w = convergence_window;
+	int slot = watched_rounds % (2*w);
+	boolean settled = watched_rounds + 1 >= 2*w;
+
+	for (int series = 0; series < values.length; series++ ){
+
+	    // the oldest round leaves the previous window, and the
+	    // round that is w old moves into it from the recent one
+	    if (watched_rounds >= 2*w){
+		previous_sums[series] -= history[series][slot];
+	    }
+	    if (watched_rounds >= w){
+		double moving = history[series][(watched_rounds - w) % (2*w)];
+		recent_sums[series] -= moving;
+		previous_sums[series] += moving;
+	    }
+	    recent_sums[series] += values[series];
+	    history[series][slot] = values[series];
+
+	    settled = settled
+		&& Math.abs(recent_sums[series] - previous_sums[series])
+		<= convergence_tolerance * w;
+	}
+
+	watched_rounds++;
+	if (settled && convergence_round < 0){
+	    convergence_round = rounds_played + 1;
+	}
+    }
+
+
+    /**
+     * setThreads switches this Board between serial and parallel
+     * rounds. With more than one thread, round() splits the board
+     * into one strip of columns per thread and plays each phase of
+     * the round on all strips at once, waiting for every strip to
+     * finish a phase before starting the next.
+     *
+     * Each strip draws from its own PRNG stream. The streams are
+     * split off this board's seed in strip order, so two boards
+     * with the same seed and the same calls to setThreads play out
+     * the same way. Runs with different numbers of threads do not
+     * reproduce each other.
+     *
+     * @param  threads  the number of threads to use. 1 for serial
+     **/
+    void setThreads (int threads){
+
+	if (pool != null){
+	    pool.shutdown();
+	    pool = null;
+	}
+
+	num_strips = max(1, min(threads, world_width));
+	if (num_strips > 1){
+	    pool = new ForkJoinPool
+		(num_strips, new ForkJoinPool.ForkJoinWorkerThreadFactory(){
+			public ForkJoinWorkerThread newThread (ForkJoinPool pool){
+			    ForkJoinWorkerThread thread = ForkJoinPool
+				.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			    synchronized (pool_threads){
+				pool_threads.add(thread);
+			    }
+			    return thread;
+			}
+		    }, null, false);
+	}
+
+	strip_prngs = new SplitMix[num_strips];
+	strip_cooperations = new int[num_strips];
+	strip_deaths = new int[num_strips];
+	edge_words = new int[2*num_strips];
+
+	strip_outcomes = new byte[num_strips][world_height];
+	strip_dead = new int[num_strips][];
+	strip_dead_count = new int[num_strips];
+	for (int s = 0; s < num_strips; s++ ){
+	    int columns = (s + 1)*world_width/num_strips - s*world_width/num_strips;
+	    strip_dead[s] = new int[columns*world_height];
+	}
+	edge_bits = new long[4*2*num_strips];
+	for (int s = 0; s < num_strips; s++ ){
+	    strip_prngs[s] = master_prng.split();
+	}
+    }
+
+
+    /**
+     * round runs a single round of this game.
+     * The payoffs for each player playing with its nearest neighbors
+     * are calculated and life points are updated accordingly. Those
+     * whose life points fall to 0 or below are removed from the game
+     * and replaced with a new Player born from a nearest neighbor,
+     * chosen at random.
+     **/
+    void round (){
+
+	if (metrics != null){
+	    metrics.begin(roundThreads());
+	}
+	playGames();
+
+	// update the board
+	circleOfLife();
+	if (track_activity){
+	    updateTiles();
+	}
+	if (convergence_window > 0){
+	    watchConvergence();
+	}
+	if (metrics != null){
+	    metrics.lap(Metrics.LIFE);
+	    metrics.end(rounds_played, roundThreads(),
+			(long)world_width*(last_row - first_row), getDeaths());
+	}
+	rounds_played++;
+    }
+
+
+    /**
+     * playGames is the first half of a round: every player plays its
+     * PD games, takes its payoffs and pushes a memory, and the
+     * players that die are queued for circleOfLife, which is the
+     * second half.
+     **/
+    void playGames (){
+
+	slept_cooperations = asleep_cooperations;
+
+	// Play PD Games and save the outcomes
+	runPhase(DECIDE);
+	if (packed){
+	    mergeEdges();
+	}
+	if (metrics != null){
+	    metrics.lap(Metrics.DECIDE);
+	}
+	if (halo != null){
+	    exchangeHalo();
+	    if (metrics != null){
+		metrics.lap(Metrics.HALO);
+	    }
+	}
+
+	// traverse the board again and deal damage, push new
+	// memories
+	runPhase(DAMAGE);
+	if (space_horizon > 1){
+	    sumOutcomes();
+	    runPhase(GATHER);
+	}
+	memory_head = (memory_head + 1) % memory_span;
+	if (metrics != null){
+	    metrics.lap(Metrics.DAMAGE);
+	}
+    }
+
+
+    /**
+     * roundThreads returns the threads that play a round: the one
+     * calling round() and those of the pool that are still alive.
+     *
+     * @return  the threads
+     **/
+    private List<Thread> roundThreads (){
+
+	ArrayList<Thread> threads = new ArrayList<Thread>();
+	threads.add(Thread.currentThread());
+	synchronized (pool_threads){
+	    for (Iterator<Thread> k = pool_threads.iterator(); k.hasNext(); ){
+		Thread thread = k.next();
+		if (thread.isAlive()){
+		    threads.add(thread);
+		}
+		else {
+		    k.remove();
+		}
+	    }
+	}
+	return threads;
+    }
+
+
+    /**
+     * damage takes the payoffs of the four games the player in
+     * column i, row j played this round off its life points, and
+     * pushes the sum of its own four decisions as a new memory.
+     * Players who can see further than their own games only save
+     * the sum, and push a memory once every sum is known.
+     *
+     * @param  i  the column of the player
+     * @param  j  the row of the player
+     **/
+    private void damage (int i, int j){
+
+	int cell = i*world_height + j;
+
+	int south = (j+1) % world_height;
+	int west = (i-1 + world_width) % world_width;
+
+	int c_south = i*world_height + south;
+	int c_west = west*world_height + j;
+
+	life_points[cell] += loss(cell, c_south, c_west);
+
+	int outcome =
+	    vert_first[cell] +
+	    vert_second[c_south] +
+	    horiz_first[cell] +
+	    horiz_second[c_west];
+
+	if (space_horizon > 1){
+	    outcomes[cell] = (byte)outcome;
+	    return;
+	}
+	pushMemory(cell, (float)outcome);
+    }
+
+
+    /**
+     * loss returns the payoffs of the four games a player played
+     * this round.
+     *
+     * @param  cell  the index of the player
+     * @param  c_south  the index of its southern neighbor
+     * @param  c_west  the index of its western neighbor
+     *
+     * @return  the change in the player's life points
+     **/
+    private int loss (int cell, int c_south, int c_west){
+
+	return
+	    DecisionPair.payoff(vert_first[cell],
+				vert_second[cell]) +
+	    DecisionPair.payoff(vert_second[c_south],
+				vert_first[c_south]) +
+	    DecisionPair.payoff(horiz_first[cell],
+				horiz_second[cell]) +
+	    DecisionPair.payoff(horiz_second[c_west],
+				horiz_first[c_west]);
+    }
+
+
+    /**
+     * loss returns the payoffs of the four games the player in
+     * column i, row j played this round.
+     *
+     * @param  i  the column of the player
+     * @param  j  the row of the player
+     *
+     * @return  the change in the player's life points
+     **/
+    private int loss (int i, int j){
+
+	return loss(i*world_height + j, i*world_height + (j+1) % world_height,
+		    ((i-1 + world_width) % world_width)*world_height + j);
+    }
+
+
+    /**
+     * lifePoints returns the life points of the player at the given
+     * index, counting the rounds its tile has slept through.
+     *
+     * @param  cell  the index of the player
+     *
+     * @return  the player's life points
+     **/
+    private int lifePoints (int cell){
+
+	int i = cell / world_height;
+	int j = cell % world_height;
+
+	if (track_activity){
+	    int tile = (i / TILE_SIDE)*tiles_high + j / TILE_SIDE;
+	    if (tile_wake[tile] > rounds_played){
+		return life_points[cell]
+		    + loss(i, j)*(rounds_played - tile_since[tile]);
+	    }
+	}
+	return life_points[cell];
+    }
+
+
+    /**
+     * decideTracked is the DECIDE phase for a board that tracks
+     * activity. Awake players who are not settled draw their moods
+     * in the same order as DECIDE, settled players draw none, and
+     * sleeping tiles are skipped. Tiles with a player who is not
+     * settled are marked busy.
+     *
+     * @param  strip  the strip
+     * @param  first  the strip's first column
+     * @param  last  one past its last column
+     *
+     * @return  the number of cooperations in the strip's awake tiles
+     **/
+    private int decideTracked (int strip, int first, int last){
+
+	SplitMix strip_prng = strip_prngs[strip];
+	int count = 0;
+
+	for (int i = first; i < last; i++ ){
+
+	    int west = (i-1 + world_width) % world_width;
+
+	    for (int tj = 0; tj < tiles_high; tj++ ){
+
+		int tile = (i / TILE_SIDE)*tiles_high + tj;
+		if (tile_wake[tile] > rounds_played){
+		    continue;
+		}
+
+		int bottom = min((tj + 1)*TILE_SIDE, world_height);
+		for (int j = tj*TILE_SIDE; j < bottom; j++ ){
+
+		    int cell = i*world_height + j;
+		    int south = (j+1) % world_height;
+		    float threshold = threshold(cell);
+		    boolean settled = true;
+		    int north_game, east_game, south_game, west_game;
+
+		    if (threshold >= 1 - activity_tolerance){
+			north_game = east_game = south_game = west_game =
+			    cooperate;
+		    }
+		    else if (threshold <= activity_tolerance){
+			north_game = east_game = south_game = west_game =
+			    defect;
+		    }
+		    else {
+			north_game = (strip_prng.nextFloat() <= threshold)
+			    ? cooperate : defect;
+			east_game = (strip_prng.nextFloat() <= threshold)
+			    ? cooperate : defect;
+			south_game = (strip_prng.nextFloat() <= threshold)
+			    ? cooperate : defect;
+			west_game = (strip_prng.nextFloat() <= threshold)
+			    ? cooperate : defect;
+			settled = false;
+		    }
+
+		    // a settled player's outcome is 4 times its decision,
+		    // and a memory can be no further from 0 than that, so
+		    // the sum tells whether every memory is the outcome
+		    if (!settled
+			|| memory_sum[cell] != 4*memory_span*north_game){
+			tile_busy[tile] = true;
+		    }
+
+		    vert_first[cell] = (byte)north_game;
+		    horiz_first[cell] = (byte)east_game;
+		    vert_second[i*world_height + south] = (byte)south_game;
+		    horiz_second[west*world_height + j] = (byte)west_game;
+
+		    count += (north_game + east_game + south_game
+			      + west_game + 4) / 2;
+		}
+	    }
+	}
+	return count;
+    }
+
+
+    /**
+     * damageTracked is the DAMAGE phase for a board that tracks
+     * activity. It skips sleeping tiles and queues the players that
+     * die in index order, as DAMAGE does.
+     *
+     * @param  strip  the strip
+     * @param  first  the strip's first column
+     * @param  last  one past its last column
+     **/
+    private void damageTracked (int strip, int first, int last){
+
+	int[] dead = strip_dead[strip];
+	int count = 0;
+
+	for (int i = first; i < last; i++ ){
+	    for (int tj = 0; tj < tiles_high; tj++ ){
+
+		int tile = (i / TILE_SIDE)*tiles_high + tj;
+		if (tile_wake[tile] > rounds_played){
+		    continue;
+		}
+
+		int bottom = min((tj + 1)*TILE_SIDE, world_height);
+		for (int j = tj*TILE_SIDE; j < bottom; j++ ){
+
+		    int cell = i*world_height + j;
+		    damage(i, j);
+		    if (life_points[cell] <= 0){
+			dead[count++] = cell;
+		    }
+		}
+	    }
+	}
+	strip_dead_count[strip] = count;
+    }
+
+
+    /**
+     * updateTiles runs at the end of a round on a board that tracks
+     * activity, and decides which tiles sleep through the next
+     * round. A tile can sleep if it and the four tiles around it were
+     * settled this round. A sleeping tile wakes if a tile around it
+     * was not, or if one of its players would die next round.
+     **/
+    private void updateTiles (){
+
+	int next = rounds_played + 1;
+
+	for (int tile = 0; tile < tile_wake.length; tile++ ){
+	    tile_settled[tile] =
+		tile_wake[tile] > rounds_played || !tile_busy[tile];
+	    tile_busy[tile] = false;
+	}
+
+	for (int ti = 0; ti < tiles_wide; ti++ ){
+
+	    int east = ((ti + 1) % tiles_wide)*tiles_high;
+	    int west = ((ti - 1 + tiles_wide) % tiles_wide)*tiles_high;
+
+	    for (int tj = 0; tj < tiles_high; tj++ ){
+
+		int tile = ti*tiles_high + tj;
+		boolean quiet = tile_settled[tile]
+		    && tile_settled[ti*tiles_high
+				    + (tj - 1 + tiles_high) % tiles_high]
+		    && tile_settled[ti*tiles_high + (tj + 1) % tiles_high]
+		    && tile_settled[east + tj]
+		    && tile_settled[west + tj];
+
+		if (tile_wake[tile] > rounds_played){
+		    if (!quiet || tile_wake[tile] == next){
+			wake(tile, next);
+		    }
+		}
+		else if (quiet){
+		    sleep(tile, next);
+		}
+	    }
+	}
+    }
+
+
+    /**
+     * sleep puts a settled tile to sleep from the given round on,
+     * unless one of its players would die in that round. The
+     * decision grids hold the decisions its players make every
+     * round while it sleeps.
+     *
+     * @param  tile  the tile
+     * @param  since  the first round it sleeps through
+     **/
+    private void sleep (int tile, int since){
+
+	int ti = tile / tiles_high;
+	int tj = tile % tiles_high;
+	int right = min((ti + 1)*TILE_SIDE, world_width);
+	int bottom = min((tj + 1)*TILE_SIDE, world_height);
+
+	// the number of rounds until its first player dies
+	int rounds = Integer.MAX_VALUE;
+	int cooperations = 0;
+
+	for (int i = ti*TILE_SIDE; i < right; i++ ){
+	    for (int j = tj*TILE_SIDE; j < bottom; j++ ){
+
+		int cell = i*world_height + j;
+		int loss = loss(i, j);
+		if (loss < 0){
+		    rounds = min(rounds, (life_points[cell] - loss - 1)/-loss);
+		}
+		// a settled player makes the same decision in all four
+		// games
+		cooperations += 2*(vert_first[cell] + 1);
+	    }
+	}
+	if (rounds < 2){
+	    return;
+	}
+
+	tile_wake[tile] = (int)min(Integer.MAX_VALUE, (long)since + rounds - 1);
+	tile_since[tile] = since;
+	tile_cooperations[tile] = cooperations;
+	asleep_cooperations += cooperations;
+    }
+
+
+    /**
+     * wake gives the players of a sleeping tile the payoffs of the
+     * rounds it slept through, and lets it play from the given round
+     * on.
+     *
+     * @param  tile  the tile
+     * @param  round  the first round it plays again
+     **/
+    private void wake (int tile, int round){
+
+	int ti = tile / tiles_high;
+	int tj = tile % tiles_high;
+	int right = min((ti + 1)*TILE_SIDE, world_width);
+	int bottom = min((tj + 1)*TILE_SIDE, world_height);
+
+	for (int i = ti*TILE_SIDE; i < right; i++ ){
+	    for (int j = tj*TILE_SIDE; j < bottom; j++ ){
+		life_points[i*world_height + j] +=
+		    loss(i, j)*(round - tile_since[tile]);
+	    }
+	}
+	tile_wake[tile] = 0;
+	asleep_cooperations -= tile_cooperations[tile];
+    }
+
+
+    /**
+     * decidePacked is the DECIDE phase for a packed board. It makes
+     * the same decisions, from the same random numbers, as DECIDE
+     * on bytes, and sets the bits of the players from first to
+     * last. Words wholly inside the strip are stored, and the words
+     * it shares with other strips are left in edge_bits for
+     * mergeEdges.
+     *
+     * @param  strip  the strip
+     * @param  first  the index of the strip's first player
+     * @param  last  one past the index of its last player
+     *
+     * @return  the number of cooperations in the strip
+     **/
+    private int decidePacked (int strip, int first, int last){
+
+	SplitMix strip_prng = strip_prngs[strip];
+	int cooperations = 0;
+	long north = 0, east = 0, south = 0, west = 0;
+
+	edge_words[2*strip] = -1;
+	edge_words[2*strip + 1] = -1;
+
+	for (int cell = first; cell < last; cell++ ){
+
+	    long bit = 1L << cell;
+	    if (decide(cell, strip_prng.nextFloat()) == cooperate){
+		north |= bit;
+	    }
+	    if (decide(cell, strip_prng.nextFloat()) == cooperate){
+		east |= bit;
+	    }
+	    if (decide(cell, strip_prng.nextFloat()) == cooperate){
+		south |= bit;
+	    }
+	    if (decide(cell, strip_prng.nextFloat()) == cooperate){
+		west |= bit;
+	    }
+
+	    if ((cell & 63) == 63 || cell == last - 1){
+
+		int word = cell >>> 6;
+		cooperations += Long.bitCount(north) + Long.bitCount(east)
+		    + Long.bitCount(south) + Long.bitCount(west);
+
+		if (64*word >= first && min(64*word + 64, num_cells) <= last){
+		    north_bits[word] = north;
+		    east_bits[word] = east;
+		    south_bits[word] = south;
+		    west_bits[word] = west;
+		}
+		else {
+		    // the first or the last word of the strip
+		    int edge = (edge_words[2*strip] < 0) ? 2*strip : 2*strip + 1;
+		    edge_words[edge] = word;
+		    edge_bits[4*edge] = north;
+		    edge_bits[4*edge + 1] = east;
+		    edge_bits[4*edge + 2] = south;
+		    edge_bits[4*edge + 3] = west;
+		}
+		north = east = south = west = 0;
+	    }
+	}
+	return cooperations;
+    }
+
+
+    /**
+     * mergeEdges combines the words that strips share into the
+     * bitsets, once every strip has decided.
+     **/
+    private void mergeEdges (){
+
+	for (int edge = 0; edge < edge_words.length; edge++ ){
+
+	    int word = edge_words[edge];
+	    if (word >= 0){
+		north_bits[word] = east_bits[word] = 0;
+		south_bits[word] = west_bits[word] = 0;
+	    }
+	}
+	for (int edge = 0; edge < edge_words.length; edge++ ){
+
+	    int word = edge_words[edge];
+	    if (word >= 0){
+		north_bits[word] |= edge_bits[4*edge];
+		east_bits[word] |= edge_bits[4*edge + 1];
+		south_bits[word] |= edge_bits[4*edge + 2];
+		west_bits[word] |= edge_bits[4*edge + 3];
+	    }
+	}
+    }
+
+
+    /**
+     * damagePacked is the DAMAGE phase for a packed board. For each
+     * word of 64 players it lines up the bits of the opponents in
+     * each of their four games, then adds up how many of the games
+     * each player cooperated in, how many its opponents cooperated
+     * in, and how many both did, with bitwise adders. The payoffs
+     * and the new memory of every player follow from those three
+     * counts.
+     *
+     * @param  strip  the strip
+     * @param  first  the index of the strip's first player
+     * @param  last  one past the index of its last player
+     **/
+    private void damagePacked (int strip, int first, int last){
+
+	int[] dead = strip_dead[strip];
+	int dead_count = 0;
+
+	long[] mine = new long[3];
+	long[] theirs = new long[3];
+	long[] both = new long[3];
+
+	for (int word = first >>> 6; 64*word < last; word++ ){
+
+	    int base = 64*word;
+
+	    long north = north_bits[word];
+	    long east = east_bits[word];
+	    long south = south_bits[word];
+	    long west = west_bits[word];
+
+	    // the opponent to the north made its south decision one
+	    // player back, and so on
+	    long north_opponent = window(south_bits, base - 1);
+	    long south_opponent = window(north_bits, base + 1);
+	    long east_opponent = window(west_bits, base + world_height);
+	    long west_opponent = window(east_bits, base - world_height);
+
+	    // the northern neighbor of row 0 is in the last row of the
+	    // same column, not the column before. Likewise for the
+	    // southern neighbor of the last row.
+	    int top = (base + world_height - 1) / world_height * world_height;
+	    for (int c = top; c < base + 64 && c < num_cells;
+		 c += world_height ){
+		north_opponent = copyBit(north_opponent, c - base,
+					 south_bits, c + world_height - 1);
+	    }
+	    int bottom = (base + 1 + world_height - 1) / world_height
+		* world_height - 1;
+	    for (int c = bottom; c < base + 64 && c < num_cells;
+		 c += world_height ){
+		south_opponent = copyBit(south_opponent, c - base,
+					 north_bits, c - world_height + 1);
+	    }
+
+	    count(north, east, south, west, mine);
+	    count(north_opponent, east_opponent, south_opponent,
+		  west_opponent, theirs);
+	    count(north & north_opponent, east & east_opponent,
+		  south & south_opponent, west & west_opponent, both);
+
+	    int from = max(base, first);
+	    int to = min(base + 64, last);
+	    for (int cell = from; cell < to; cell++ ){
+
+		int k = cell - base;
+		int cooperated = bits(mine, k);
+
+		life_points[cell] += 4*PAYOFF_A + PAYOFF_B*cooperated
+		    + PAYOFF_C*bits(theirs, k) + PAYOFF_D*bits(both, k);
+		if (life_points[cell] <= 0){
+		    dead[dead_count++] = cell;
+		}
+
+		// each decision is 1 or -1
+		int outcome = 2*cooperated - 4;
+		if (space_horizon > 1){
+		    outcomes[cell] = (byte)outcome;
+		}
+		else {
+		    pushMemory(cell, (float)outcome);
+		}
+	    }
+	}
+	strip_dead_count[strip] = dead_count;
+    }
+
+
+    /**
+     * window returns the 64 bits of a bitset that start at the bit
+     * of the given player, wrapping around the end of the board.
+     *
+     * @param  bitset  the bitset
+     * @param  start  the index of the first player, which may be
+     * off either end of the board
+     *
+     * @return  bit k is the bit of player start + k
+     **/
+    private long window (long[] bitset, int start){
+
+	start = (start % num_cells + num_cells) % num_cells;
+
+	if (start + 64 <= num_cells){
+
+	    int word = start >>> 6;
+	    int shift = start & 63;
+	    if (shift == 0){
+		return bitset[word];
+	    }
+	    return (bitset[word] >>> shift) | (bitset[word + 1] << (64 - shift));
+	}
+
+	// the window wraps around the end of the board
+	long bits = 0;
+	for (int k = 0; k < 64; k++ ){
+	    bits = copyBit(bits, k, bitset, (start + k) % num_cells);
+	}
+	return bits;
+    }
+
+
+    /**
+     * copyBit returns bits with bit k replaced by the bit of the
+     * given player in a bitset.
+     **/
+    private static long copyBit (long bits, int k, long[] bitset, int cell){
+
+	long bit = (bitset[cell >>> 6] >>> cell) & 1;
+	return (bits & ~(1L << k)) | (bit << k);
+    }
+
+
+    /**
+     * count adds four bitsets bit by bit. Bit k of sum[0], sum[1]
+     * and sum[2] are the ones, twos and fours digits of how many of
+     * the four have bit k set.
+     **/
+    private static void count (long a, long b, long c, long d, long[] sum){
+
+	long ab = a ^ b;
+	long cd = c ^ d;
+	long ab_carry = a & b;
+	long cd_carry = c & d;
+	long carry = ab & cd;
+
+	sum[0] = ab ^ cd;
+	sum[1] = ab_carry ^ cd_carry ^ carry;
+	sum[2] = (ab_carry & cd_carry) | (carry & (ab_carry ^ cd_carry));
+    }
+
+
+    /**
+     * bits returns the count that count() left in bit k of sum.
+     **/
+    private static int bits (long[] sum, int k){
+	return (int)((sum[0] >>> k) & 1) + 2*(int)((sum[1] >>> k) & 1)
+	    + 4*(int)((sum[2] >>> k) & 1);
+    }
+
+
+    /**
+     * outcome returns the outcome of the player at the given
+     * position of the padded tables, which start radius columns and
+     * rows before the board and wrap around it.
+     *
+     * @param  x  the padded column, from 0
+     * @param  y  the padded row, from 0
+     *
+     * @return  the sum of that player's decisions this round
+     **/
+    private int outcome (int x, int y){
+
+	int radius = space_horizon - 1;
+	int i = (x - radius + world_width) % world_width;
+	int j = (y - radius + world_height) % world_height;
+	return outcomes[i*world_height + j];
+    }
+
+
+    /**
+     * padded returns the index in the padded tables of padded
+     * column x, row y. Column -1 and rows -1 and padded_height - 2
+     * hold zeros, so the tables can be read one past either end.
+     *
+     * @param  x  the padded column, from -1
+     * @param  y  the padded row, from -1
+     *
+     * @return  the index into the padded tables
+     **/
+    private int padded (int x, int y){
+	return (x + 1)*padded_height + (y + 1);
+    }
+
+
+    /**
+     * sumOutcomes builds the prefix sums of this round's outcomes
+     * that GATHER reads neighborhoods from: a summed-area table for
+     * Moore neighborhoods, and sums along diagonals and antidiagonals
+     * for von Neumann ones. For von Neumann neighborhoods it also
+     * finds the sums for row 0 by sliding a diamond along it, which
+     * is where GATHER starts sliding down each column. Each table
+     * entry depends on the column before it, so this runs serially.
+     **/
+    private void sumOutcomes (){
+
+	int radius = space_horizon - 1;
+	int padded_width = world_width + 2*radius;
+	int last_row = world_height + 2*radius;
+
+	if (neighborhood == MOORE){
+
+	    for (int x = 0; x < padded_width; x++ ){
+
+		int column_sum = 0;
+		for (int y = 0; y < last_row; y++ ){
+		    column_sum += outcome(x, y);
+		    diagonal_sums[padded(x, y)] =
+			diagonal_sums[padded(x - 1, y)] + column_sum;
+		}
+	    }
+	    return;
+	}
+
+	for (int x = 0; x < padded_width; x++ ){
+	    for (int y = 0; y < last_row; y++ ){
+
+		int o = outcome(x, y);
+		diagonal_sums[padded(x, y)] =
+		    diagonal_sums[padded(x - 1, y - 1)] + o;
+		antidiagonal_sums[padded(x, y)] =
+		    antidiagonal_sums[padded(x - 1, y + 1)] + o;
+	    }
+	}
+
+	// the diamond around the player in column 0, row 0
+	int sum = 0;
+	for (int dx = -radius; dx <= radius; dx++ ){
+	    int reach = radius - abs(dx);
+	    for (int dy = -reach; dy <= reach; dy++ ){
+		sum += outcome(radius + dx, radius + dy);
+	    }
+	}
+	top_sums[0] = sum;
+
+	// slide it east along row 0
+	int y = radius;
+	for (int x = radius; x < radius + world_width - 1; x++ ){
+
+	    sum += diagonal(x + 1, y - radius, x + 1 + radius, y)
+		+ antidiagonal(x + 1, y + radius, x + radius, y + 1)
+		- antidiagonal(x - radius, y, x, y - radius)
+		- diagonal(x - radius + 1, y + 1, x, y + radius);
+	    top_sums[x - radius + 1] = sum;
+	}
+    }
+
+
+    /**
+     * diagonal returns the sum of the outcomes on the diagonal from
+     * padded column x0, row y0 down to column x1, row y1, where
+     * x1 - x0 = y1 - y0. The sum is 0 if x1 < x0.
+     **/
+    private int diagonal (int x0, int y0, int x1, int y1){
+	return diagonal_sums[padded(x1, y1)]
+	    - diagonal_sums[padded(x0 - 1, y0 - 1)];
+    }
+
+
+    /**
+     * antidiagonal returns the sum of the outcomes on the
+     * antidiagonal from padded column x0, row y0 up to column x1,
+     * row y1, where x1 - x0 = y0 - y1. The sum is 0 if x1 < x0.
+     **/
+    private int antidiagonal (int x0, int y0, int x1, int y1){
+	return antidiagonal_sums[padded(x1, y1)]
+	    - antidiagonal_sums[padded(x0 - 1, y0 + 1)];
+    }
+
+
+    /**
+     * gather pushes the average outcome of each player's
+     * neighborhood as its new memory, for the players in column i.
+     *
+     * @param  i  the column
+     **/
+    private void gather (int i){
+
+	int radius = space_horizon - 1;
+	int x = i + radius;
+
+	if (neighborhood == MOORE){
+
+	    float size = (2*radius + 1)*(2*radius + 1);
+	    for (int j = 0; j < world_height; j++ ){
+
+		int y = j + radius;
+		int sum = diagonal_sums[padded(x + radius, y + radius)]
+		    - diagonal_sums[padded(x - radius - 1, y + radius)]
+		    - diagonal_sums[padded(x + radius, y - radius - 1)]
+		    + diagonal_sums[padded(x - radius - 1, y - radius - 1)];
+		pushMemory(i*world_height + j, sum / size);
+	    }
+	    return;
+	}
+
+	// slide the diamond south from row 0
+	float size = 2*radius*(radius + 1) + 1;
+	int sum = top_sums[i];
+	pushMemory(i*world_height, sum / size);
+
+	for (int y = radius; y < radius + world_height - 1; y++ ){
+
+	    sum += diagonal(x - radius, y + 1, x, y + 1 + radius)
+		+ antidiagonal(x + 1, y + radius, x + radius, y + 1)
+		- antidiagonal(x - radius, y, x, y - radius)
+		- diagonal(x + 1, y - radius + 1, x + radius, y);
+	    pushMemory(i*world_height + y - radius + 1, sum / size);
+	}
+    }
+
+
+    /**
+     * circleOfLife removes the Players that died in the last round.
+     * Dead Players are replaced with a new Player probabilistically
+     * born from a nearby player. Only the players DAMAGE queued as
+     * dead are visited, not the whole board.
+     *
+     * Births follow one rule however many neighbors die together:
+     * every dead player picks its parent, and copies its parameters,
+     * before any of them is replaced. A newborn is never a parent in
+     * the round it was born, and a dead player can only be picked
+     * as a parent if it died this round, when it passes on the
+     * parameters it died with.
+     **/
+    void circleOfLife(){
+
+	runPhase(CHOOSE_PARENTS);
+	if (convergence_window > 0){
+	    countBirths();
+	}
+	runPhase(BIRTH);
+    }
+
 
-	//create and initialize decision grids
-	vert_decisions = new ArrayList<ArrayList<DecisionPair>>();
-	for (int i = 0; i < width; i++ ){
+    /**
+     * neighbor picks one of the four nearest neighbors of the
+     * player in column i, row j.
+     *
+     * @param  i  the column of the player
+     * @param  j  the row of the player
+     * @param  chooseParent  a uniform random number in [0, 1)
+     *
+     * @return  the index of the chosen neighbor
+     **/
+    private int neighbor (int i, int j, float chooseParent){
 
-	    vert_decisions.add(new ArrayList<DecisionPair>(height));
+	int east = (i+1) % world_width;
+	int west = (i-1 + world_width) % world_width;
+	int north = (j-1 + world_height) % world_height;
+	int south = (j+1) % world_height;
 
-	    for (int j = 0; j < height; j++ ){
-		vert_decisions.get(i).add(new DecisionPair(0,0));
-	    }
+	// if random number is < .25, choose player
+	// to the north
+	if (chooseParent < .25 ) {
+	    return i*world_height + north;
+	}
+	// if .25 < x < .5, choose player to the east
+	else if (chooseParent < .5 ){
+	    return east*world_height + j;
 	}
+	// if .5 < x < .75, choose player to the south
+	else if (chooseParent < .75 ){
+	    return i*world_height + south;
+	}
+	// if .75 < x < 1, choose player to the west
+	else {
+	    return west*world_height + j;
+	}
+    }
 
-	//create and initialize decision grids
-	horiz_decisions = new ArrayList<ArrayList<DecisionPair>>();
-	for (int i = 0; i < width; i++ ){
 
-	    horiz_decisions.add(new ArrayList<DecisionPair>(height));
+    /**
+     * inherit puts a newborn player with the given parameters at
+     * index child, with full life points and fresh memories.
+     *
+     * @param  child  the index of the dead player to replace
+     * @param  child_total_life  the newborn's total life points
+     * @param  child_misanthropy  the newborn's misanthropy
+     * @param  child_certainty  the newborn's certainty
+     * @param  child_optimism  the newborn's optimism
+     **/
+    private void inherit (int child, int child_total_life,
+			  float child_misanthropy, float child_certainty,
+			  float child_optimism){
 
-	    for (int j = 0; j < height; j++ ){
-		horiz_decisions.get(i).add(new DecisionPair(0,0));
-	    }
+	if (track_activity){
+	    tile_busy[(child / world_height / TILE_SIDE)*tiles_high
+		      + child % world_height / TILE_SIDE] = true;
 	}
-    } 
-    
-    // default constructor
-    public Board (){
+	life_points[child] = child_total_life;
+	total_life[child] = child_total_life;
+	misanthropy[child] = child_misanthropy;
+	certainty[child] = child_certainty;
+	optimism[child] = child_optimism;
+
+	Arrays.fill(memories, child*memory_span,
+		    (child + 1)*memory_span, child_optimism);
+	memory_sum[child] = memory_span*child_optimism;
+	weighted_memory_sum[child] =
+	    (memory_span*(memory_span + 1)/2)*child_optimism;
+    }
+
+
+    /**
+     * runPhase runs one phase of a round on every strip, in
+     * parallel if this board has a pool and one strip after another
+     * if not. It returns once every strip is done.
+     *
+     * @param  phase  the phase to run
+     **/
+    private void runPhase (int phase){
 
+	if (pool != null){
+	    pool.invoke(new Phase(phase, 0, num_strips));
+	    return;
+	}
+	for (int strip = 0; strip < num_strips; strip++ ){
+	    runStrip(phase, strip);
+	}
     }
 
-    
+
     /**
-     * round runs a single round of this game. 
-     * The payoffs for each player playing with its nearest neighbors
-     * are calculated and life points are updated accordingly. Those
-     * whose life points fall to 0 or below are removed from the game
-     * and replaced with a new Player born from a nearest neighbor,
-     * chosen at random. 
+     * runStrip runs one phase of a round on one strip of
+     * columns. No two strips write to the same array element during
+     * a phase, and each phase only reads what earlier phases wrote.
+     *
+     * DECIDE: every player makes its four decisions for this round,
+     * one per game, and writes them into the decision grids.
+     * DAMAGE: every player takes its payoffs and pushes a memory,
+     * and the players that die are queued.
+     * GATHER: players who see further than their own games push a
+     * memory of their neighborhood.
+     * CHOOSE_PARENTS: every queued dead player picks a parent and copies
+     * its parameters while nobody has been replaced yet.
+     * BIRTH: every queued dead player is replaced by its chosen child.
+     *
+     * @param  phase  the phase to run
+     * @param  strip  the strip to run it on
      **/
-    void round (){
+    private void runStrip (int phase, int strip){
+
+	SplitMix strip_prng = strip_prngs[strip];
+	int first = strip * world_width / num_strips;
+	int last = (strip + 1) * world_width / num_strips;
+
+	if (track_activity && phase == DECIDE){
+	    strip_cooperations[strip] = decideTracked(strip, first, last);
+	    return;
+	}
+	if (track_activity && phase == DAMAGE){
+	    damageTracked(strip, first, last);
+	    return;
+	}
+	if (packed && phase == DECIDE){
+	    strip_cooperations[strip] =
+		decidePacked(strip, first*world_height, last*world_height);
+	    return;
+	}
+	if (packed && phase == DAMAGE){
+	    damagePacked(strip, first*world_height, last*world_height);
+	    return;
+	}
+	if (phase == CHOOSE_PARENTS){
+	    strip_deaths[strip] = chooseParents(strip);
+	    return;
+	}
+	if (phase == BIRTH){
+	    birth(strip);
+	    return;
+	}
 
-	int world_width = world.size();
-	int world_height = world.get(0).size();
+	// cooperations in DECIDE, deaths in DAMAGE
+	int count = 0;
 
+	if (vector_damage && phase == DAMAGE){
 
-	// Play PD Games and save the outcomes
-	for (int i = 0; i < world_width; i ++ ){
+	    int[] dead = strip_dead[strip];
+	    byte[] column_outcomes = strip_outcomes[strip];
+
+	    for (int i = first; i < last; i++ ){
+
+		VectorDamage.damage(vert_first, vert_second, horiz_first,
+				    horiz_second, life_points,
+				    column_outcomes, 0, i,
+				    (i-1 + world_width) % world_width,
+				    world_height);
+
+		for (int j = 0; j < world_height; j++ ){
+
+		    int cell = i*world_height + j;
+		    if (space_horizon > 1){
+			outcomes[cell] = column_outcomes[j];
+		    }
+		    else {
+			pushMemory(cell, (float)column_outcomes[j]);
+		    }
+		    if (life_points[cell] <= 0){
+			dead[count++] = cell;
+		    }
+		}
+	    }
+	    strip_dead_count[strip] = count;
+	    return;
+	}
+
+	for (int i = first; i < last; i++ ){
+
+	    if (phase == GATHER){
+		gather(i);
+		continue;
+	    }
 
 	    int east = (i+1) % world_width;
 	    int west = (i-1 + world_width) % world_width;
-	    
-	    ArrayList<Player> column = world.get(i);
 
-	    ArrayList<Player> left_column = 
-		world.get(west);
+	    for (int j = first_row; j < last_row; j++ ){
 
-	    ArrayList<Player> right_column = 
-		world.get(east);
+		int cell = i*world_height + j;
 
-	    for (int j = 0; j < world_height; j++ ){
+		if (phase == DECIDE){
+
+		    int north = (j-1 + world_height) % world_height;
+		    int south = (j+1) % world_height;
+
+		    // this player's side of the games to its north
+		    // and east, and of the games its southern and
+		    // western neighbors play with it
+		    int north_game = decide(cell, strip_prng.nextFloat());
+		    int east_game = decide(cell, strip_prng.nextFloat());
+		    int south_game = decide(cell, strip_prng.nextFloat());
+		    int west_game = decide(cell, strip_prng.nextFloat());
+
+		    vert_first[cell] = (byte)north_game;
+		    horiz_first[cell] = (byte)east_game;
+		    vert_second[i*world_height + south] = (byte)south_game;
+		    horiz_second[west*world_height + j] = (byte)west_game;
+
+		    // decisions are 1 or -1, so this adds 1 per
+		    // cooperation
+		    count += (north_game + east_game + south_game
+			      + west_game + 4) / 2;
+		}
+		else {
+		    damage(i, j);
+		    if (life_points[cell] <= 0){
+			strip_dead[strip][count++] = cell;
+		    }
+		}
+	    }
+	}
+
+	if (phase == DECIDE){
+	    strip_cooperations[strip] = count;
+	}
+	else {
+	    strip_dead_count[strip] = count;
+	}
+    }
 
-		int north = (j-1 + world_height) % world_height;
-		
-		Player player = column.get(j);
-		Player p_north = column.get(north);
-		Player p_east = right_column.get(j);
 
-		DecisionPair vertOutcome = 
-		    new DecisionPair(player.getDecision(),
-				     p_north.getDecision());
+    /**
+     * chooseParents picks a parent for every dead player in a
+     * strip's queue and copies the parameters of the baby it will
+     * have into the child_ arrays. A queued player that is no
+     * longer dead is passed over.
+     *
+     * @param  strip  the strip
+     *
+     * @return  the number of dead players
+     **/
+    private int chooseParents (int strip){
 
-		DecisionPair horizOutcome = 
-		    new DecisionPair(player.getDecision(),
-				     p_east.getDecision());
+	SplitMix strip_prng = strip_prngs[strip];
+	int[] dead = strip_dead[strip];
+	int deaths = 0;
 
-		vert_decisions.get(i).set(j, vertOutcome);
-		horiz_decisions.get(i).set(j, horizOutcome);
-		//	System.out.printf("Decisions for player %d, %d in game to its north: (%d, %d)\n", j, i, vertOutcome.getPayoffs()[0], vertOutcome.getPayoffs()[1]);
-		//	System.out.printf("Decisions for player %d, %d in game to its east: (%d, %d) \n", j, i, horizOutcome.getPayoffs()[0], horizOutcome.getPayoffs()[1]);
+	for (int k = 0; k < strip_dead_count[strip]; k++ ){
 
-	    }		
+	    int cell = dead[k];
+	    if (life_points[cell] > 0){
+		continue;
+	    }
+	    deaths++;
+
+	    int parent = neighbor(cell / world_height, cell % world_height,
+				  strip_prng.nextFloat());
+	    child_total_life[cell] = total_life[parent];
+	    child_misanthropy[cell] = misanthropy[parent];
+	    child_certainty[cell] = certainty[parent];
+	    child_optimism[cell] = optimism[parent];
+
+	    if (strip_prng.nextFloat() < PROB_MUTATION){
+		child_certainty[cell] =
+		    max(0, certainty[parent]
+			+ ((float)(strip_prng.nextFloat() - .5)/10));
+	    }
 	}
-	
-	// traverse the board again and deal damage, push new
-	// memories
-	for ( int i = 0; i < world_width; i++ ){
+	return deaths;
+    }
 
-	    ArrayList<Player> column = world.get(i);
 
-	    for (int j = 0; j < world_height; j++ ){
+    /**
+     * birth replaces every dead player in a strip's queue with the
+     * child chosen for it, and empties the queue.
+     *
+     * @param  strip  the strip
+     **/
+    private void birth (int strip){
 
-		Player player = column.get(j);
+	int[] dead = strip_dead[strip];
 
-		int south = (j+1) % world_height;
-		int west = (i-1 + world_width) % world_width;
+	for (int k = 0; k < strip_dead_count[strip]; k++ ){
 
-		int loss_of_life = 
-		    vert_decisions.get(i).get(j).getPayoffs()[0] +
-		    vert_decisions.get(i).get(south).getPayoffs()[1] +
-		    horiz_decisions.get(i).get(j).getPayoffs()[0] + 
-		    horiz_decisions.get(west).get(j).getPayoffs()[1];
-		//	System.out.printf("Player %d, %d loses %d life \n",
-		//				  j, i, loss_of_life);
+	    int cell = dead[k];
+	    if (life_points[cell] <= 0){
+		inherit(cell, child_total_life[cell],
+			child_misanthropy[cell], child_certainty[cell],
+			child_optimism[cell]);
+	    }
+	}
+	strip_dead_count[strip] = 0;
+    }
 
-		player.increaseLP(loss_of_life);
-		
-		float new_memory = (float)
-		    (vert_decisions.get(i).get(j).decision1 +
-		     vert_decisions.get(i).get(south).decision2 +
-		     horiz_decisions.get(i).get(j).decision1 + 
-		     horiz_decisions.get(west).get(j).decision2);
 
-		player.pushMemory(new_memory);
+    /**
+     * Phase runs one phase of a round on a range of strips,
+     * splitting the range in half until each task has one strip.
+     **/
+    private class Phase extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private int phase;
+	private int first_strip;
+	private int last_strip;
+
+	Phase (int phase, int first_strip, int last_strip){
+	    this.phase = phase;
+	    this.first_strip = first_strip;
+	    this.last_strip = last_strip;
+	}
+
+	protected void compute (){
+
+	    if (last_strip - first_strip == 1){
+		runStrip(phase, first_strip);
+		return;
 	    }
-	    
+	    int middle = (first_strip + last_strip) / 2;
+	    invokeAll(new Phase(phase, first_strip, middle),
+		      new Phase(phase, middle, last_strip));
 	}
-	
-	// update the board
-	circleOfLife();
-    } 
+    }
 
 
     /**
-     * circleOfLife traverses the board and removes dead Players.
-     * Dead Players are replaced with a new Player probabilistically 
-     * born from a nearby player.
+     * getCooperationRate returns the proportion of decisions made in
+     * the last round that were to cooperate. Every player makes four
+     * decisions a round, one per game.
+     *
+     * @return  the proportion of cooperations, 0 before any round
      **/
-    void circleOfLife(){
+    float getCooperationRate (){
 
-	ArrayList<ArrayList<Player>> a_whole_new_world = world;
+	return (float)getCooperations()
+	    / (4*(long)world_width*(last_row - first_row));
+    }
 
-	int world_width = world.size();
-	int world_height = world.get(0).size();
 
-	for (int i = 0; i < world_width; i ++ ){
+    /**
+     * getCooperations returns the number of decisions made in the
+     * last round that were to cooperate.
+     *
+     * @return  the number of cooperations, 0 before any round
+     **/
+    long getCooperations (){
 
-	    ArrayList<Player> column = world.get(i);
+	long cooperations = slept_cooperations;
+	for (int strip = 0; strip < num_strips; strip++ ){
+	    cooperations += strip_cooperations[strip];
+	}
+	return cooperations;
+    }
 
-	    for (int j = 0; j < world_height; j++ ){
-		
-		Player player = column.get(j);
-		
-		if (player.getLP() <= 0){
-		    
-		    //	    System.out.printf("Player %d,%d has died \n", j, i);
-		    float chooseParent = prng.nextFloat();
-		    Player parent;
 
-		    int east = (i+1) % world_width;
-		    int west = (i-1 + world_width) % world_width;
-		    int north = (j-1 + world_height) % world_height;
-		    int south = (j+1) % world_height;
+    /**
+     * getDeaths returns the number of players that died, and were
+     * replaced, in the last round.
+     *
+     * @return  the number of deaths, 0 before any round
+     **/
+    int getDeaths (){
 
-		    // if random number is < .25, choose player
-		    // to the north
-		    if (chooseParent < .25 ) {
-			parent = world.get(i).get(north);
-		    }
-		    // if .25 < x < .5, choose player to the east
-		    else if (chooseParent < .5 ){
-			parent = world.get(east).get(j);
-		    }
-		    // if .5 < x < .75, choose player to the south
-		    else if (chooseParent < .75 ){
-			parent = world.get(i).get(south);
-		    }
-		    // if .75 < x < 1, choose player to the west
-		    else {
-			parent = world.get(west).get(j);
-		    }
-		
-		    a_whole_new_world.get(i).set(j, parent.birth());
-		    //		    System.out.printf("New player at %d,%d has certainty %.3f \n", j, i, a_whole_new_world.get(i).get(j).getCertainty());
-		}
-	    }
+	int deaths = 0;
+	for (int strip = 0; strip < num_strips; strip++ ){
+	    deaths += strip_deaths[strip];
 	}
-	this.world = a_whole_new_world;
+	return deaths;
+    }
+
+
+    /**
+     * putCertainties copies certainties, in board index order,
+     * into the given buffer starting with the player at index
+     * first, until the buffer is full or the players run out.
+     *
+     * @param  out  the buffer to fill
+     * @param  first  the index of the first player to copy
+     *
+     * @return  the index of the first player not copied
+     **/
+    int putCertainties (FloatBuffer out, int first){
+
+	int length = min(out.remaining(), num_cells - first);
+	out.put(certainty, first, length);
+	return first + length;
     }
-      
-    
+
+
     /**
      * printBoard prints the current certainties of all players
      * as well as the current life points of all players
@@ -238,8 +2464,6 @@ public class Board {
 	System.out.println("Certainties and LP of current players");
 	System.out.println("(certainties, lp):");
 
-	int world_width = world.size();
-	int world_height = world.get(0).size();
 
 	StringBuilder[] rowStates = new StringBuilder[world_height];
 	//	for (int i = 0; i < world_width; i ++ ){
@@ -258,11 +2482,11 @@ public class Board {
 		rowStates[j].append("( ");
 		rowStates[j].append
 		    (Float.toString
-		     (world.get(i).get(j).getCertainty()));
+		     (certainty[i*world_height + j]));
 		rowStates[j].append(", ");
 		rowStates[j].append
 		     (Float.toString
-		      (world.get(i).get(j).getLP()));
+		      (lifePoints(i*world_height + j)));
 		rowStates[j].append(") ");
 	    }
 	    rowStates[j].append("\n");
@@ -278,38 +2502,12 @@ public class Board {
      **/
     public void printSummaryStats(){
 
-	int world_width = world.size();
-	int world_height = world.get(0).size();
-
-	float mean_certainty;
-	float max_certainty;
-	float min_certainty;
-	float median_certainty = 0;
-	float sum = 0;
-
-	ArrayList<Float> certs = 
-	    new ArrayList<Float>(world_width * world_height);
+	float[] stats = getSummaryStats();
 
-	for (int i = 0; i < world_width; i ++ ){
-	    
-	    ArrayList<Player> column = world.get(i);
-	    
-	    for (int j = 0; j < world_height; j++ ){
-		// add this certainty to the list
-		certs.add(column.get(j).getCertainty());
-		// add this certainty to the sum
-		sum += column.get(j).getCertainty();
-	    }
-	}
-	// calculate average certainty
-	mean_certainty = sum/(world_width * world_height);
-	
-	// sort the certainties and calculate stats
-	Collections.sort(certs);
-	max_certainty = certs.get(world_width * world_height - 1);
-	min_certainty = certs.get(0);
-	median_certainty = 
-	    certs.get((int)((world_width * world_height - 1 )/2));
+	float mean_certainty = stats[0];
+	float median_certainty = stats[1];
+	float max_certainty = stats[2];
+	float min_certainty = stats[3];
 
 	System.out.printf("World is %d x %d \n",
 			  world_height, world_width);
@@ -340,51 +2538,149 @@ public class Board {
      * stats[1] = median certainty
      * stats[2] = max certainty
      * stats[3] = min certainty
-     * stats[4] = empty
+     * stats[4] = proportion of players with certainty >= the median
      * stats[5] = empty
      * stats[6] = number of players
      **/
     public float[] getSummaryStats(){
+	return getSummaryStats(Float.NaN, Float.NaN);
+    }
 
-	int world_width = world.size();
-	int world_height = world.get(0).size();
+    /**
+     * getSummaryStats returns the summary statistics along with the
+     * proportions of players whose certainty is at least each of
+     * the given values. Mean, max, min and both proportions come
+     * out of a single pass over the certainties. The median comes
+     * from a quickselect over a copy of them, which also counts the
+     * players below the median, so the whole thing is O(players).
+     *
+     * @param  first  the certainty value of interest for stats[4].
+     * NaN for the median
+     * @param  second  the certainty value of interest for stats[5].
+     * NaN to leave stats[5] empty
+     *
+     * @return  stats  float array where
+     * stats[0] = mean certainty
+     * stats[1] = median certainty
+     * stats[2] = max certainty
+     * stats[3] = min certainty
+     * stats[4] = proportion of players with certainty >= first
+     * stats[5] = proportion of players with certainty >= second
+     * stats[6] = number of players
+     **/
+    public float[] getSummaryStats(float first, float second){
 
 	float[] stats = new float[7];
 
-	float mean_certainty;
-	float max_certainty;
-	float min_certainty;
-	float median_certainty = 0;
-	float sum = 0;
+	if (scratch == null){
+	    scratch = new float[num_cells];
+	}
 
-	ArrayList<Float> certs = 
-	    new ArrayList<Float>(world_width * world_height);
+	double sum = 0;
+	float max_certainty = certainty[0];
+	float min_certainty = certainty[0];
+	int first_count = 0;
+	int second_count = 0;
 
-	for (int i = 0; i < world_width; i ++ ){
-	    
-	    ArrayList<Player> column = world.get(i);
-	    
-	    for (int j = 0; j < world_height; j++ ){
-		// add this certainty to the list
-		certs.add(column.get(j).getCertainty());
-		// add this certainty to the sum
-		sum += column.get(j).getCertainty();
+	for (int c = 0; c < num_cells; c++ ){
+
+	    float b = certainty[c];
+	    scratch[c] = b;
+
+	    sum += b;
+	    max_certainty = max(max_certainty, b);
+	    min_certainty = min(min_certainty, b);
+
+	    // comparisons with NaN are false, so unused counts stay 0
+	    if (b >= first){
+		first_count++;
+	    }
+	    if (b >= second){
+		second_count++;
 	    }
 	}
-	// calculate average certainty
-	stats[0] = sum/(world_width * world_height);
-	
-	// sort the certainties and calculate stats
-	Collections.sort(certs);
-	stats[2] = certs.get(world_width * world_height - 1);
-	stats[3] = certs.get(0);
-	stats[1] = 
-	    certs.get((int)((world_width * world_height - 1 )/2));
+
+	int middle = (num_cells - 1)/2;
+	int below_median = select(scratch, middle);
+
+	stats[0] = (float)(sum/num_cells);
+	stats[1] = scratch[middle];
+	stats[2] = max_certainty;
+	stats[3] = min_certainty;
 	stats[6] = (float)world_height * world_width;
 
+	if (Float.isNaN(first)){
+	    stats[4] = (float)(num_cells - below_median)/num_cells;
+	}
+	else {
+	    stats[4] = (float)first_count/num_cells;
+	}
+	if (!Float.isNaN(second)){
+	    stats[5] = (float)second_count/num_cells;
+	}
+
 	return stats;
     }
 
+    /**
+     * select rearranges values so that values[k] holds the value
+     * that would be there if they were sorted, using quickselect
+     * with three way partitioning. Runs of equal certainties,
+     * which births make common, are settled in one step.
+     *
+     * @param  values  the values to search. They are rearranged
+     * @param  k  the rank of the value to find, from 0
+     *
+     * @return  the number of values strictly less than values[k]
+     **/
+    private static int select (float[] values, int k){
+
+	int lo = 0;
+	int hi = values.length - 1;
+
+	while (true){
+
+	    // the median of the first, middle and last values
+	    float a = values[lo];
+	    float b = values[(lo + hi) >>> 1];
+	    float c = values[hi];
+	    float pivot = max(min(a, b), min(max(a, b), c));
+
+	    // values[lo, lt) < pivot, values[lt, i) == pivot and
+	    // values(gt, hi] > pivot
+	    int lt = lo;
+	    int gt = hi;
+	    int i = lo;
+	    while (i <= gt){
+
+		float v = values[i];
+		if (v < pivot){
+		    values[i++] = values[lt];
+		    values[lt++] = v;
+		}
+		else if (v > pivot){
+		    values[i] = values[gt];
+		    values[gt--] = v;
+		}
+		else {
+		    i++;
+		}
+	    }
+
+	    // everything left of lo is less than everything in
+	    // [lo, hi], so lt counts all the values below the pivot
+	    if (k < lt){
+		hi = lt - 1;
+	    }
+	    else if (k > gt){
+		lo = gt + 1;
+	    }
+	    else {
+		return lt;
+	    }
+	}
+    }
+
     /**
      * percentLessThan takes a float x and returns the percentage of
      * the population with certainties less than that value
@@ -394,22 +2690,14 @@ public class Board {
      * @return  the pop % with certainties less than x
      **/
     float percentLessThan ( float x ){
-	int world_width = world.size();
-	int world_height = world.get(0).size();
 
 	float popPercentage = 0;;    //the percentage to return
 
-	for (int i = 0; i < world_width; i ++ ){
-	    
-	    ArrayList<Player> column = world.get(i);
-	    
-	    for (int j = 0; j < world_height; j++ ){
+	for (int c = 0; c < num_cells; c++ ){
 
-		if ( column.get(j).getCertainty() < x ){
-		    popPercentage += 1;
-		}
+	    if ( certainty[c] < x ){
+		popPercentage += 1;
 	    }
-	    
 	}
 	return (popPercentage/(world_width * world_height));
     }
@@ -428,8 +2716,6 @@ public class Board {
 
     void markPlayersGreaterThan( float cert ){
 
-	int world_width = world.size();
-	int world_height = world.get(0).size();
 
 	for (int i = 0; i < world_height; i ++ ){
 	    
@@ -440,7 +2726,7 @@ public class Board {
 	    System.out.printf("_\n");
 	    System.out.printf("|");
 	    for (int j = 0; j < world_width; j++ ){
-		if (world.get(j).get(i).getCertainty() > cert ){
+		if (certainty[j*world_height + i] > cert ){
 		    System.out.printf("o|");
 		}
 		else{
@@ -456,6 +2742,41 @@ public class Board {
     }
 
 
+    /**
+     * saveCheckpoint saves the board main is playing after round i,
+     * if a checkpoint is due then. One is due every checkpoint_every
+     * rounds and after the last round.
+     *
+     * @param  game  the board
+     * @param  checkpoint  the file to save to, or null for none
+     * @param  checkpoint_every  rounds between checkpoints, 0 for
+     * only after the last round
+     * @param  i  the round just played
+     * @param  rounds  the number of rounds in the run
+     **/
+    private static void saveCheckpoint (Board game, String checkpoint,
+					int checkpoint_every, int i,
+					int rounds) throws IOException {
+
+	if (checkpointDue(checkpoint, checkpoint_every, i, rounds)){
+	    Checkpoint.save(game, Paths.get(checkpoint));
+	}
+    }
+
+    /**
+     * checkpointDue says whether saveCheckpoint saves after round i.
+     * See saveCheckpoint.
+     **/
+    private static boolean checkpointDue (String checkpoint,
+					  int checkpoint_every, int i,
+					  int rounds){
+
+	return checkpoint != null
+	    && (i == rounds - 1
+		|| (checkpoint_every > 0 && (i + 1) % checkpoint_every == 0));
+    }
+
+
     public static void main (String args[]){
 	
 	int m = 0;
@@ -463,25 +2784,32 @@ public class Board {
 	float[] certainties = new float[0];
 	int time_horizon = 0;
 	int space_horizon = 1;
+	int neighborhood = VON_NEUMANN;
 	int rounds = 0;
 	int life_points = 0;
 	//float[] altruism = new float[0];   holding constant for now
 	float altruism = -3;
 	//float[] optimism = new float[0];   starting at 0 for now
 	float optimism = 0;
+	String recording = null;
+	int grid_every = 0;
+	float activity_tolerance = -1;
+	String checkpoint = null;
+	int checkpoint_every = 0;
+	String metrics_file = null;
 	
-	String usage_warning = "usage: [-m rows] [-n columns] [-l lifepoints] [-c certainty array (comma separated, no spaces)] [-s space horizon] [-t time horizon] [-r rounds]";
+	String usage_warning = "usage: [-m rows] [-n columns] [-l lifepoints] [-c certainty array (comma separated, no spaces)] [-s space horizon] [-k neighborhood (vonneumann or moore)] [-t time horizon] [-r rounds] [-o recording file] [-g record certainties every g rounds] [-a let settled tiles sleep, with this tolerance] [-x checkpoint file, resumed from if it exists] [-e checkpoint every e rounds] [-p phase timings file, a CSV row per round]";
 
 	String arglength_warning = "certainty array must equal m*n";
 
-	if (args.length != 14){
+	if (args.length < 14){
 	    System.err.println(usage_warning);
 	    System.exit(1);
 	}
 	int i;
 	int j;
 
-	for ( i = 0; i < 14; i++){
+	for ( i = 0; i < args.length; i++){
 
 	    if( args[i].equals("-m")){
 		i ++;
@@ -513,15 +2841,49 @@ public class Board {
 		i++;
 		space_horizon = Integer.parseInt(args[i]);
 	    }
+	    else if (args[i].equals("-k")){
+		i++;
+		if (args[i].equals("moore")){
+		    neighborhood = MOORE;
+		}
+		else if (!args[i].equals("vonneumann")){
+		    System.err.println(usage_warning);
+		    System.exit(1);
+		}
+	    }
 	    else if (args[i].equals("-r")){
 		i++;
 		rounds = Integer.parseInt(args[i]);
 	    }
+	    else if (args[i].equals("-o")){
+		i++;
+		recording = args[i];
+	    }
+	    else if (args[i].equals("-g")){
+		i++;
+		grid_every = Integer.parseInt(args[i]);
+	    }
+	    else if (args[i].equals("-a")){
+		i++;
+		activity_tolerance = Float.parseFloat(args[i]);
+	    }
+	    else if (args[i].equals("-x")){
+		i++;
+		checkpoint = args[i];
+	    }
+	    else if (args[i].equals("-e")){
+		i++;
+		checkpoint_every = Integer.parseInt(args[i]);
+	    }
+	    else if (args[i].equals("-p")){
+		i++;
+		metrics_file = args[i];
+	    }
 	    else{
 		System.err.println(usage_warning);
 		System.exit(1);
 	    }
-	  	    
+		    
 	}
 	if (certainties.length != (m*n)){
 	    System.err.println(arglength_warning);
@@ -541,7 +2903,7 @@ public class Board {
 		
 		column.add(new Player
 		    ( life_points, altruism, certainties[n*i + j], 
-		      time_horizon, optimism, new Random()));
+		      time_horizon, optimism, null));
 	    }
 
 	    players.add(column);
@@ -549,13 +2911,104 @@ public class Board {
 
 	// build the game board
 	Board game = new Board(players, space_horizon);
+	game.setNeighborhood(neighborhood);
+	if (activity_tolerance >= 0){
+	    game.setActivityTracking(true, activity_tolerance);
+	}
+
+	// pick up where the last run stopped, if it left a checkpoint
+	int start = 0;
+	if (checkpoint != null && Files.exists(Paths.get(checkpoint))){
+	    try {
+		game = Checkpoint.load(Paths.get(checkpoint));
+		start = game.getRounds();
+	    }
+	    catch (IOException e){
+		System.err.println("could not resume from " + checkpoint
+				   + ": " + e.getMessage());
+		System.exit(1);
+	    }
+	}
 
-	for ( i = 0; i < rounds; i++ ){
-	    System.out.printf("Round %d: \n", i);
-	    game.round();
-	    game.printBoard();
+	// time every round if asked to
+	Metrics metrics = null;
+	if (metrics_file != null){
+	    metrics = new Metrics();
+	    try {
+		metrics.writeCsv(Paths.get(metrics_file), 1);
+	    }
+	    catch (IOException e){
+		System.err.println("could not write " + metrics_file + ": "
+				   + e.getMessage());
+		System.exit(1);
+	    }
 	}
 
+	// the timings file, if any, is closed however the run ends
+	try (Metrics timings = metrics){
+
+	    if (timings != null){
+		game.setMetrics(timings);
+	    }
+
+	    // record the run to a file if asked to, print it otherwise
+	    if (recording != null){
+
+		// a resumed run goes on with the recording it was making
+		try (Recorder recorder = new Recorder(Paths.get(recording),
+						      game, grid_every,
+						      start)){
+
+		    for ( i = start; i < rounds; i++ ){
+			game.round();
+			recorder.record(i);
+
+			// the recording holds every round a checkpoint
+			// does, so a run resumed from it can go on with
+			// the recording
+			if (checkpointDue(checkpoint, checkpoint_every, i,
+					  rounds)){
+			    recorder.flush();
+			}
+			try {
+			    saveCheckpoint(game, checkpoint, checkpoint_every,
+					   i, rounds);
+			}
+			catch (IOException e){
+			    System.err.println("could not save " + checkpoint
+					       + ": " + e.getMessage());
+			    System.exit(1);
+			}
+		    }
+		}
+		catch (IOException e){
+		    System.err.println("could not record to " + recording
+				       + ": " + e.getMessage());
+		    System.exit(1);
+		}
+		return;
+	    }
+
+	    for ( i = start; i < rounds; i++ ){
+		System.out.printf("Round %d: \n", i);
+		game.round();
+		game.printBoard();
+		try {
+		    saveCheckpoint(game, checkpoint, checkpoint_every, i,
+				   rounds);
+		}
+		catch (IOException e){
+		    System.err.println("could not save " + checkpoint + ": "
+				       + e.getMessage());
+		    System.exit(1);
+		}
+	    }
+	}
+	catch (IOException e){
+	    System.err.println("could not write " + metrics_file + ": "
+			       + e.getMessage());
+	    System.exit(1);
+	}
 	
 	//java Board -m 4 -n 4 -l 10 -c 1.0,1.0,1.0,1.0,1.0,1.0,1.0,1.0,1.0,1.0,1.0,1.0,1.0,1.0,1.0,1.0 -s 1 -t 3 -r 4
 
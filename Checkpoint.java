@@ -0,0 +1,213 @@
+// Checkpoint saves the whole state of a Board between rounds to a
+// file, and builds a Board back from such a file that plays on
+// exactly as the saved one would have: same players, memories,
+// decision grids and PRNG streams. A long run can save one every
+// so often and pick up from the last one after a crash.
+//
+// A checkpoint is a flat run of sections with no padding, all
+// numbers big endian:
+//
+//   int magic, int version
+//   the sections Board.save writes, in order. See there
+//
+// Each section is written and read through a MappedByteBuffer of
+// at most a gigabyte, so saving a big board is mostly a sequential
+// write into the page cache and restoring it is mostly paging in.
+// A checkpoint is written to a temporary file next to its path and
+// moved over the path once it is complete, so a crash while saving
+// leaves the last checkpoint whole.
+//
+// @version 17-Oct-2026
+//
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import static java.lang.Math.*;
+
+public class Checkpoint {
+
+    static final int MAGIC = 0x5044434b;    // "PDCK"
+    static final int VERSION = 1;
+
+    // the largest mapping, in bytes
+    private static final int WINDOW = 1 << 30;
+
+    private FileChannel channel;
+    private FileChannel.MapMode mode;
+    private long position;
+
+
+    private Checkpoint (FileChannel channel, FileChannel.MapMode mode){
+	this.channel = channel;
+	this.mode = mode;
+    }
+
+
+    /**
+     * save writes a checkpoint of the given board to the given path,
+     * replacing any checkpoint already there. It must not be called
+     * while the board is playing a round.
+     *
+     * @param  board  the board to save
+     * @param  path  the file to save it to
+     **/
+    static void save (Board board, Path path) throws IOException {
+
+	Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+	try (FileChannel channel =
+	     FileChannel.open(temporary, StandardOpenOption.CREATE,
+			      StandardOpenOption.READ,
+			      StandardOpenOption.WRITE,
+			      StandardOpenOption.TRUNCATE_EXISTING)){
+
+	    Checkpoint out =
+		new Checkpoint(channel, FileChannel.MapMode.READ_WRITE);
+	    out.put(new int[] { MAGIC, VERSION });
+	    board.save(out);
+	}
+	Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+		   StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /**
+     * load builds a board from the checkpoint at the given path
+     *
+     * @param  path  the checkpoint
+     *
+     * @return  the board, as it was when it was saved
+     **/
+    static Board load (Path path) throws IOException {
+
+	try (FileChannel channel =
+	     FileChannel.open(path, StandardOpenOption.READ)){
+
+	    Checkpoint in =
+		new Checkpoint(channel, FileChannel.MapMode.READ_ONLY);
+
+	    int[] header = new int[2];
+	    in.get(header);
+	    if (header[0] != MAGIC){
+		throw new IOException(path + " is not a checkpoint");
+	    }
+	    if (header[1] != VERSION){
+		throw new IOException("checkpoint version " + header[1]
+				      + " is not supported");
+	    }
+
+	    Board board = new Board();
+	    board.restore(in);
+	    return board;
+	}
+    }
+
+
+    /**
+     * map maps the next given number of bytes of the file, which
+     * grows to fit them when saving.
+     *
+     * @param  bytes  how many bytes to map, at most WINDOW
+     *
+     * @return  the mapping
+     **/
+    private MappedByteBuffer map (long bytes) throws IOException {
+
+	if (mode == FileChannel.MapMode.READ_ONLY
+	    && position + bytes > channel.size()){
+	    throw new EOFException("checkpoint is cut short");
+	}
+	MappedByteBuffer buffer = channel.map(mode, position, bytes);
+	position += bytes;
+	return buffer;
+    }
+
+    // Each put writes the next section from an array, a window at a
+    // time, and forces every window out to the disk. Each get fills
+    // an array from the next section.
+
+    void put (byte[] values) throws IOException {
+	for (int k = 0; k < values.length; k += WINDOW){
+	    int n = min(values.length - k, WINDOW);
+	    MappedByteBuffer buffer = map(n);
+	    buffer.put(values, k, n);
+	    buffer.force();
+	}
+    }
+
+    void put (int[] values) throws IOException {
+	for (int k = 0; k < values.length; k += WINDOW/4){
+	    int n = min(values.length - k, WINDOW/4);
+	    MappedByteBuffer buffer = map(4L*n);
+	    buffer.asIntBuffer().put(values, k, n);
+	    buffer.force();
+	}
+    }
+
+    void put (long[] values) throws IOException {
+	for (int k = 0; k < values.length; k += WINDOW/8){
+	    int n = min(values.length - k, WINDOW/8);
+	    MappedByteBuffer buffer = map(8L*n);
+	    buffer.asLongBuffer().put(values, k, n);
+	    buffer.force();
+	}
+    }
+
+    void put (float[] values) throws IOException {
+	for (int k = 0; k < values.length; k += WINDOW/4){
+	    int n = min(values.length - k, WINDOW/4);
+	    MappedByteBuffer buffer = map(4L*n);
+	    buffer.asFloatBuffer().put(values, k, n);
+	    buffer.force();
+	}
+    }
+
+    void put (double[] values) throws IOException {
+	for (int k = 0; k < values.length; k += WINDOW/8){
+	    int n = min(values.length - k, WINDOW/8);
+	    MappedByteBuffer buffer = map(8L*n);
+	    buffer.asDoubleBuffer().put(values, k, n);
+	    buffer.force();
+	}
+    }
+
+    void get (byte[] values) throws IOException {
+	for (int k = 0; k < values.length; k += WINDOW){
+	    int n = min(values.length - k, WINDOW);
+	    map(n).get(values, k, n);
+	}
+    }
+
+    void get (int[] values) throws IOException {
+	for (int k = 0; k < values.length; k += WINDOW/4){
+	    int n = min(values.length - k, WINDOW/4);
+	    map(4L*n).asIntBuffer().get(values, k, n);
+	}
+    }
+
+    void get (long[] values) throws IOException {
+	for (int k = 0; k < values.length; k += WINDOW/8){
+	    int n = min(values.length - k, WINDOW/8);
+	    map(8L*n).asLongBuffer().get(values, k, n);
+	}
+    }
+
+    void get (float[] values) throws IOException {
+	for (int k = 0; k < values.length; k += WINDOW/4){
+	    int n = min(values.length - k, WINDOW/4);
+	    map(4L*n).asFloatBuffer().get(values, k, n);
+	}
+    }
+
+    void get (double[] values) throws IOException {
+	for (int k = 0; k < values.length; k += WINDOW/8){
+	    int n = min(values.length - k, WINDOW/8);
+	    map(8L*n).asDoubleBuffer().get(values, k, n);
+	}
+    }
+}
@@ -5,6 +5,22 @@ public class DecisionPair {
     public int decision2;
    
    
+    // PAYOFF[(d1 + 1)*3 + (d2 + 1)] is the payoff to a player who
+    // decided d1 in a game against a player who decided d2.
+    // Decisions are -1 (defect), 1 (cooperate) or 0 (no game played
+    // yet). The game is symmetric, so the other player's payoff is
+    // PAYOFF[(d2 + 1)*3 + (d1 + 1)].
+    private static final int[] PAYOFF = new int[9];
+
+    static {
+	for (int d1 = -1; d1 <= 1; d1++ ){
+	    for (int d2 = -1; d2 <= 1; d2++ ){
+		PAYOFF[(d1 + 1)*3 + (d2 + 1)] = rules(d1, d2)[0];
+	    }
+	}
+    }
+
+
     public DecisionPair( int decision1, int decision2 ){
 	this.decision1 = decision1;
 	this.decision2 = decision2;
@@ -16,6 +32,30 @@ public class DecisionPair {
     }
     
     public int[] getPayoffs(){
+	return new int[]{ payoff(decision1, decision2),
+			  payoff(decision2, decision1) };
+    }
+
+    /**
+     * payoff looks up the payoff to a player who decided mine in a
+     * game against a player who decided theirs. Unlike getPayoffs,
+     * this allocates nothing.
+     *
+     * @param  mine  this player's decision
+     * @param  theirs  the other player's decision
+     *
+     * @return  the payoff to this player
+     **/
+    public static int payoff( int mine, int theirs ){
+	return PAYOFF[(mine + 1)*3 + (theirs + 1)];
+    }
+
+    /**
+     * rules returns the payoffs of a game between two players who
+     * decided decision1 and decision2. It is only used to fill the
+     * payoff table.
+     **/
+    private static int[] rules( int decision1, int decision2 ){
 	if (decision1 > decision2){
 	    return new int[]{-3, 0};
 	    //return new int[]{-2, 2};
@@ -0,0 +1,215 @@
+// FileTransport connects the bands of a distributed board through
+// memory mapped files in a shared directory, for bands on one
+// machine. A directory on a tmpfs such as /dev/shm keeps the files in
+// memory.
+//
+// Every band writes two mailboxes, band-k-north for the band above
+// and band-k-south for the band below, and reads the two its
+// neighbors write to it. A mailbox holds one message at a time:
+//
+//   long sent      the number of the last round written, by the
+//                  writer once the message is in place
+//   long taken     the number of the last round read, by the reader
+//                  once it has copied the message out
+//   the message
+//
+// The writer of round r waits until round r - 1 has been taken, and
+// the reader waits until round r has been sent. sent and taken are
+// written with release and read with acquire semantics, so the
+// message is in place before the other process sees the round.
+//
+// @version 17-Oct-2026
+//
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+public class FileTransport implements Transport {
+
+    private static final VarHandle LONGS =
+	MethodHandles.byteBufferViewVarHandle(long[].class,
+					      ByteOrder.BIG_ENDIAN);
+
+    private static final int SENT = 0;
+    private static final int TAKEN = 8;
+    private static final int MESSAGE = 16;
+
+    // how long to wait for a neighbor, in ns
+    private static final long TIMEOUT = 60000000000L;
+
+    private MappedByteBuffer to_north;
+    private MappedByteBuffer to_south;
+    private MappedByteBuffer from_north;
+    private MappedByteBuffer from_south;
+    private long round;
+
+
+    /**
+     * FileTransport creates band k's mailboxes in the given
+     * directory and opens its neighbors', waiting for them to be
+     * created.
+     *
+     * @param  directory  the shared directory
+     * @param  band  this band's number, k
+     * @param  bands  the number of bands
+     * @param  size  the size of every message, in bytes
+     **/
+    public FileTransport (Path directory, int band, int bands, int size)
+	throws IOException {
+
+	int above = (band - 1 + bands) % bands;
+	int below = (band + 1) % bands;
+
+	to_north = create(directory, "band-" + band + "-north", size);
+	to_south = create(directory, "band-" + band + "-south", size);
+	from_north = open(directory.resolve("band-" + above + "-south"), size);
+	from_south = open(directory.resolve("band-" + below + "-north"), size);
+    }
+
+
+    /**
+     * create makes an empty mailbox and maps it. It is written in
+     * full under another name first, so a reader never maps a
+     * mailbox that is still growing.
+     *
+     * @param  directory  the shared directory
+     * @param  name  the mailbox's name
+     * @param  size  the size of its messages
+     *
+     * @return  the mapped mailbox
+     **/
+    private static MappedByteBuffer create (Path directory, String name,
+					    int size) throws IOException {
+
+	Path temporary = directory.resolve(name + ".tmp");
+	Path path = directory.resolve(name);
+
+	Files.write(temporary, new byte[MESSAGE + size]);
+	Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+		   StandardCopyOption.ATOMIC_MOVE);
+	return map(path, size);
+    }
+
+
+    /**
+     * open maps a neighbor's mailbox once it exists.
+     *
+     * @param  path  the mailbox
+     * @param  size  the size of its messages
+     *
+     * @return  the mapped mailbox
+     **/
+    private static MappedByteBuffer open (Path path, int size)
+	throws IOException {
+
+	long deadline = System.nanoTime() + TIMEOUT;
+	while (!Files.exists(path)){
+	    if (System.nanoTime() > deadline){
+		throw new IOException("no neighbor created " + path);
+	    }
+	    LockSupport.parkNanos(1000000);
+	}
+	return map(path, size);
+    }
+
+    private static MappedByteBuffer map (Path path, int size)
+	throws IOException {
+
+	try (FileChannel channel =
+	     FileChannel.open(path, StandardOpenOption.READ,
+			      StandardOpenOption.WRITE)){
+	    return channel.map(FileChannel.MapMode.READ_WRITE, 0,
+			       MESSAGE + size);
+	}
+    }
+
+
+    public void exchange (ByteBuffer north, ByteBuffer south,
+			  ByteBuffer from_above, ByteBuffer from_below)
+	throws IOException {
+
+	round++;
+	send(to_north, north);
+	send(to_south, south);
+	take(from_north, from_above);
+	take(from_south, from_below);
+    }
+
+
+    /**
+     * send puts this round's message in a mailbox once the last one
+     * has been taken.
+     *
+     * @param  mailbox  the mailbox
+     * @param  message  the message
+     **/
+    private void send (MappedByteBuffer mailbox, ByteBuffer message)
+	throws IOException {
+
+	await(mailbox, TAKEN, round - 1);
+	mailbox.put(MESSAGE, message, message.position(), message.remaining());
+	message.position(message.limit());
+	LONGS.setRelease(mailbox, SENT, round);
+    }
+
+
+    /**
+     * take copies this round's message out of a mailbox once it has
+     * been sent.
+     *
+     * @param  mailbox  the mailbox
+     * @param  message  where to copy it
+     **/
+    private void take (MappedByteBuffer mailbox, ByteBuffer message)
+	throws IOException {
+
+	await(mailbox, SENT, round);
+	message.put(message.position(), mailbox, MESSAGE, message.remaining());
+	message.position(message.limit());
+	LONGS.setRelease(mailbox, TAKEN, round);
+    }
+
+
+    /**
+     * await spins, and then sleeps in short naps, until the given
+     * field of a mailbox reaches the given round.
+     *
+     * @param  mailbox  the mailbox
+     * @param  field  SENT or TAKEN
+     * @param  target  the round to wait for
+     **/
+    private static void await (MappedByteBuffer mailbox, int field,
+			       long target) throws IOException {
+
+	long deadline = 0;
+	for (int spins = 0; (long)LONGS.getAcquire(mailbox, field) < target;
+	     spins++ ){
+
+	    if (spins < 10000){
+		Thread.onSpinWait();
+		continue;
+	    }
+	    if (deadline == 0){
+		deadline = System.nanoTime() + TIMEOUT;
+	    }
+	    else if (System.nanoTime() > deadline){
+		throw new IOException("a neighboring band stopped answering");
+	    }
+	    LockSupport.parkNanos(20000);
+	}
+    }
+
+
+    public void close (){
+	// the mappings go when they are collected
+    }
+}
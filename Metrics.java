@@ -0,0 +1,360 @@
+// Metrics times the rounds of a Board, phase by phase, to show where
+// a round's time goes, to spot regressions and to choose how many
+// threads a board of a given size should use. A board only measures
+// itself while it has a Metrics, see Board.setMetrics. Without one,
+// round() only checks that it has none.
+//
+// For every round it keeps the nanoseconds spent in each phase:
+//   decide   players decide, and packed boards merge their edges
+//   halo     a band swaps its ghost rows with its neighbors
+//   damage   payoffs, memories and wider neighborhoods
+//   life     circleOfLife, and sleeping tiles on a board that
+//            tracks activity
+// and the players played per second, the deaths and births, and the
+// bytes allocated by the round's threads, the one calling round()
+// and the board's pool, as ThreadMXBean counts them. Every player
+// who dies is born again in the same round, so births equal deaths.
+//
+// The last round and the totals since the last reset can be read
+// through JMX once the metrics are registered, and a row of CSV can
+// be appended to a file every so many rounds.
+//
+// Running main times square boards on 1, 2, 4, ... threads.
+//
+// @version 17-Oct-2026
+//
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public class Metrics implements MetricsMBean, Closeable {
+
+    // phases
+    static final int DECIDE = 0;
+    static final int HALO = 1;
+    static final int DAMAGE = 2;
+    static final int LIFE = 3;
+
+    static final String[] PHASES = { "decide", "halo", "damage", "life" };
+
+    // null if this JVM can not count allocations per thread
+    private static final com.sun.management.ThreadMXBean THREADS;
+    static {
+	ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	THREADS = (threads instanceof com.sun.management.ThreadMXBean)
+	    ? (com.sun.management.ThreadMXBean)threads : null;
+    }
+
+    // the round being played, written by the thread playing it
+    private long lap_start;
+    private long[] round_nanos = new long[PHASES.length];
+    private long[] thread_ids = new long[0];
+    private long[] thread_bytes = new long[0];
+
+    // the last round
+    private long[] last_nanos = new long[PHASES.length];
+    private long last_round_nanos;
+    private long last_players;
+    private long last_deaths;
+    private long last_bytes;
+
+    // every round since the last reset
+    private long rounds;
+    private long[] total_phase_nanos = new long[PHASES.length];
+    private long total_nanos;
+    private long total_players;
+    private long total_deaths;
+    private long total_bytes;
+
+    // the rounds since the last row of CSV
+    private BufferedWriter csv;
+    private int csv_every;
+    private int window_rounds;
+    private long[] window_nanos = new long[PHASES.length];
+    private long window_round_nanos;
+    private long window_players;
+    private long window_deaths;
+    private long window_bytes;
+
+
+    /**
+     * register makes these metrics visible through JMX, as
+     * pdgame:type=Metrics,name=name
+     *
+     * @param  name  the name to register them under
+     **/
+    void register (String name) throws JMException {
+	ManagementFactory.getPlatformMBeanServer()
+	    .registerMBean(this, new ObjectName("pdgame:type=Metrics,name="
+						+ ObjectName.quote(name)));
+    }
+
+
+    /**
+     * writeCsv starts appending a row to the given file every so
+     * many rounds, with the columns
+     *
+     *   round, rounds, decide_ns, halo_ns, damage_ns, life_ns,
+     *   round_ns, players_per_second, deaths, births, allocated_bytes
+     *
+     * where round is the last round of the row, and the others are
+     * summed over the rounds since the row before. A file that is
+     * new or empty gets a header first.
+     *
+     * @param  path  the file
+     * @param  every  the number of rounds per row
+     **/
+    void writeCsv (Path path, int every) throws IOException {
+
+	close();
+	boolean header = !Files.exists(path) || Files.size(path) == 0;
+	csv = Files.newBufferedWriter(path,
+				      StandardOpenOption.CREATE,
+				      StandardOpenOption.APPEND);
+	csv_every = every;
+	if (header){
+	    csv.write("round,rounds,decide_ns,halo_ns,damage_ns,life_ns,"
+		      + "round_ns,players_per_second,deaths,births,"
+		      + "allocated_bytes\n");
+	    csv.flush();
+	}
+    }
+
+
+    /**
+     * close stops writing CSV
+     **/
+    public void close () throws IOException {
+	if (csv != null){
+	    csv.close();
+	    csv = null;
+	}
+    }
+
+
+    /**
+     * begin starts timing a round.
+     *
+     * @param  threads  the threads that will play it
+     **/
+    void begin (List<Thread> threads){
+
+	thread_ids = new long[threads.size()];
+	thread_bytes = new long[threads.size()];
+	for (int k = 0; k < thread_ids.length; k++ ){
+	    thread_ids[k] = threads.get(k).getId();
+	    thread_bytes[k] = allocated(thread_ids[k]);
+	}
+	Arrays.fill(round_nanos, 0);
+	lap_start = System.nanoTime();
+    }
+
+
+    /**
+     * lap ends the given phase of the round being timed and starts
+     * the next
+     *
+     * @param  phase  DECIDE, HALO, DAMAGE or LIFE
+     **/
+    void lap (int phase){
+
+	long now = System.nanoTime();
+	round_nanos[phase] += now - lap_start;
+	lap_start = now;
+    }
+
+
+    /**
+     * end finishes timing a round and adds it to the totals.
+     *
+     * @param  round  the number of the round
+     * @param  threads  the threads that played it. Those that were
+     * not there when it began allocated everything they have
+     * @param  players  the number of players who played it
+     * @param  deaths  the number who died in it
+     **/
+    void end (int round, List<Thread> threads, long players, long deaths){
+
+	long bytes = 0;
+	for (Thread thread : threads){
+
+	    long now = allocated(thread.getId());
+	    long before = 0;
+	    for (int k = 0; k < thread_ids.length; k++ ){
+		if (thread_ids[k] == thread.getId()){
+		    before = thread_bytes[k];
+		}
+	    }
+	    if (now >= 0 && before >= 0){
+		bytes += now - before;
+	    }
+	}
+
+	long round_total = 0;
+	for (long nanos : round_nanos){
+	    round_total += nanos;
+	}
+
+	synchronized (this){
+
+	    System.arraycopy(round_nanos, 0, last_nanos, 0, PHASES.length);
+	    last_round_nanos = round_total;
+	    last_players = players;
+	    last_deaths = deaths;
+	    last_bytes = bytes;
+
+	    rounds++;
+	    for (int phase = 0; phase < PHASES.length; phase++ ){
+		total_phase_nanos[phase] += round_nanos[phase];
+	    }
+	    total_nanos += round_total;
+	    total_players += players;
+	    total_deaths += deaths;
+	    total_bytes += bytes;
+	}
+
+	if (csv == null){
+	    return;
+	}
+	for (int phase = 0; phase < PHASES.length; phase++ ){
+	    window_nanos[phase] += round_nanos[phase];
+	}
+	window_rounds++;
+	window_round_nanos += round_total;
+	window_players += players;
+	window_deaths += deaths;
+	window_bytes += bytes;
+
+	if (window_rounds < csv_every){
+	    return;
+	}
+	try {
+	    csv.write(String.format("%d,%d,%d,%d,%d,%d,%d,%.0f,%d,%d,%d\n",
+				    round, window_rounds, window_nanos[DECIDE],
+				    window_nanos[HALO], window_nanos[DAMAGE],
+				    window_nanos[LIFE], window_round_nanos,
+				    perSecond(window_players, window_round_nanos),
+				    window_deaths, window_deaths, window_bytes));
+	    csv.flush();
+	}
+	catch (IOException e){
+	    throw new UncheckedIOException(e);
+	}
+	window_rounds = 0;
+	Arrays.fill(window_nanos, 0);
+	window_round_nanos = window_players = window_deaths = window_bytes = 0;
+    }
+
+
+    /**
+     * allocated returns how many bytes a thread has allocated
+     *
+     * @param  id  the id of the thread
+     *
+     * @return  the bytes, or -1 if they can not be counted
+     **/
+    private static long allocated (long id){
+	return (THREADS != null) ? THREADS.getThreadAllocatedBytes(id) : -1;
+    }
+
+    private static double perSecond (long count, long nanos){
+	return (nanos > 0) ? count * 1e9 / nanos : 0;
+    }
+
+
+    public synchronized long getRounds (){ return rounds; }
+
+    public synchronized long getRoundNanos (){ return last_round_nanos; }
+    public synchronized long getDecideNanos (){ return last_nanos[DECIDE]; }
+    public synchronized long getHaloNanos (){ return last_nanos[HALO]; }
+    public synchronized long getDamageNanos (){ return last_nanos[DAMAGE]; }
+    public synchronized long getLifeNanos (){ return last_nanos[LIFE]; }
+
+    public synchronized double getPlayersPerSecond (){
+	return perSecond(last_players, last_round_nanos);
+    }
+
+    public synchronized long getDeaths (){ return last_deaths; }
+    public synchronized long getBirths (){ return last_deaths; }
+    public synchronized long getAllocatedBytes (){ return last_bytes; }
+
+    public synchronized long getTotalNanos (){ return total_nanos; }
+
+    public synchronized double getMeanPlayersPerSecond (){
+	return perSecond(total_players, total_nanos);
+    }
+
+    public synchronized long getTotalDeaths (){ return total_deaths; }
+    public synchronized long getTotalAllocatedBytes (){ return total_bytes; }
+
+    public synchronized void reset (){
+	rounds = total_nanos = total_players = total_deaths = total_bytes = 0;
+	Arrays.fill(total_phase_nanos, 0);
+    }
+
+
+    public static void main (String[] args){
+
+	// a side of the board, the rounds to time, the most threads
+	int size = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+	int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 50;
+	int most = (args.length > 2) ? Integer.parseInt(args[2])
+	    : Runtime.getRuntime().availableProcessors();
+
+	System.out.printf("%dx%d board, %d rounds after as many to warm up \n",
+			  size, size, rounds);
+	System.out.println("threads\tdecide_ms\tdamage_ms\tlife_ms\tround_ms\tMplayers/s\tbytes/round");
+
+	for (int threads = 1; threads <= most; threads *= 2){
+
+	    SplittableRandom prng = new SplittableRandom(17);
+	    ArrayList<ArrayList<Player>> players =
+		new ArrayList<ArrayList<Player>>(size);
+	    for (int i = 0; i < size; i++ ){
+		ArrayList<Player> column = new ArrayList<Player>(size);
+		for (int j = 0; j < size; j++ ){
+		    float certainty = (float)prng.nextDouble(1, 2);
+		    column.add(new Player(10, certainty*(float)-0.07,
+					  certainty, 3, (float)0.07, null));
+		}
+		players.add(column);
+	    }
+
+	    Board board = new Board(players, 1, 17);
+	    board.setThreads(threads);
+	    Metrics metrics = new Metrics();
+	    board.setMetrics(metrics);
+
+	    for (int r = 0; r < rounds; r++ ){
+		board.round();
+	    }
+	    metrics.reset();
+	    for (int r = 0; r < rounds; r++ ){
+		board.round();
+	    }
+
+	    // the means of the timed rounds
+	    System.out.printf("%d\t%.2f\t%.2f\t%.2f\t%.2f\t%.1f\t%d \n",
+			      threads, metrics.total_phase_nanos[DECIDE]/1e6/rounds,
+			      metrics.total_phase_nanos[DAMAGE]/1e6/rounds,
+			      metrics.total_phase_nanos[LIFE]/1e6/rounds,
+			      metrics.getTotalNanos()/1e6/rounds,
+			      metrics.getMeanPlayersPerSecond()/1e6,
+			      metrics.getTotalAllocatedBytes()/rounds);
+	    board.setThreads(1);
+	    board.setMetrics(null);
+	}
+    }
+}
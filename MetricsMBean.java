@@ -0,0 +1,28 @@
+// MetricsMBean is what JMX clients such as jconsole see of a
+// registered Metrics. The plain getters are about the last round
+// played, the Total and Mean ones about every round since the last
+// reset.
+//
+// @version 17-Oct-2026
+//
+public interface MetricsMBean {
+
+    long getRounds ();
+
+    long getRoundNanos ();
+    long getDecideNanos ();
+    long getHaloNanos ();
+    long getDamageNanos ();
+    long getLifeNanos ();
+    double getPlayersPerSecond ();
+    long getDeaths ();
+    long getBirths ();
+    long getAllocatedBytes ();
+
+    long getTotalNanos ();
+    double getMeanPlayersPerSecond ();
+    long getTotalDeaths ();
+    long getTotalAllocatedBytes ();
+
+    void reset ();
+}
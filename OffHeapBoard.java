@@ -0,0 +1,1002 @@
+// OffHeapBoard plays the same game as a Board, but keeps the state
+// of every player outside the Java heap, in memory segments of the
+// incubating Foreign Memory API, so that boards of hundreds of
+// millions of players can be played without a heap to match. The
+// segments are either native memory or a file mapped into memory,
+// in which case the operating system pages the board in and out and
+// a board can be bigger than physical memory. All the heap a board
+// uses is a few arrays per strip and a histogram, whatever its size.
+//
+// Only the game of a plain Board is played: players see their own
+// four games (a space horizon of 1), and decisions are kept in byte
+// grids. There is no packing, Vector API kernel, activity tracking,
+// halo, convergence watching or checkpointing. Given the same
+// players, seed, number of threads and decision function, an
+// OffHeapBoard plays out exactly as a Board does.
+//
+// Players are indexed i*world_height + j, as on a Board, but as a
+// long. Every per player array of a Board is a slice of one
+// segment, laid out as
+//
+//   doubles  memory sums, then weighted memory sums
+//   ints     life points, total life, the child's total life
+//   floats   misanthropy, certainty, optimism, then the child's
+//            misanthropy, certainty and optimism
+//   floats   memories, memory span per player, in slot order
+//   bytes    vert_first, vert_second, horiz_first, horiz_second
+//
+// each section being width*height values in index order, which is
+// 56 + 4*memory span bytes per player. A mapped file holds exactly
+// that, and nothing else; it is scratch space, not a checkpoint.
+//
+// The Foreign Memory API is an incubator module in Java 17, so the
+// JVM must be started with --add-modules jdk.incubator.foreign.
+// Nothing else in the game uses this class. Native memory counts
+// against -XX:MaxDirectMemorySize, which is the heap size unless it
+// is set; a mapped file does not.
+//
+//   java --add-modules jdk.incubator.foreign OffHeapBoard rows columns
+//        rounds [threads [seed [file]]]
+//
+// plays a uniform population with PDTrials' default parameters and
+// prints its summary statistics before and after.
+//
+// @version 17-Oct-2026
+//
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import jdk.incubator.foreign.MemoryAccess;
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+import static java.lang.Math.*;
+
+public class OffHeapBoard implements AutoCloseable {
+
+    private int world_width;     // number of columns
+    private int world_height;    // number of rows
+    private long num_cells;
+
+    // the whole board, and the slices of it that stand for each of
+    // Board's arrays. scope owns the memory; closing it frees the
+    // memory or unmaps the file.
+    private ResourceScope scope;
+    private MemorySegment storage;
+    private MemorySegment memory_sum;
+    private MemorySegment weighted_memory_sum;
+    private MemorySegment life_points;
+    private MemorySegment total_life;
+    private MemorySegment child_total_life;
+    private MemorySegment misanthropy;
+    private MemorySegment certainty;
+    private MemorySegment optimism;
+    private MemorySegment child_misanthropy;
+    private MemorySegment child_certainty;
+    private MemorySegment child_optimism;
+    private MemorySegment memories;
+    private MemorySegment vert_first;
+    private MemorySegment vert_second;
+    private MemorySegment horiz_first;
+    private MemorySegment horiz_second;
+
+    // as on a Board, every player's memories are a ring buffer and
+    // all the buffers share one head
+    private int memory_span;
+    private int memory_head;
+
+    private final int cooperate = 1;
+    private final int defect = -1;
+
+    private final float PROB_MUTATION = (float)0.2;
+
+    private int decision_function = Sigmoid.EXACT;
+    private int rounds_played;
+
+    // The strips and their PRNGs are a Board's. A Board queues the
+    // players that die in DAMAGE; that queue could be as long as
+    // the board, so a strip here only keeps the first and last
+    // player that died in it, and CHOOSE_PARENTS and BIRTH look for
+    // the dead between them, in index order, which is the order the
+    // queue would have had.
+    private SplitMix master_prng;
+    private ForkJoinPool pool;
+    private int num_strips;
+    private SplitMix[] strip_prngs;
+    private long[] strip_cooperations;
+    private long[] strip_deaths;
+    private long[] strip_first_dead;
+    private long[] strip_last_dead;
+
+    private static final int DECIDE = 0;
+    private static final int DAMAGE = 1;
+    private static final int CHOOSE_PARENTS = 2;
+    private static final int BIRTH = 3;
+
+    // getSummaryStats finds the median certainty with two passes of
+    // a radix select, 16 bits of the certainty at a time
+    private long[] histogram = new long[1 << 16];
+
+
+    /**
+     * OffHeapBoard makes a board with every player dead and every
+     * memory 0, in native memory if file is null and in the given
+     * file, mapped into memory, if not. Every player must be set
+     * with setPlayer before the first round.
+     *
+     * @param  width  the number of columns
+     * @param  height  the number of rows
+     * @param  memory_span  how many rounds players remember
+     * @param  seed  the seed for all of this board's PRNGs
+     * @param  file  the file to keep the board in, or null. It is
+     * created if it does not exist, and overwritten if it does
+     **/
+    public OffHeapBoard (int width, int height, int memory_span, long seed,
+			 Path file) throws IOException {
+
+	if (width < 1 || height < 1 || memory_span < 1){
+	    throw new IllegalArgumentException
+		("width, height and memory span must be at least 1");
+	}
+
+	world_width = width;
+	world_height = height;
+	num_cells = (long)width * height;
+	this.memory_span = memory_span;
+
+	long bytes = num_cells * (2*8 + 3*4 + 6*4 + memory_span*4 + 4);
+
+	scope = ResourceScope.newSharedScope();
+	if (file == null){
+	    storage = MemorySegment.allocateNative(bytes, 8, scope);
+	}
+	else {
+	    // start from an empty file. mapFile grows it to size
+	    FileChannel.open(file, StandardOpenOption.CREATE,
+			     StandardOpenOption.WRITE,
+			     StandardOpenOption.TRUNCATE_EXISTING).close();
+	    storage = MemorySegment.mapFile(file, 0, bytes,
+					    FileChannel.MapMode.READ_WRITE,
+					    scope);
+	}
+
+	long offset = 0;
+	memory_sum = storage.asSlice(offset, 8*num_cells);
+	offset += 8*num_cells;
+	weighted_memory_sum = storage.asSlice(offset, 8*num_cells);
+	offset += 8*num_cells;
+
+	MemorySegment[] sections = new MemorySegment[9];
+	for (int k = 0; k < sections.length; k++ ){
+	    sections[k] = storage.asSlice(offset, 4*num_cells);
+	    offset += 4*num_cells;
+	}
+	life_points = sections[0];
+	total_life = sections[1];
+	child_total_life = sections[2];
+	misanthropy = sections[3];
+	certainty = sections[4];
+	optimism = sections[5];
+	child_misanthropy = sections[6];
+	child_certainty = sections[7];
+	child_optimism = sections[8];
+
+	memories = storage.asSlice(offset, 4*num_cells*memory_span);
+	offset += 4*num_cells*memory_span;
+
+	vert_first = storage.asSlice(offset, num_cells);
+	vert_second = storage.asSlice(offset + num_cells, num_cells);
+	horiz_first = storage.asSlice(offset + 2*num_cells, num_cells);
+	horiz_second = storage.asSlice(offset + 3*num_cells, num_cells);
+
+	master_prng = new SplitMix(seed);
+	setThreads(1);
+    }
+
+
+    /**
+     * close stops this board's threads and frees its memory, or
+     * unmaps its file. The board can not be used afterwards.
+     **/
+    public void close (){
+
+	if (pool != null){
+	    pool.shutdown();
+	    pool = null;
+	}
+	scope.close();
+    }
+
+
+    /**
+     * force writes every change to a mapped board out to its file.
+     * It does nothing to a board in native memory.
+     **/
+    void force (){
+
+	if (storage.isMapped()){
+	    storage.force();
+	}
+    }
+
+
+    int getRounds (){
+	return rounds_played;
+    }
+
+    int getWidth (){
+	return world_width;
+    }
+
+    int getHeight (){
+	return world_height;
+    }
+
+    int getMemorySpan (){
+	return memory_span;
+    }
+
+
+    /**
+     * setPlayer puts a newborn player in column i, row j, with full
+     * life points and every memory its optimism.
+     *
+     * @param  i  the column of the player
+     * @param  j  the row of the player
+     * @param  life_points  its total life points
+     * @param  misanthropy  its misanthropy
+     * @param  certainty  its certainty
+     * @param  optimism  its optimism
+     **/
+    void setPlayer (int i, int j, int life_points, float misanthropy,
+		    float certainty, float optimism){
+	inherit((long)i*world_height + j, life_points, misanthropy,
+		certainty, optimism);
+    }
+
+    /**
+     * setPlayer copies a player into column i, row j, memories and
+     * all.
+     *
+     * @param  i  the column of the player
+     * @param  j  the row of the player
+     * @param  player  the player, whose memory span must be this
+     * board's
+     **/
+    void setPlayer (int i, int j, Player player){
+
+	if (player.getMemory() != memory_span){
+	    throw new IllegalArgumentException
+		("all players must have the same memory span");
+	}
+
+	long cell = (long)i*world_height + j;
+	inherit(cell, player.total_life, player.getMisanthropy(),
+		player.getCertainty(), player.getOptimism());
+	MemoryAccess.setIntAtIndex(life_points, cell, player.getLP());
+
+	// the player's memories, oldest first, go in slot order
+	// starting at the head
+	float[] ordered = player.getMemories();
+	for (int k = 0; k < memory_span; k++ ){
+	    MemoryAccess.setFloatAtIndex
+		(memories, cell*memory_span + (memory_head + k) % memory_span,
+		 ordered[k]);
+	}
+	resum(cell);
+    }
+
+
+    /**
+     * getPlayer returns a copy of the player in column i, row j,
+     * with no PRNG. See Board.getPlayer.
+     *
+     * @param  i  the column of the player
+     * @param  j  the row of the player
+     *
+     * @return  player  a snapshot of the player at i, j
+     **/
+    Player getPlayer (int i, int j){
+
+	long cell = (long)i*world_height + j;
+
+	Player player = new Player
+	    (MemoryAccess.getIntAtIndex(total_life, cell),
+	     MemoryAccess.getFloatAtIndex(misanthropy, cell),
+	     MemoryAccess.getFloatAtIndex(certainty, cell), memory_span,
+	     MemoryAccess.getFloatAtIndex(optimism, cell), null);
+	player.setLP(MemoryAccess.getIntAtIndex(life_points, cell));
+
+	float[] player_memories = new float[memory_span];
+	for (int k = 0; k < memory_span; k++ ){
+	    player_memories[k] = MemoryAccess.getFloatAtIndex
+		(memories, cell*memory_span + (memory_head + k) % memory_span);
+	}
+	player.setMemories(player_memories);
+	return player;
+    }
+
+
+    float getCertainty (int i, int j){
+	return MemoryAccess.getFloatAtIndex(certainty,
+					    (long)i*world_height + j);
+    }
+
+
+    /**
+     * setDecisionFunction chooses how players evaluate their
+     * decision functions. See Sigmoid.
+     *
+     * @param  function  Sigmoid.EXACT, Sigmoid.TABLE or Sigmoid.RATIONAL
+     **/
+    void setDecisionFunction (int function){
+	this.decision_function = function;
+    }
+
+
+    /**
+     * setThreads sets how many threads play each round, splitting
+     * the board into that many strips of columns, as
+     * Board.setThreads does. A board plays out the same for every
+     * number of threads only if that number is the same.
+     *
+     * @param  threads  the number of threads, at least 1
+     **/
+    void setThreads (int threads){
+
+	if (pool != null){
+	    pool.shutdown();
+	    pool = null;
+	}
+
+	num_strips = max(1, min(threads, world_width));
+	if (num_strips > 1){
+	    pool = new ForkJoinPool(num_strips);
+	}
+
+	strip_prngs = new SplitMix[num_strips];
+	strip_cooperations = new long[num_strips];
+	strip_deaths = new long[num_strips];
+	strip_first_dead = new long[num_strips];
+	strip_last_dead = new long[num_strips];
+	for (int s = 0; s < num_strips; s++ ){
+	    strip_prngs[s] = master_prng.split();
+	}
+    }
+
+
+    /**
+     * round runs a single round of this game. See Board.round.
+     **/
+    void round (){
+
+	runPhase(DECIDE);
+	runPhase(DAMAGE);
+	memory_head = (memory_head + 1) % memory_span;
+	circleOfLife();
+	rounds_played++;
+    }
+
+
+    /**
+     * circleOfLife replaces every player whose life points have
+     * fallen to 0 or below with the child of one of its neighbors.
+     * See Board.circleOfLife.
+     **/
+    void circleOfLife (){
+
+	runPhase(CHOOSE_PARENTS);
+	runPhase(BIRTH);
+    }
+
+
+    /**
+     * threshold returns the chance that the player at the given
+     * index cooperates in a game this round. See Board.threshold.
+     *
+     * @param  cell  the index of the player
+     **/
+    private float threshold (long cell){
+
+	float conditions = (float)
+	    (MemoryAccess.getDoubleAtIndex(weighted_memory_sum, cell)
+	     / (memory_span*(memory_span + 1)/2));
+
+	return Sigmoid.evaluate
+	    (decision_function,
+	     MemoryAccess.getFloatAtIndex(misanthropy, cell)
+	     - conditions*MemoryAccess.getFloatAtIndex(certainty, cell));
+    }
+
+
+    /**
+     * pushMemory adds a new memory for the player at the given
+     * index, overwriting its oldest memory in slot memory_head. See
+     * Board.pushMemory.
+     *
+     * @param  cell  the index of the player
+     * @param  mem_val  The value representing the memory
+     **/
+    private void pushMemory (long cell, float mem_val){
+
+	long slot = cell*memory_span + memory_head;
+	double sum = MemoryAccess.getDoubleAtIndex(memory_sum, cell);
+
+	MemoryAccess.setDoubleAtIndex
+	    (weighted_memory_sum, cell,
+	     MemoryAccess.getDoubleAtIndex(weighted_memory_sum, cell)
+	     + (memory_span*mem_val - sum));
+	MemoryAccess.setDoubleAtIndex
+	    (memory_sum, cell,
+	     sum + (mem_val - MemoryAccess.getFloatAtIndex(memories, slot)));
+	MemoryAccess.setFloatAtIndex(memories, slot, mem_val);
+
+	if (memory_head == memory_span - 1){
+	    resum(cell);
+	}
+    }
+
+
+    /**
+     * resum recomputes the memory sums of the player at the given
+     * index from scratch, while memory_head is 0. See Board.resum.
+     *
+     * @param  cell  the index of the player
+     **/
+    private void resum (long cell){
+
+	long base = cell*memory_span;
+	double sum = 0;
+	double weighted_sum = 0;
+
+	for (int k = 0; k < memory_span; k++ ){
+	    float memory = MemoryAccess.getFloatAtIndex(memories, base + k);
+	    sum += memory;
+	    weighted_sum += (k+1)*memory;
+	}
+	MemoryAccess.setDoubleAtIndex(memory_sum, cell, sum);
+	MemoryAccess.setDoubleAtIndex(weighted_memory_sum, cell, weighted_sum);
+    }
+
+
+    /**
+     * inherit puts a newborn player with the given parameters at
+     * index child, with full life points and fresh memories. See
+     * Board.inherit.
+     **/
+    private void inherit (long child, int child_total_life,
+			  float child_misanthropy, float child_certainty,
+			  float child_optimism){
+
+	MemoryAccess.setIntAtIndex(life_points, child, child_total_life);
+	MemoryAccess.setIntAtIndex(total_life, child, child_total_life);
+	MemoryAccess.setFloatAtIndex(misanthropy, child, child_misanthropy);
+	MemoryAccess.setFloatAtIndex(certainty, child, child_certainty);
+	MemoryAccess.setFloatAtIndex(optimism, child, child_optimism);
+
+	for (int k = 0; k < memory_span; k++ ){
+	    MemoryAccess.setFloatAtIndex(memories, child*memory_span + k,
+					 child_optimism);
+	}
+	MemoryAccess.setDoubleAtIndex(memory_sum, child,
+				      memory_span*child_optimism);
+	MemoryAccess.setDoubleAtIndex
+	    (weighted_memory_sum, child,
+	     (memory_span*(memory_span + 1)/2)*child_optimism);
+    }
+
+
+    /**
+     * runPhase runs one phase of a round on every strip, in
+     * parallel if this board has a pool. See Board.runPhase.
+     *
+     * @param  phase  the phase to run
+     **/
+    private void runPhase (int phase){
+
+	if (pool != null){
+	    pool.invoke(new Phase(phase, 0, num_strips));
+	    return;
+	}
+	for (int strip = 0; strip < num_strips; strip++ ){
+	    runStrip(phase, strip);
+	}
+    }
+
+
+    /**
+     * runStrip runs one phase of a round on one strip of columns,
+     * drawing the same random numbers in the same order as
+     * Board.runStrip does for a plain board.
+     *
+     * @param  phase  the phase to run
+     * @param  strip  the strip to run it on
+     **/
+    private void runStrip (int phase, int strip){
+
+	int first = (int)((long)strip * world_width / num_strips);
+	int last = (int)((long)(strip + 1) * world_width / num_strips);
+
+	if (phase == DECIDE){
+	    strip_cooperations[strip] = decide(strip, first, last);
+	}
+	else if (phase == DAMAGE){
+	    damage(strip, first, last);
+	}
+	else if (phase == CHOOSE_PARENTS){
+	    strip_deaths[strip] = chooseParents(strip);
+	}
+	else {
+	    birth(strip);
+	}
+    }
+
+
+    /**
+     * decide has every player of a strip make its four decisions
+     * for this round and write them into the decision grids.
+     *
+     * @param  strip  the strip
+     * @param  first  the strip's first column
+     * @param  last  one past its last column
+     *
+     * @return  the number of cooperations
+     **/
+    private long decide (int strip, int first, int last){
+
+	SplitMix strip_prng = strip_prngs[strip];
+	long count = 0;
+
+	for (int i = first; i < last; i++ ){
+
+	    long column = (long)i*world_height;
+	    long west_column =
+		(long)((i-1 + world_width) % world_width)*world_height;
+
+	    for (int j = 0; j < world_height; j++ ){
+
+		long cell = column + j;
+		int south = (j+1) % world_height;
+		float threshold = threshold(cell);
+
+		// mood <= threshold is a cooperation, as in Board.decide
+		int north_game =
+		    (strip_prng.nextFloat() <= threshold) ? cooperate : defect;
+		int east_game =
+		    (strip_prng.nextFloat() <= threshold) ? cooperate : defect;
+		int south_game =
+		    (strip_prng.nextFloat() <= threshold) ? cooperate : defect;
+		int west_game =
+		    (strip_prng.nextFloat() <= threshold) ? cooperate : defect;
+
+		MemoryAccess.setByteAtOffset(vert_first, cell,
+					     (byte)north_game);
+		MemoryAccess.setByteAtOffset(horiz_first, cell,
+					     (byte)east_game);
+		MemoryAccess.setByteAtOffset(vert_second, column + south,
+					     (byte)south_game);
+		MemoryAccess.setByteAtOffset(horiz_second, west_column + j,
+					     (byte)west_game);
+
+		count += (north_game + east_game + south_game
+			  + west_game + 4) / 2;
+	    }
+	}
+	return count;
+    }
+
+
+    /**
+     * damage takes the payoffs of the four games every player of a
+     * strip played this round off its life points, pushes the sum
+     * of its own four decisions as a new memory, and notes the
+     * first and last player of the strip that died.
+     *
+     * @param  strip  the strip
+     * @param  first  the strip's first column
+     * @param  last  one past its last column
+     **/
+    private void damage (int strip, int first, int last){
+
+	long first_dead = -1;
+	long last_dead = -1;
+
+	for (int i = first; i < last; i++ ){
+
+	    long column = (long)i*world_height;
+	    long west_column =
+		(long)((i-1 + world_width) % world_width)*world_height;
+
+	    for (int j = 0; j < world_height; j++ ){
+
+		long cell = column + j;
+		long c_south = column + (j+1) % world_height;
+		long c_west = west_column + j;
+
+		byte north_first = MemoryAccess.getByteAtOffset(vert_first, cell);
+		byte north_second = MemoryAccess.getByteAtOffset(vert_second, cell);
+		byte south_first = MemoryAccess.getByteAtOffset(vert_first, c_south);
+		byte south_second =
+		    MemoryAccess.getByteAtOffset(vert_second, c_south);
+		byte east_first = MemoryAccess.getByteAtOffset(horiz_first, cell);
+		byte east_second = MemoryAccess.getByteAtOffset(horiz_second, cell);
+		byte west_first = MemoryAccess.getByteAtOffset(horiz_first, c_west);
+		byte west_second =
+		    MemoryAccess.getByteAtOffset(horiz_second, c_west);
+
+		int life = MemoryAccess.getIntAtIndex(life_points, cell)
+		    + DecisionPair.payoff(north_first, north_second)
+		    + DecisionPair.payoff(south_second, south_first)
+		    + DecisionPair.payoff(east_first, east_second)
+		    + DecisionPair.payoff(west_second, west_first);
+		MemoryAccess.setIntAtIndex(life_points, cell, life);
+
+		pushMemory(cell, (float)(north_first + south_second
+					 + east_first + west_second));
+
+		if (life <= 0){
+		    if (first_dead < 0){
+			first_dead = cell;
+		    }
+		    last_dead = cell;
+		}
+	    }
+	}
+	strip_first_dead[strip] = first_dead;
+	strip_last_dead[strip] = last_dead;
+    }
+
+
+    /**
+     * chooseParents picks a parent for every dead player in a strip
+     * and copies the parameters of the baby it will have into the
+     * child_ sections. See Board.chooseParents.
+     *
+     * @param  strip  the strip
+     *
+     * @return  the number of dead players
+     **/
+    private long chooseParents (int strip){
+
+	SplitMix strip_prng = strip_prngs[strip];
+	long deaths = 0;
+
+	if (strip_first_dead[strip] < 0){
+	    return 0;
+	}
+	for (long cell = strip_first_dead[strip];
+	     cell <= strip_last_dead[strip]; cell++ ){
+
+	    if (MemoryAccess.getIntAtIndex(life_points, cell) > 0){
+		continue;
+	    }
+	    deaths++;
+
+	    long parent = neighbor((int)(cell / world_height),
+				   (int)(cell % world_height),
+				   strip_prng.nextFloat());
+	    float parent_certainty =
+		MemoryAccess.getFloatAtIndex(certainty, parent);
+
+	    MemoryAccess.setIntAtIndex
+		(child_total_life, cell,
+		 MemoryAccess.getIntAtIndex(total_life, parent));
+	    MemoryAccess.setFloatAtIndex
+		(child_misanthropy, cell,
+		 MemoryAccess.getFloatAtIndex(misanthropy, parent));
+	    MemoryAccess.setFloatAtIndex(child_certainty, cell,
+					 parent_certainty);
+	    MemoryAccess.setFloatAtIndex
+		(child_optimism, cell,
+		 MemoryAccess.getFloatAtIndex(optimism, parent));
+
+	    if (strip_prng.nextFloat() < PROB_MUTATION){
+		MemoryAccess.setFloatAtIndex
+		    (child_certainty, cell,
+		     max(0, parent_certainty
+			 + ((float)(strip_prng.nextFloat() - .5)/10)));
+	    }
+	}
+	return deaths;
+    }
+
+
+    /**
+     * neighbor picks one of the four nearest neighbors of the
+     * player in column i, row j. See Board.neighbor.
+     *
+     * @param  i  the column of the player
+     * @param  j  the row of the player
+     * @param  chooseParent  a uniform random number in [0, 1)
+     *
+     * @return  the index of the chosen neighbor
+     **/
+    private long neighbor (int i, int j, float chooseParent){
+
+	if (chooseParent < .25 ){
+	    return (long)i*world_height + (j-1 + world_height) % world_height;
+	}
+	else if (chooseParent < .5 ){
+	    return (long)((i+1) % world_width)*world_height + j;
+	}
+	else if (chooseParent < .75 ){
+	    return (long)i*world_height + (j+1) % world_height;
+	}
+	else {
+	    return (long)((i-1 + world_width) % world_width)*world_height + j;
+	}
+    }
+
+
+    /**
+     * birth replaces every dead player in a strip with the child
+     * chosen for it.
+     *
+     * @param  strip  the strip
+     **/
+    private void birth (int strip){
+
+	if (strip_first_dead[strip] < 0){
+	    return;
+	}
+	for (long cell = strip_first_dead[strip];
+	     cell <= strip_last_dead[strip]; cell++ ){
+
+	    if (MemoryAccess.getIntAtIndex(life_points, cell) <= 0){
+		inherit(cell, MemoryAccess.getIntAtIndex(child_total_life, cell),
+			MemoryAccess.getFloatAtIndex(child_misanthropy, cell),
+			MemoryAccess.getFloatAtIndex(child_certainty, cell),
+			MemoryAccess.getFloatAtIndex(child_optimism, cell));
+	    }
+	}
+	strip_first_dead[strip] = -1;
+    }
+
+
+    /**
+     * Phase runs one phase of a round on a range of strips,
+     * splitting the range in half until each task has one strip.
+     **/
+    private class Phase extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private int phase;
+	private int first_strip;
+	private int last_strip;
+
+	Phase (int phase, int first_strip, int last_strip){
+	    this.phase = phase;
+	    this.first_strip = first_strip;
+	    this.last_strip = last_strip;
+	}
+
+	protected void compute (){
+
+	    if (last_strip - first_strip == 1){
+		runStrip(phase, first_strip);
+		return;
+	    }
+	    int middle = (first_strip + last_strip) / 2;
+	    invokeAll(new Phase(phase, first_strip, middle),
+		      new Phase(phase, middle, last_strip));
+	}
+    }
+
+
+    /**
+     * getCooperationRate returns the proportion of decisions made in
+     * the last round that were to cooperate.
+     *
+     * @return  the proportion of cooperations, 0 before any round
+     **/
+    float getCooperationRate (){
+
+	long cooperations = 0;
+	for (int strip = 0; strip < num_strips; strip++ ){
+	    cooperations += strip_cooperations[strip];
+	}
+	return (float)cooperations / (4*num_cells);
+    }
+
+
+    /**
+     * getDeaths returns the number of players that died, and were
+     * replaced, in the last round.
+     *
+     * @return  the number of deaths, 0 before any round
+     **/
+    long getDeaths (){
+
+	long deaths = 0;
+	for (int strip = 0; strip < num_strips; strip++ ){
+	    deaths += strip_deaths[strip];
+	}
+	return deaths;
+    }
+
+
+    /**
+     * getSummaryStats returns the same statistics as
+     * Board.getSummaryStats()
+     **/
+    public float[] getSummaryStats (){
+	return getSummaryStats(Float.NaN, Float.NaN);
+    }
+
+    /**
+     * getSummaryStats returns the same statistics as
+     * Board.getSummaryStats(first, second), without a copy of the
+     * certainties. Mean, max, min, both proportions and a histogram
+     * of the high 16 bits of every certainty come out of one pass
+     * over the certainties. The median is in the histogram bucket
+     * where the count passes half the players, and a second pass
+     * over the players in that bucket, with a histogram of their
+     * low 16 bits, finds it exactly.
+     *
+     * @param  first  the certainty value of interest for stats[4].
+     * NaN for the median
+     * @param  second  the certainty value of interest for stats[5].
+     * NaN to leave stats[5] empty
+     *
+     * @return  stats  float array where
+     * stats[0] = mean certainty
+     * stats[1] = median certainty
+     * stats[2] = max certainty
+     * stats[3] = min certainty
+     * stats[4] = proportion of players with certainty >= first
+     * stats[5] = proportion of players with certainty >= second
+     * stats[6] = number of players
+     **/
+    public float[] getSummaryStats (float first, float second){
+
+	float[] stats = new float[7];
+
+	double sum = 0;
+	float max_certainty = MemoryAccess.getFloatAtIndex(certainty, 0);
+	float min_certainty = max_certainty;
+	long first_count = 0;
+	long second_count = 0;
+
+	Arrays.fill(histogram, 0);
+	for (long c = 0; c < num_cells; c++ ){
+
+	    float b = MemoryAccess.getFloatAtIndex(certainty, c);
+
+	    sum += b;
+	    max_certainty = max(max_certainty, b);
+	    min_certainty = min(min_certainty, b);
+	    histogram[key(b) >>> 16]++;
+
+	    if (b >= first){
+		first_count++;
+	    }
+	    if (b >= second){
+		second_count++;
+	    }
+	}
+
+	// the bucket of the median, and how many players are in the
+	// buckets below it
+	long middle = (num_cells - 1)/2;
+	long below_median = 0;
+	int high = 0;
+	while (below_median + histogram[high] <= middle){
+	    below_median += histogram[high++];
+	}
+
+	Arrays.fill(histogram, 0);
+	for (long c = 0; c < num_cells; c++ ){
+
+	    int key = key(MemoryAccess.getFloatAtIndex(certainty, c));
+	    if (key >>> 16 == high){
+		histogram[key & 0xffff]++;
+	    }
+	}
+	int low = 0;
+	while (below_median + histogram[low] <= middle){
+	    below_median += histogram[low++];
+	}
+
+	stats[0] = (float)(sum/num_cells);
+	stats[1] = unkey(high << 16 | low);
+	stats[2] = max_certainty;
+	stats[3] = min_certainty;
+	stats[6] = (float)world_height * world_width;
+
+	if (Float.isNaN(first)){
+	    stats[4] = (float)(num_cells - below_median)/num_cells;
+	}
+	else {
+	    stats[4] = (float)first_count/num_cells;
+	}
+	if (!Float.isNaN(second)){
+	    stats[5] = (float)second_count/num_cells;
+	}
+
+	return stats;
+    }
+
+    /**
+     * key returns an int whose unsigned order is the order of the
+     * floats: the sign bit flipped for positive floats, and every
+     * bit for negative ones. -0 is counted as 0
+     **/
+    private static int key (float b){
+
+	int bits = Float.floatToIntBits(b + (float)0);
+	return bits ^ ((bits >> 31) | 0x80000000);
+    }
+
+    /**
+     * unkey returns the float a key was made from
+     **/
+    private static float unkey (int key){
+	return Float.intBitsToFloat(key ^ ((~key >> 31) | 0x80000000));
+    }
+
+
+    public static void main (String[] args) throws IOException {
+
+	if (args.length < 3){
+	    System.err.println("usage: rows columns rounds [threads [seed [file]]]");
+	    System.exit(1);
+	}
+
+	int m = Integer.parseInt(args[0]);
+	int n = Integer.parseInt(args[1]);
+	int rounds = Integer.parseInt(args[2]);
+	int threads = (args.length > 3) ? Integer.parseInt(args[3])
+	    : Runtime.getRuntime().availableProcessors();
+	long seed = (args.length > 4) ? Long.parseLong(args[4])
+	    : new SplittableRandom().nextLong();
+	Path file = (args.length > 5) ? Path.of(args[5]) : null;
+
+	// PDTrials' defaults, with a uniform population
+	int life_points = 10;
+	int time_horizon = 3;
+	float misanthropy = (float)-0.07;
+	float optimism = (float)0.07;
+
+	SplittableRandom prng = new SplittableRandom(seed);
+	try (OffHeapBoard game = new OffHeapBoard(n, m,
+						  time_horizon,
+						  prng.nextLong(), file)){
+
+	    for (int i = 0; i < n; i++ ){
+		for (int j = 0; j < m; j++ ){
+		    float b = prng.nextFloat() + (float)1.0;
+		    game.setPlayer(i, j, life_points, b*misanthropy, b,
+				   optimism);
+		}
+	    }
+	    game.setThreads(threads);
+
+	    float[] start = game.getSummaryStats();
+	    System.out.printf("%d x %d players, %d threads, %s\n", m, n,
+			      threads, (file == null) ? "native memory"
+			      : "mapped to " + file);
+	    System.out.printf("Start: mean %.4f median %.4f max %.4f min %.4f\n",
+			      start[0], start[1], start[2], start[3]);
+
+	    long began = System.nanoTime();
+	    for (int r = 0; r < rounds; r++ ){
+		game.round();
+	    }
+	    double seconds = (System.nanoTime() - began) / 1e9;
+
+	    float[] end = game.getSummaryStats(start[1], start[0]);
+	    System.out.printf("End:   mean %.4f median %.4f max %.4f min %.4f\n",
+			      end[0], end[1], end[2], end[3]);
+	    System.out.printf("%.3f at least the starting median, %.3f at least the mean\n",
+			      end[4], end[5]);
+	    System.out.printf("%d rounds in %.2f s, %.3g players a second\n",
+			      rounds, seconds,
+			      (double)rounds*m*n / seconds);
+	}
+    }
+}
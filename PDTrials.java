@@ -2,29 +2,87 @@
 // a Board.
 // Relevant outcomes of the games are printed to std out.
 //
+// Trials are independent of each other, so they are run at the
+// same time on a pool of threads. Each trial gets its own Board
+// and its own PRNG, split off from one master PRNG in trial order.
+// Everything random in a run comes from the master seed, so a run
+// can be repeated exactly by giving the same seed.
+//
+// The statistics of finished trials are added to a TrialStats per
+// scenario, in trial order, so their running averages are printed
+// now and then while scenarios are still being played.
+//
+// With a target_error above 0, each scenario plays trials until the
+// standard error of the mean of each of its tracked end state
+// statistics is at most target_error, and num_trials only caps
+// them. The scenarios of a run share one pool, and each free thread
+// starts a trial of the scenario that looks furthest from its
+// target, so the threads go where more samples are needed. Whether
+// to stop is decided after each trial in trial order, so the
+// trials a scenario plays depend on the seed alone, not on the
+// number of threads or the order trials finish in.
+//
 // @author Jessica Sorrell
 // @version 29-Oct-2014
 
-import java.util.Random;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
-import java.util.Set;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class PDTrials {
 
-    Random prng = new Random();
+    long seed;
+    SplittableRandom prng;
     int num_trials;
+    int num_threads;
     
     
 
     // These should probably be held constant for each set of 
     // trials, at least for the time being
     int space_horizon = 1;
+    int neighborhood = Board.VON_NEUMANN;
     int time_horizon = 3;
     int life_points = 10;
     int num_rounds = 100;
     float deviant_ratio = (float).25;
+
+    // how players evaluate their decision functions. See Sigmoid
+    int decision_function = Sigmoid.EXACT;
+
+    // whether boards keep their decisions in bitsets. See Board
+    boolean packed = false;
+
+    // whether boards run DAMAGE with the Vector API kernel, when the
+    // JVM has it. See Board.setVectorDamage
+    boolean vector_damage = false;
+
+    // whether boards let settled tiles sleep, and how close to 0 or
+    // 1 a player's chance of cooperating must be to count as
+    // settled. See Board.setActivityTracking
+    boolean track_activity = false;
+    float activity_tolerance = 0;
+
+    // whether games stop before num_rounds once they have settled:
+    // when the mean and median certainty and the death rate,
+    // averaged over a window of rounds, each move by no more than
+    // the tolerance from one window to the next. 0 plays every
+    // round. See Board.setConvergence
+    int convergence_window = 0;
+    float convergence_tolerance = (float)0.001;
     
     // Let's start things off sort of neutral
     float misanthropy = (float)-0.07;
@@ -34,866 +92,617 @@ public class PDTrials {
     // m rows, n columns
     int m = 100;
     int n = 100;
-    float[] certainties = new float[m*n];
-    
-    int t; //index for looping through trials
     
-    
-    // results collects the end state statistics
-    float[][] results;
-    float[][] starts;    
+    // In adaptive mode, when target_error is above 0, a scenario
+    // stops once the standard errors of the means of the end state
+    // statistics in tracked_stats are all at most target_error,
+    // after at least min_trials and at most num_trials trials. See
+    // Board.getSummaryStats for the statistics
+    double target_error = 0;
+    int min_trials = 10;
+    int[] tracked_stats = { 0, 1 };    // the mean and median
+
+    // where every trial is stored, with its parameters, if anywhere.
+    // See ResultStore
+    ResultStore results;
+
+    // how many trial PRNGs have been split off prng, which numbers
+    // the trials in results
+    private int trials_split;
+
+    // how often runTrials reports its progress, in ns
+    static final long PROGRESS_INTERVAL = 10000000000L;
     
     
     public PDTrials(int num_trials){
 
-	this.num_trials = num_trials;
-	results = new float[num_trials][7];
-	starts = new float[num_trials][7];
-
+	this(num_trials, Runtime.getRuntime().availableProcessors(),
+	     new SplittableRandom().nextLong());
     }
 
-    void uniform (){
+    public PDTrials(int num_trials, int num_threads, long seed){
 
-	for ( t = 0; t < num_trials; t++ ){
-
-	    // uniformly random certainties between 1.0 and 2.0
-	    int i; 
-	    int j;	
-	    for ( i = 0; i < certainties.length; i++ ){
-		certainties[i] = prng.nextFloat() + (float)1.0;
-	    } 
-	    	
-	    // Now that we're done with all that, we can begin our 
-	    //games!
-	    ArrayList<ArrayList<Player>> players = 
-		new ArrayList<ArrayList<Player>>(n);
-	    
-	    // populate the player array with players
-	    for ( i = 0; i < n; i++){
-		
-		ArrayList<Player> column = new ArrayList<Player>(m);
-		for ( j = 0; j < m; j++ ){
-		    
-		    column.add(new Player
-			       ( life_points,
-				 certainties[m*i + j]* misanthropy, 
-				 certainties[m*i + j], 
-				 time_horizon, optimism, 
-				 new Random()));
-		}
-		
-		players.add(column);
-	    }
-	
-	    // build the game board
-	    Board game = new Board(players, space_horizon);
-	    starts[t] = game.getSummaryStats();
-	    starts[t][4] = game.percentGreaterEqualThan(starts[t][1]);
-	    //	    System.out.println("Start.\\\\");
-	    //game.printSummaryStats();
-
-   
-	    // play the game
-	    for (i = 0; i < num_rounds; i++ ){
-		game.round();
-		// if( i % 25 == 0){
-		//     game.markPlayersGreaterThan
-		// 	((float)(starts[t][1] + 0.025));
-		// 	}
-	    }
+	this.num_trials = num_trials;
+	this.num_threads = num_threads;
+	this.seed = seed;
+	this.prng = new SplittableRandom(seed);
+    }
 
-	    // print the end state of the game and store these stats
-	    // in array
-	    //	    game.printSummaryStats();
-	    results[t] = game.getSummaryStats();
-	    results[t][4] = game.percentGreaterEqualThan(starts[t][1]);
-	    results[t][5] = game.percentGreaterEqualThan(starts[t][0]);
-	    
+    /**
+     * Scenario is the trials of one population: their PRNGs, the
+     * statistics of those finished so far and whether it needs any
+     * more.
+     **/
+    private class Scenario {
+
+	String name;        // see Populations.named
+	PopulationGenerator population;
+	int first_trial;    // the number of the first trial's PRNG split
+	SplittableRandom[] trial_prngs;    // one per trial, up to num_trials
+	TrialStats starts = new TrialStats(7);
+	TrialStats ends = new TrialStats(7);
+	TrialStats rounds = new TrialStats(2);  // rounds played, converged
+
+	int launched;       // trials started
+	int counted;        // trials added to the statistics
+	boolean done;       // when no more trials will be counted
+	ArrayList<Future<Trial>> running = new ArrayList<Future<Trial>>();
+
+	// trials that finished before some trial started earlier
+	HashMap<Integer, float[][]> waiting = new HashMap<Integer, float[][]>();
+
+	Scenario (String name){
+
+	    this.name = name;
+	    population = generator(name);
+	    first_trial = trials_split;
+	    trial_prngs = new SplittableRandom[num_trials];
+	    for (int t = 0; t < num_trials; t++ ){
+		trial_prngs[t] = prng.split();
+	    }
+	    trials_split += num_trials;
 	}
 
+	/**
+	 * finish adds a trial, and any that were waiting for it, to
+	 * the statistics in trial order, and decides after each one
+	 * whether the scenario is done.
+	 *
+	 * @param  trial  the number of the trial
+	 * @param  stats  what playTrial returned for it
+	 **/
+	void finish (int trial, float[][] stats){
+
+	    waiting.put(trial, stats);
+	    while (!done && waiting.containsKey(counted)){
+
+		stats = waiting.remove(counted);
+		starts.add(stats[0]);
+		ends.add(stats[1]);
+		rounds.add(new float[]{ stats[2][0], (stats[2][1] >= 0) ? 1 : 0 });
+		if (results != null){
+		    store(this, counted, stats);
+		}
+		counted++;
 
-	// Stats on starting stats? What madness is this?!?!
-	float median_avg_start, mean_avg_start, max_avg_start, 
-	    min_avg_start, mean_proportion_start;
-	median_avg_start = mean_avg_start = 
-	    max_avg_start = min_avg_start = mean_proportion_start = 0;
-	
-	for (int i = 0; i < starts.length; i++ ){
-	    
-	    mean_avg_start += starts[i][0];
-	    median_avg_start += starts[i][1];
-	    max_avg_start += starts[i][2];
-	    min_avg_start += starts[i][3];
-	    mean_proportion_start += starts[i][4];
-	    
+		done = counted == num_trials
+		    || (target_error > 0 && counted >= fewest()
+			&& error() <= target_error);
+	    }
 	}
-	
-	mean_avg_start /= starts.length;
-	median_avg_start /= starts.length;
-	max_avg_start /= starts.length;
-	min_avg_start /= starts.length;
-	mean_proportion_start /= starts.length;
-	
-	// Print summary of games
-	
-	System.out.println("**************************************\\\\");
-	System.out.println("**************************************\\\\");
-	System.out.printf("Summary of games for the following population: \\\\ \n");
-	System.out.printf("Certainties ranging from .5 to 1.5, uniformly distributed \n\\\\");
-
-	
-	System.out.printf("Average startstate median:\t %.2f \n",
-			  median_avg_start);
-	System.out.printf("Average startstate mean:\t %.2f \n",
-			  mean_avg_start);
-	System.out.printf("Average startstate max:\t \t %.2f \n",
-			  max_avg_start);
-	System.out.printf("Average startstate min:\t \t %.2f \n", 
-			  min_avg_start);
-	System.out.printf("Starting proportion greater than starting avg: %.3f \n", mean_proportion_start);
-	
-
-	// Stats on stats? What madness is this?!?!
-	float median_avg, mean_avg, max_avg, min_avg, 
-	    median_proportion, avg_proportion;
-	median_avg = mean_avg = max_avg = min_avg = 
-	    median_proportion = avg_proportion = 0;
 
-
-	for (int i = 0; i < results.length; i++ ){
-	    
-	    mean_avg += results[i][0];
-	    median_avg += results[i][1];
-	    max_avg += results[i][2];
-	    min_avg += results[i][3];
-	    median_proportion += results[i][4];
-	    avg_proportion += results[i][5];
-	    
+	/**
+	 * fewest returns the fewest trials to count before stopping,
+	 * which is at least two, for there to be a standard error
+	 **/
+	int fewest (){
+	    return Math.min(num_trials, Math.max(2, min_trials));
 	}
 
-	mean_avg /= results.length;
-	median_avg /= results.length;
-	max_avg /= results.length;
-	min_avg /= results.length;
-	median_proportion /= results.length;
-	avg_proportion /=results.length;
-
-	// Print summary of games
-
-	System.out.println("**************************************\\\\");
-	System.out.println("**************************************\\\\");
-
-	System.out.printf("Certainties ranging from .5 to 1.5, uniformly distributed \n\\\\");
-
-	
-	System.out.printf("Average endstate median:\t %.2f \n",
-			  median_avg);
-	System.out.printf("Average endstate mean:\t \t %.2f \n",
-			  mean_avg);
-	System.out.printf("Average endstate max:\t \t %.2f \n", 
-			  max_avg);
-	System.out.printf("Average endstate min:\t \t %.2f \n",
-			  min_avg);
-
-	System.out.printf("Final population proportion greater than starting median:\t %.3f \n", median_proportion);
-	System.out.printf("Final population proportion greater than starting average: %.3f \n", avg_proportion);
-	
+	/**
+	 * error returns the largest standard error of the tracked end
+	 * state statistics
+	 **/
+	double error (){
 
-	System.out.println("**************************************\\\\");
-	System.out.println("**************************************\\\\");
-	System.out.println("\\\\");
-	System.out.println("\\\\");
-    }
+	    TrialStats.Summary ended = ends.snapshot();
+	    double error = 0;
+	    for (int k : tracked_stats){
+		error = Math.max(error, ended.standardError(k));
+	    }
+	    return error;
+	}
 
-    void largeB(){
-	// Mostly uniformly random certainties between 1.0 and 2.0
-	// with a few larger values sprinkled in for fun!
-	// The number of deviants is proportional to grid size
-	for ( t = 0; t < num_trials; t++ ){
+	/**
+	 * need returns how many more trials to start for this
+	 * scenario, beyond those running. In adaptive mode, once
+	 * min_trials are counted, it guesses from the standard error
+	 * falling with the square root of the number of trials.
+	 **/
+	int need (){
 
-	    int i; 
-	    int j;	
-	    for ( i = 0; i < certainties.length; i++ ){
-	    	certainties[i] = prng.nextFloat() + (float)1.0;
-	    } 
-	    
-	    // now add the deviants
-	    int num_deviants = (int)(deviant_ratio*m*n);	
-	    
-	    for(i = 0; i < num_deviants; i++ ){
-		int index = prng.nextInt(m*n);
-		certainties[index] = prng.nextFloat() + (float)2.5;
-		
+	    if (done || launched == num_trials){
+		return 0;
 	    }
-	    
-	    //    for ( i = 0; i < certainties.length; i++ ){
-	    //		System.out.println(certainties[i]);
-	    //  } 
-	    
-
-	    // Now that we're done with all that, we can begin our 
-	    //games!
-	    ArrayList<ArrayList<Player>> players = 
-		new ArrayList<ArrayList<Player>>(n);
-	    
-	    // populate the player array with players
-	    for ( i = 0; i < n; i++){
-		
-		ArrayList<Player> column = new ArrayList<Player>(m);
-		for ( j = 0; j < m; j++ ){
-		    
-		    column.add(new Player
-			       ( life_points, 
-				 certainties[m*i + j]* misanthropy,
-				 certainties[m*i + j], 
-				 time_horizon, optimism, 
-				 new Random()));
-		}
-		
-		players.add(column);
+	    int wanted = num_trials;
+	    if (target_error > 0 && counted < fewest()){
+		wanted = fewest();
 	    }
-	    
-	    // build the game board
-	    Board game = new Board(players, space_horizon);
-	    //    System.out.println("Start\\\\");
-	    //	    game.printSummaryStats();
-	    starts[t] = game.getSummaryStats();
-	    starts[t][4] = game.percentGreaterEqualThan(starts[t][1]);
-
-
-	    // play the game
-	    for (i = 0; i < num_rounds; i++ ){
-		game.round();
-		// if( i % 25 == 0){
-		//     game.markPlayersGreaterThan
-		// 	((float)(starts[t][1] + 0.025));
-		// 	}
+	    else if (target_error > 0){
+		double ratio = error() / target_error;
+		wanted = (int)Math.min(num_trials,
+				       Math.ceil(counted * ratio * ratio));
 	    }
-
-	    // print the end state of the game and store these stats
-	    // in array
-	    //  System.out.println("Finish\\\\");
-	    //	    game.printSummaryStats();
-	    results[t] = game.getSummaryStats();
-	    results[t][4] = game.percentGreaterEqualThan(starts[t][1]);
-	    results[t][5] = game.percentGreaterEqualThan(starts[t][0]);
+	    return wanted - launched;
 	}
+    }
 
 
-	// Stats on starting stats? What madness is this?!?!
-	float median_avg_start, mean_avg_start, max_avg_start, 
-	    min_avg_start, mean_proportion_start;
-	median_avg_start = mean_avg_start = 
-	    max_avg_start = min_avg_start = mean_proportion_start = 0;
-	
-	for (int i = 0; i < starts.length; i++ ){
-	    
-	    mean_avg_start += starts[i][0];
-	    median_avg_start += starts[i][1];
-	    max_avg_start += starts[i][2];
-	    min_avg_start += starts[i][3];
-	    mean_proportion_start += starts[i][4];
-	    
-	}
-	
-	mean_avg_start /= starts.length;
-	median_avg_start /= starts.length;
-	max_avg_start /= starts.length;
-	min_avg_start /= starts.length;
-	mean_proportion_start /= starts.length;
-	
-	
-	// Print summary of games
-	
-	System.out.println("**************************************\\\\");
-	System.out.println("**************************************\\\\");
-	System.out.printf("Summary of games for the following population: \\\\ \n");
-	System.out.printf("%.3f very large certainty values\n", 
-			  deviant_ratio);
-
-	
-	System.out.printf("Average startstate median:\t %.2f \n",
-			  median_avg_start);
-	System.out.printf("Average startstate mean:\t %.2f \n",
-			  mean_avg_start);
-	System.out.printf("Average startstate max:\t \t %.2f \n",
-			  max_avg_start);
-	System.out.printf("Average startstate min:\t \t %.2f \n", 
-			  min_avg_start);
-	System.out.printf("Starting proportion greater than starting avg: %.3f \n", mean_proportion_start);
-	
+    /**
+     * Trial plays one trial of a scenario on the pool.
+     **/
+    private class Trial implements Callable<Trial> {
 
-	// Stats on stats? What madness is this?!?!
-	float median_avg, mean_avg, max_avg, min_avg, 
-	    median_proportion, avg_proportion;
-	median_avg = mean_avg = max_avg = min_avg = 
-	    median_proportion = avg_proportion = 0;
+	Scenario scenario;
+	int number;
+	float[][] stats;
 
-	for (int i = 0; i < results.length; i++ ){
-	    
-	    mean_avg += results[i][0];
-	    median_avg += results[i][1];
-	    max_avg += results[i][2];
-	    min_avg += results[i][3];
-	    median_proportion += results[i][4];
-	    avg_proportion += results[i][5];
-	    
+	Trial (Scenario scenario, int number){
+	    this.scenario = scenario;
+	    this.number = number;
 	}
 
-	mean_avg /= results.length;
-	median_avg /= results.length;
-	max_avg /= results.length;
-	min_avg /= results.length;
-	median_proportion /= results.length;
-	avg_proportion /=results.length;
-
-
-	// Print summary of games
-
-	System.out.println("**************************************\\\\");
-	System.out.println("**************************************\\\\");
-
-	System.out.printf("%.3f very large certainty values \n",
-			  deviant_ratio);
-
-	
-	System.out.printf("Average endstate median:\t %.2f \n",median_avg);
-	System.out.printf("Average endstate mean:\t \t %.2f \n",mean_avg);
-	System.out.printf("Average endstate max:\t \t %.2f \n", max_avg);
-	System.out.printf("Average endstate min:\t \t %.2f \n", min_avg);
-	System.out.printf("Final population proportion greater than starting median:\t %.3f \n", median_proportion);
-	System.out.printf("Final population proportion greater than starting average: %.3f \n", avg_proportion);
-	
-
-	System.out.println("**************************************\\\\");
-	System.out.println("**************************************\\\\");
-	System.out.println("\\\\");
-	System.out.println("\\\\");
+	public Trial call (){
+	    stats = playTrial(scenario.population,
+			      scenario.trial_prngs[number]);
+	    return this;
+	}
     }
 
-    void smallB(){
-	// Mostly uniformly random certainties between 0.5 and 1.5
-	// with a few smaller values sprinkled in for fun!
-	// The number of deviants is proportional to grid size
-	for ( t = 0; t < num_trials; t++ ){
 
-	    int i; 
-	    int j;	
-	    for ( i = 0; i < certainties.length; i++ ){
-		certainties[i] = prng.nextFloat() + (float)1.0;
-	
-	    } 
-	    
-	    // now add the deviants
-	    int num_deviants = (int)(deviant_ratio*m*n);	    
-	    for(i = 0; i < num_deviants; i++ ){
-		int index = prng.nextInt(m*n);
-		certainties[index] = prng.nextFloat();
+    /**
+     * runTrials plays the trials of the given scenarios,
+     * num_threads at a time, until each is done. Every trial builds
+     * its own certainties and Board from its own PRNG and shares
+     * nothing with the others. Only this thread adds their
+     * statistics up.
+     *
+     * A free thread takes a trial of the scenario with the most
+     * trials still needed. When none seems to need more than are
+     * running, it takes one anyway, in case those running do not
+     * bring their scenario to its target. The trials still running for
+     * a scenario once it is done are cancelled. Every
+     * PROGRESS_INTERVAL the number of trials each scenario has
+     * counted and its running end state median go to standard
+     * error.
+     *
+     * @param  scenarios  the scenarios
+     **/
+    private void runTrials (Scenario[] scenarios){
+
+	ExecutorService pool = Executors.newFixedThreadPool(num_threads);
+	ExecutorCompletionService<Trial> finished =
+	    new ExecutorCompletionService<Trial>(pool);
+	int running = 0;
+
+	try {
+	    for (; running < num_threads; running++ ){
+		if (!launch(scenarios, finished)){
+		    break;
+		}
 	    }
 
+	    long report = System.nanoTime() + PROGRESS_INTERVAL;
+	    while (running > 0){
+
+		Future<Trial> future =
+		    finished.poll(Math.max(0, report - System.nanoTime()),
+				  TimeUnit.NANOSECONDS);
+		if (future == null){
+		    for (int k = 0; k < scenarios.length; k++ ){
+			if (scenarios[k].done){
+			    continue;
+			}
+			TrialStats.Summary ended = scenarios[k].ends.snapshot();
+			System.err.printf("scenario %d: %d trials, endstate median %.3f +/- %.3f \n",
+					  k + 1, ended.count(), ended.mean(1),
+					  ended.confidence(1));
+		    }
+		    report = System.nanoTime() + PROGRESS_INTERVAL;
+		    continue;
+		}
+		running--;
+		if (future.isCancelled()){
+		    continue;
+		}
 
-	    // Now that we're done with all that, we can begin our 
-	    //games!
-	    ArrayList<ArrayList<Player>> players = 
-		new ArrayList<ArrayList<Player>>(n);
-	    
-	    // populate the player array with players
-	    for ( i = 0; i < n; i++){
-		
-		ArrayList<Player> column = new ArrayList<Player>(m);
-		for ( j = 0; j < m; j++ ){
-		    
-		    column.add(new Player
-			       ( life_points, 
-				 certainties[m*i + j]*misanthropy, 
-				 certainties[m*i + j], 
-				 time_horizon, optimism, 
-				 new Random()));
+		Trial trial = future.get();
+		Scenario scenario = trial.scenario;
+		scenario.running.remove(future);
+		scenario.finish(trial.number, trial.stats);
+		if (scenario.done){
+		    for (Future<Trial> extra : scenario.running){
+			extra.cancel(true);
+		    }
 		}
-		
-		players.add(column);
-	    }
-	    
-	    // build the game board
-	    Board game = new Board(players, space_horizon);
-	    //	    System.out.println("Start\\\\");
-	    //    game.printSummaryStats();
-	    starts[t] = game.getSummaryStats();
-	    starts[t][4] = game.percentGreaterEqualThan(starts[t][1]);
-
-	    // play the game
-	    for (i = 0; i < num_rounds; i++ ){
-		game.round();
-		// if( i % 25 == 0){
-		//     game.markPlayersGreaterThan
-		// 	((float)(starts[t][1] + 0.025));
-		// 	}
-	    }
 
-	    // print the end state of the game and store these stats
-	    // in array
-	    //  System.out.println("Finish\\\\");
-	    //	    game.printSummaryStats();
-	    results[t] = game.getSummaryStats();
-	    results[t][4] = game.percentGreaterEqualThan(starts[t][1]);
-	    results[t][5] = game.percentGreaterEqualThan(starts[t][0]);
+		// keep the pool busy
+		while (running < num_threads && launch(scenarios, finished)){
+		    running++;
+		}
+	    }
 	}
-
-
-
-
-	// Stats on starting stats? What madness is this?!?!
-	float median_avg_start, mean_avg_start, max_avg_start, 
-	    min_avg_start, mean_proportion_start;
-	median_avg_start = mean_avg_start = 
-	    max_avg_start = min_avg_start = mean_proportion_start = 0;
-	
-	for (int i = 0; i < starts.length; i++ ){
-	    
-	    mean_avg_start += starts[i][0];
-	    median_avg_start += starts[i][1];
-	    max_avg_start += starts[i][2];
-	    min_avg_start += starts[i][3];
-	    mean_proportion_start += starts[i][4];
-	    
+	catch (InterruptedException e){
+	    Thread.currentThread().interrupt();
+	    throw new RuntimeException(e);
 	}
-	
-	mean_avg_start /= starts.length;
-	median_avg_start /= starts.length;
-	max_avg_start /= starts.length;
-	min_avg_start /= starts.length;
-	mean_proportion_start /= starts.length;
-	
-	
-	// Print summary of games
-	
-	System.out.println("**************************************\\\\");
-	System.out.println("**************************************\\\\");
-	System.out.printf("Summary of games for the following population: \\\\ \n");
-	System.out.printf("%.3f very small certainty values \n",
-			  deviant_ratio);
-	System.out.printf("Average startstate median:\t %.2f \n",
-			  median_avg_start);
-	System.out.printf("Average startstate mean:\t %.2f \n",
-			  mean_avg_start);
-	System.out.printf("Average startstate max:\t \t %.2f \n",
-			  max_avg_start);
-	System.out.printf("Average startstate min:\t \t %.2f \n", 
-			  min_avg_start);
-	System.out.printf("Starting proportion greater than starting avg: %.3f \n", mean_proportion_start);
-	
-
-	// Stats on stats? What madness is this?!?!
-	float median_avg, mean_avg, max_avg, min_avg, 
-	    median_proportion, avg_proportion;
-	median_avg = mean_avg = max_avg = min_avg = 
-	    median_proportion =  avg_proportion = 0;
-
-	for (int i = 0; i < results.length; i++ ){
-	    
-	    mean_avg += results[i][0];
-	    median_avg += results[i][1];
-	    max_avg += results[i][2];
-	    min_avg += results[i][3];
-	    median_proportion += results[i][4];
-	    avg_proportion += results[i][5];
-	    
+	catch (ExecutionException e){
+	    throw new RuntimeException(e.getCause());
 	}
-
-	mean_avg /= results.length;
-	median_avg /= results.length;
-	max_avg /= results.length;
-	min_avg /= results.length;
-	avg_proportion /= results.length;
-	median_proportion /= results.length;
-
-	// Print summary of games
-
-	System.out.println("**************************************\\\\");
-	System.out.println("**************************************\\\\");
-
-	System.out.printf("%.3f very small certainty values \n",
-			  deviant_ratio);
-
-	
-	System.out.printf("Average endstate median:\t %.2f \n",median_avg);
-	System.out.printf("Average endstate mean:\t \t %.2f \n",mean_avg);
-	System.out.printf("Average endstate max:\t \t %.2f \n", max_avg);
-	System.out.printf("Average endstate min:\t \t %.2f \n", min_avg);
-	System.out.printf("Final population proportion greater than starting median:\t %.3f \n", median_proportion);
-	System.out.printf("Final population proportion greater than starting average: %.3f \n", avg_proportion);
+	finally {
+	    pool.shutdownNow();
+	}
+    }
 
 
-	System.out.println("**************************************\\\\");
-	System.out.println("**************************************\\\\");
-	System.out.println("\\\\");
-	System.out.println("\\\\");
-    
+    /**
+     * launch starts the next trial of the scenario that needs one
+     * most, if any can start.
+     *
+     * @param  scenarios  the scenarios
+     * @param  finished  where the trial goes once it is done
+     *
+     * @return  whether a trial was started
+     **/
+    private boolean launch (Scenario[] scenarios,
+			    ExecutorCompletionService<Trial> finished){
 
-    }
+	Scenario neediest = null;
+	int most = 0;
+	double furthest = 0;
 
-    void diverse(){
+	// the most trials needed, and between equals the largest error
 
-	// Mostly uniformly random certainties between 1.0 and 2.0
-	// with a few larger and a few smaller values sprinkled in 
-	// for fun!
-	// The number of deviants is proportional to grid size
-	for ( t = 0; t < num_trials; t++ ){
-	    
-	    int i; 
-	    int j;	
-	    for ( i = 0; i < certainties.length; i++ ){
-		certainties[i] = prng.nextFloat() + (float)1.0;
-	    } 
-	    
-	    // now add the deviants
-	    int num_deviants = (int)(2*deviant_ratio*m*n);	    
-	    Set<Integer> deviant_set = new LinkedHashSet<Integer>();
+	for (Scenario scenario : scenarios){
 
-	    // pick indices to which small or large certainties will
-	    // be assigned
-	    while( deviant_set.size() < num_deviants ){
-		
-		deviant_set.add( prng.nextInt(m*n) );
+	    if (scenario.done || scenario.launched == num_trials){
+		continue;
 	    }
-
-	    Iterator<Integer> itr = deviant_set.iterator();
-	    // assign deviant certainties
-	    while (itr.hasNext()){
-
-		// large certainty
-		certainties[itr.next()] = 
-		    prng.nextFloat() + (float)2.5;
-		
-		// smaller certainty
-		certainties[itr.next()] = 
-		    prng.nextFloat();
-		
+	    int need = scenario.need();
+	    double error = (scenario.counted > 1) ? scenario.error() : 0;
+
+	    if (neediest == null || need > most
+		|| (need == most && error > furthest)){
+		neediest = scenario;
+		most = need;
+		furthest = error;
 	    }
+	}
+	if (neediest == null){
+	    return false;
+	}
 
+	Trial trial = new Trial(neediest, neediest.launched++);
+	neediest.running.add(finished.submit(trial));
+	return true;
+    }
 
-	    // Now that we're done with all that, we can begin our 
-	    //games!
-	    ArrayList<ArrayList<Player>> players = 
-		new ArrayList<ArrayList<Player>>(n);
-	    
-	    // populate the player array with players
-	    for ( i = 0; i < n; i++){
+    /**
+     * playTrial plays a single game.
+     *
+     * @param  population  the population to start from
+     * @param  trial_prng  this trial's PRNG
+     *
+     * @return  the game's start state statistics, its end state
+     * statistics (see Board.getSummaryStats), and the number of
+     * rounds it played followed by the round it converged in, or -1
+     **/
+    float[][] playTrial (PopulationGenerator population,
+			 SplittableRandom trial_prng){
+
+	float[] certainties = new float[m*n];
+	Populations.generate(population, certainties, trial_prng);
+
+	// Now that we're done with all that, we can begin our 
+	//games! The players get their randomness from the board.
+	ArrayList<ArrayList<Player>> players = 
+	    new ArrayList<ArrayList<Player>>(n);
+	    
+	// populate the player array with players
+	for (int i = 0; i < n; i++){
 		
-		ArrayList<Player> column = new ArrayList<Player>(m);
-		for ( j = 0; j < m; j++ ){
+	    ArrayList<Player> column = new ArrayList<Player>(m);
+	    for (int j = 0; j < m; j++ ){
 		    
-		    column.add(new Player
-			       ( life_points, 
-				 certainties[m*i + j]*misanthropy,  
-				 certainties[m*i + j], 
-				 time_horizon, optimism, 
-				 new Random()));
-		}
-		
-		players.add(column);
-	    }
-	    
-	    // build the game board
-	    Board game = new Board(players, space_horizon);
-	    //	    System.out.println("Start\\\\");
-	    //   game.printSummaryStats();
-	    starts[t] = game.getSummaryStats();
-	    starts[t][4] = game.percentGreaterEqualThan(starts[t][1]);
-
-	    // play the game
-	    for (i = 0; i < num_rounds; i++ ){
-		game.round();
-		// if( i % 25 == 0){
-		//     game.markPlayersGreaterThan
-		// 	((float)(starts[t][1] + 0.025));
-		// 	}
+		column.add(new Player
+			   ( life_points,
+			     certainties[m*i + j]* misanthropy, 
+			     certainties[m*i + j], 
+			     time_horizon, optimism, null));
 	    }
-
-	    // print the end state of the game and store these stats
-	    // in array
-	    //    System.out.println("Finish.\\\\");
-	    //	    game.printSummaryStats();
-	    results[t] = game.getSummaryStats();
-	    results[t][4] = game.percentGreaterEqualThan(starts[t][1]);
-	    results[t][5] = game.percentGreaterEqualThan(starts[t][0]);
+		
+	    players.add(column);
 	}
-
-	// Stats on starting stats? What madness is this?!?!
-	float median_avg_start, mean_avg_start, max_avg_start, 
-	    min_avg_start, mean_proportion_start;
-	median_avg_start = mean_avg_start = 
-	    max_avg_start = min_avg_start = mean_proportion_start = 0;
 	
-	for (int i = 0; i < starts.length; i++ ){
-	    
-	    mean_avg_start += starts[i][0];
-	    median_avg_start += starts[i][1];
-	    max_avg_start += starts[i][2];
-	    min_avg_start += starts[i][3];
-	    mean_proportion_start += starts[i][4];
-	    
+	// build the game board
+	Board game = new Board(players, space_horizon,
+			       trial_prng.nextLong());
+	game.setDecisionFunction(decision_function);
+	game.setNeighborhood(neighborhood);
+	game.setPacked(packed);
+	game.setVectorDamage(vector_damage);
+	if (track_activity){
+	    game.setActivityTracking(true, activity_tolerance);
 	}
-	
-	mean_avg_start /= starts.length;
-	median_avg_start /= starts.length;
-	max_avg_start /= starts.length;
-	min_avg_start /= starts.length;
-	mean_proportion_start /= starts.length;
-	
-	// Print summary of games
-	
-	System.out.println("**************************************\\\\");
-	System.out.println("**************************************\\\\");
-	System.out.printf("Summary of games for the following population: \\\\ \n");
-	System.out.printf("Some very large certainty values, some small.\n\\\\");
-	
-	System.out.printf("Average startstate median:\t %.2f \n",
-			  median_avg_start);
-	System.out.printf("Average startstate mean:\t %.2f \n",
-			  mean_avg_start);
-	System.out.printf("Average startstate max:\t \t %.2f \n",
-			  max_avg_start);
-	System.out.printf("Average startstate min:\t \t %.2f \n", 
-			  min_avg_start);
-	System.out.printf("Starting proportion greater than starting avg: %.3f \n", mean_proportion_start);
-	
-
-	// Stats on stats? What madness is this?!?!
-	float median_avg, mean_avg, max_avg, min_avg, 
-	    median_proportion, avg_proportion;
-	median_avg = mean_avg = max_avg = min_avg = 
-	    median_proportion =  avg_proportion = 0;
+	float[] start = game.getSummaryStats();
 
-	for (int i = 0; i < results.length; i++ ){
-	    
-	    mean_avg += results[i][0];
-	    median_avg += results[i][1];
-	    max_avg += results[i][2];
-	    min_avg += results[i][3];
-	    median_proportion += results[i][4];
-	    avg_proportion += results[i][5];
-	    
+	// play the game, until it settles if we are watching for that
+	if (convergence_window > 0){
+	    game.setConvergence(convergence_window, convergence_tolerance);
+	}
+	// a trial nobody needs any more is interrupted, and stops
+	// at the end of its round
+	for (int i = 0; i < num_rounds && !game.converged()
+		 && !Thread.currentThread().isInterrupted(); i++ ){
+	    game.round();
 	}
 
-	mean_avg /= results.length;
-	median_avg /= results.length;
-	max_avg /= results.length;
-	min_avg /= results.length;
-	avg_proportion /= results.length;
-	median_proportion /= results.length;
-
-
-	// Print summary of games
-
-	System.out.println("**************************************\\\\");
-	System.out.println("**************************************\\\\");
-
-	System.out.printf("Some very large certainty values, some small. \n\\\\");
-
-	
-	System.out.printf("Average endstate median: \t %.2f \n",median_avg);
-	System.out.printf("Average endstate mean: \t \t %.2f \n",mean_avg);
-	System.out.printf("Average endstate max:\t \t %.2f \n", max_avg);
-	System.out.printf("Average endstate min:\t \t %.2f \n", min_avg);
+	// the end state stats, against the starting median and mean
+	return new float[][]{ start,
+			      game.getSummaryStats(start[1], start[0]),
+			      { game.getRounds(),
+				game.getConvergenceRound() } };
+    }
 
-	System.out.printf("Final population proportion greater than starting median:\t %.3f \n", median_proportion);
-	System.out.printf("Final population proportion greater than starting average: %.3f \n", avg_proportion);
-	
-	System.out.println("**************************************\\\\");
-	System.out.println("**************************************\\\\");
-	System.out.println("\\\\");
-	System.out.println("\\\\");
+    /**
+     * generator returns the named population, built for this
+     * PDTrials' board size and deviant ratio. See Populations.
+     *
+     * @param  name  the name of the population, or file:path
+     *
+     * @return  the population
+     **/
+    PopulationGenerator generator (String name){
+
+	try {
+	    return Populations.named(name, m, n, deviant_ratio);
+	}
+	catch (IOException e){
+	    throw new IllegalArgumentException
+		("could not read population " + name, e);
+	}
+    }
 
+    /**
+     * store adds a trial, with every parameter it was played with,
+     * to results.
+     *
+     * @param  scenario  the trial's scenario
+     * @param  trial  the trial's number in the scenario
+     * @param  stats  what playTrial returned for it
+     **/
+    private void store (Scenario scenario, int trial, float[][] stats){
+
+	try {
+	    results.addTrial("PDTrials", scenario.name, seed,
+			     scenario.first_trial + trial, this,
+			     stats[0], stats[1],
+			     (int)stats[2][0], (int)stats[2][1]);
+	}
+	catch (IOException e){
+	    throw new UncheckedIOException(e);
+	}
     }
 
-    void bimodal(){
 
-	// All certainties are very large or very small
-	for ( t = 0; t < num_trials; t++ ){
-	    
-	    int i; 
-	    int j;	
-	    //for ( i = 0; i < certainties.length; i++ ){
-	    //		certainties[i] = prng.nextFloat() + (float)1.0;
-	    // } 
-	    
-	    // now add the deviants
-	    int num_deviants = m*n;	    
-	    Set<Integer> deviant_set = new LinkedHashSet<Integer>();
+    /**
+     * scenarios plays the trials of several populations together,
+     * on one pool, and then prints the summary of each. See
+     * summarize. Their trials are in results, if there are any,
+     * once it returns.
+     *
+     * @param  names  the populations to start from. See generator
+     **/
+    void scenarios (List<String> names){
 
-	    // pick indices to which small or large certainties will
-	    // be assigned
-	    while( deviant_set.size() < num_deviants ){
-		
-		deviant_set.add( prng.nextInt(m*n) );
+	Scenario[] scenarios = new Scenario[names.size()];
+	for (int k = 0; k < scenarios.length; k++ ){
+	    scenarios[k] = new Scenario(names.get(k));
+	}
+	runTrials(scenarios);
+	if (results != null){
+	    try {
+		results.flush();
 	    }
-
-	    Iterator<Integer> itr = deviant_set.iterator();
-	    // assign deviant certainties
-	    while (itr.hasNext()){
-
-		// large certainty
-		certainties[itr.next()] = 
-		    prng.nextFloat() + (float)2.5;
-		
-		// smaller certainty
-		certainties[itr.next()] = 
-		    prng.nextFloat();
-		
+	    catch (IOException e){
+		throw new UncheckedIOException(e);
 	    }
+	}
+	for (Scenario scenario : scenarios){
+	    summarize(scenario);
+	}
+    }
 
+    /**
+     * scenario plays the trials of a single population and prints
+     * their summary.
+     *
+     * @param  name  the population to start from. See generator
+     **/
+    void scenario (String name){
+	scenarios(Collections.singletonList(name));
+    }
 
-	    // Now that we're done with all that, we can begin our 
-	    //games!
-	    ArrayList<ArrayList<Player>> players = 
-		new ArrayList<ArrayList<Player>>(n);
-	    
-	    // populate the player array with players
-	    for ( i = 0; i < n; i++){
-		
-		ArrayList<Player> column = new ArrayList<Player>(m);
-		for ( j = 0; j < m; j++ ){
-		    
-		    column.add(new Player
-			       ( life_points, 
-				 certainties[m*i + j]*misanthropy,  
-				 certainties[m*i + j], 
-				 time_horizon, optimism, 
-				 new Random()));
-		}
-		
-		players.add(column);
-	    }
-	    
-	    // build the game board
-	    Board game = new Board(players, space_horizon);
-	    //	    System.out.println("Start\\\\");
-	    //   game.printSummaryStats();
-	    starts[t] = game.getSummaryStats();
-	    starts[t][4] = game.percentGreaterEqualThan(starts[t][1]);
-
-	    // play the game
-	    for (i = 0; i < num_rounds; i++ ){
-		game.round();
-		// if( i % 25 == 0){
-		//     game.markPlayersGreaterThan
-		// 	((float)(starts[t][1] + 0.025));
-		// }
-	    }
 
-	    // print the end state of the game and store these stats
-	    // in array
-	    //    System.out.println("Finish.\\\\");
-	    //	    game.printSummaryStats();
-	    results[t] = game.getSummaryStats();
-	    results[t][4] = game.percentGreaterEqualThan(starts[t][1]);
-	    results[t][5] = game.percentGreaterEqualThan(starts[t][0]);
-	}
+    /**
+     * summarize prints the averages of the start and end state
+     * statistics of a scenario's trials, with the 95% confidence
+     * intervals of the end state averages and the quartiles of the
+     * end state medians.
+     *
+     * @param  scenario  the scenario, once it is done
+     **/
+    private void summarize (Scenario scenario){
+
+	PopulationGenerator population = scenario.population;
 
 	// Stats on starting stats? What madness is this?!?!
-	float median_avg_start, mean_avg_start, max_avg_start, 
-	    min_avg_start, mean_proportion_start;
-	median_avg_start = mean_avg_start = 
-	    max_avg_start = min_avg_start = mean_proportion_start = 0;
-	
-	for (int i = 0; i < starts.length; i++ ){
-	    
-	    mean_avg_start += starts[i][0];
-	    median_avg_start += starts[i][1];
-	    max_avg_start += starts[i][2];
-	    min_avg_start += starts[i][3];
-	    mean_proportion_start += starts[i][4];
-	    
-	}
-	
-	mean_avg_start /= starts.length;
-	median_avg_start /= starts.length;
-	max_avg_start /= starts.length;
-	min_avg_start /= starts.length;
-	mean_proportion_start /= starts.length;
-	
+	TrialStats.Summary starts = scenario.starts.snapshot();
 	
 	// Print summary of games
 	
 	System.out.println("**************************************\\\\");
 	System.out.println("**************************************\\\\");
 	System.out.printf("Summary of games for the following population: \\\\ \n");
-	System.out.printf("All certainty values are very large or very  small.\n\\\\");
+	System.out.print(population.description());
+
 	
 	System.out.printf("Average startstate median:\t %.2f \n",
-			  median_avg_start);
+			  starts.mean(1));
 	System.out.printf("Average startstate mean:\t %.2f \n",
-			  mean_avg_start);
+			  starts.mean(0));
 	System.out.printf("Average startstate max:\t \t %.2f \n",
-			  max_avg_start);
+			  starts.mean(2));
 	System.out.printf("Average startstate min:\t \t %.2f \n", 
-			  min_avg_start);
-	System.out.printf("Starting proportion greater than starting avg: %.3f \n", mean_proportion_start);
+			  starts.mean(3));
+	System.out.printf("Starting proportion greater than starting avg: %.3f \n", starts.mean(4));
 	
 
 	// Stats on stats? What madness is this?!?!
-	float median_avg, mean_avg, max_avg, min_avg, 
-	    median_proportion, avg_proportion;
-	median_avg = mean_avg = max_avg = min_avg = 
-	    median_proportion = avg_proportion = 0;
-	
-	for (int i = 0; i < results.length; i++ ){
-	    
-	    mean_avg += results[i][0];
-	    median_avg += results[i][1];
-	    max_avg += results[i][2];
-	    min_avg += results[i][3];
-	    median_proportion += results[i][4];
-	    avg_proportion += results[i][5];
-	    
-	}
-
-	mean_avg /= results.length;
-	median_avg /= results.length;
-	max_avg /= results.length;
-	min_avg /= results.length;
-	avg_proportion /= results.length;
-	median_proportion /= results.length;
-
+	TrialStats.Summary ends = scenario.ends.snapshot();
 
 	// Print summary of games
 
 	System.out.println("**************************************\\\\");
 	System.out.println("**************************************\\\\");
 
-	System.out.printf("All certainty values are very large or very small. \n\\\\");
+	System.out.print(population.description());
+
 	
-	System.out.printf("Average endstate median: \t %.2f \n",median_avg);
-	System.out.printf("Average endstate mean: \t \t %.2f \n",mean_avg);
-	System.out.printf("Average endstate max:\t \t %.2f \n", max_avg);
-	System.out.printf("Average endstate min:\t \t %.2f \n", min_avg);
+	System.out.printf("Average endstate median:\t %.2f +/- %.2f \n",
+			  ends.mean(1), ends.confidence(1));
+	System.out.printf("Average endstate mean:\t \t %.2f +/- %.2f \n",
+			  ends.mean(0), ends.confidence(0));
+	System.out.printf("Average endstate max:\t \t %.2f +/- %.2f \n", 
+			  ends.mean(2), ends.confidence(2));
+	System.out.printf("Average endstate min:\t \t %.2f +/- %.2f \n",
+			  ends.mean(3), ends.confidence(3));
+	System.out.printf("Endstate median quartiles:\t %.2f %.2f %.2f \n",
+			  ends.quantile(1, 0.25), ends.quantile(1, 0.5),
+			  ends.quantile(1, 0.75));
+
+	System.out.printf("Final population proportion greater than starting median:\t %.3f \n", ends.mean(4));
+	System.out.printf("Final population proportion greater than starting average: %.3f \n", ends.mean(5));
 
-	System.out.printf("Final population proportion greater than starting median:\t %.3f \n", median_proportion);
-	System.out.printf("Final population proportion greater than starting average: %.3f \n", avg_proportion);
+	if (target_error > 0){
+	    System.out.printf("Trials played:\t \t \t %d of at most %d, largest standard error %.4f \n",
+			      ends.count(), num_trials, scenario.error());
+	}
+	if (convergence_window > 0){
+	    TrialStats.Summary rounds = scenario.rounds.snapshot();
+	    System.out.printf("Average rounds played:\t \t %.1f of %d, %d of %d games converged \n",
+			      rounds.mean(0), num_rounds,
+			      Math.round(rounds.mean(1) * rounds.count()),
+			      rounds.count());
+	}
 	
 
 	System.out.println("**************************************\\\\");
 	System.out.println("**************************************\\\\");
 	System.out.println("\\\\");
 	System.out.println("\\\\");
+    }
 
+    void uniform (){
+	// uniformly random certainties between 1.0 and 2.0
+	scenario("uniform");
+    }
+
+    void largeB(){
+	// Mostly uniformly random certainties between 1.0 and 2.0
+	// with a few larger values sprinkled in for fun!
+	// The number of deviants is proportional to grid size
+	scenario("largeb");
+    }
+
+    void smallB(){
+	// Mostly uniformly random certainties between 0.5 and 1.5
+	// with a few smaller values sprinkled in for fun!
+	// The number of deviants is proportional to grid size
+	scenario("smallb");
+    }
+
+    void diverse(){
+	// Mostly uniformly random certainties between 1.0 and 2.0
+	// with a few larger and a few smaller values sprinkled in 
+	// for fun!
+	// The number of deviants is proportional to grid size
+	scenario("diverse");
+    }
+
+    void bimodal(){
+	// All certainties are very large or very small
+	scenario("bimodal");
     }
 
 
     public static void main (String[] args){
 	
-	// only command line argument is the number of trials for each
-	// test
-	int num_trials = Integer.parseInt(args[0]);
+	// first command line argument is the number of trials for each
+	// test, or cap:target to play up to cap trials of each until the
+	// standard errors of its mean and median fall to target.
+	// Optionally, it is followed by the number of threads to run
+	// trials on, a seed for the trials' PRNGs and a comma separated
+	// list of the populations to start from. See Populations for
+	// their names, then by a window and tolerance for games to
+	// stop early once they converge (0 0 for never), and then by a
+	// ResultStore to append every trial to
+	String usage = "usage: PDTrials trials|cap:target [threads [seed"
+	    + " [populations [window tolerance [store]]]]]";
+
+	// a window without its tolerance would go unnoticed
+	if (args.length < 1 || args.length == 5 || args.length > 7){
+	    System.err.println(usage);
+	    System.exit(1);
+	}
+	String[] counts = args[0].split(":");
+	int num_trials = Integer.parseInt(counts[0]);
 	
 	PDTrials trials = new PDTrials(num_trials);
+	if (args.length > 2){
+	    trials = new PDTrials(num_trials, Integer.parseInt(args[1]),
+				  Long.parseLong(args[2]));
+	}
+	else if (args.length > 1){
+	    trials = new PDTrials(num_trials, Integer.parseInt(args[1]),
+				  System.nanoTime());
+	}
+	System.err.printf("Seed: %d \n", trials.seed);
+	if (counts.length > 1){
+	    trials.target_error = Double.parseDouble(counts[1]);
+	}
+	if (args.length > 5){
+	    trials.convergence_window = Integer.parseInt(args[4]);
+	    trials.convergence_tolerance = Float.parseFloat(args[5]);
+	}
 	
-	trials.uniform();
-	trials.largeB();
-	trials.smallB();
-	trials.diverse();
-	trials.bimodal();
+	// the five populations PDTrials has always played, by default
+	String names = (args.length > 3) ? args[3]
+	    : "uniform,largeb,smallb,diverse,bimodal";
+	try {
+	    if (args.length > 6){
+		trials.results = new ResultStore(Paths.get(args[6]));
+	    }
+	    trials.scenarios(Arrays.asList(names.split(",")));
+	    if (trials.results != null){
+		trials.results.close();
+	    }
+	}
+	catch (IOException e){
+	    System.err.println("could not store the results: "
+			       + e.getMessage());
+	    System.exit(1);
+	}
 }
     
 
@@ -4,16 +4,15 @@
 //@author Jessica Sorrell
 //@version 25-Oct-2014
 // 
-import java.util.ArrayList;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 import static java.lang.Math.*;
-import java.util.Collections;
 
 public class Player
 {
 
     // Hidden data members
-    private Random prng;
+    private RandomGenerator prng;
     private int memory_span;
     private float misanthropy;
     private float certainty;
@@ -24,7 +23,19 @@ public class Player
 
     private final float PROB_MUTATION = (float)0.2;
 
-    private ArrayList<Float> memories;
+    // how this player evaluates its decision function, one of
+    // Sigmoid.EXACT, Sigmoid.TABLE or Sigmoid.RATIONAL
+    private int decision_function = Sigmoid.EXACT;
+
+    // memories is a ring buffer. memories[head] is the oldest memory
+    // and memories[(head - 1 + memory_span) % memory_span] the most
+    // recent. memory_sum is the sum of all memories and
+    // weighted_memory_sum the sum of (age rank)*memory, where the
+    // oldest memory has rank 1 and the most recent rank memory_span.
+    private float[] memories;
+    private int head;
+    private double memory_sum;
+    private double weighted_memory_sum;
 
     // Public data members
     int total_life;
@@ -37,7 +48,7 @@ public class Player
     // Constructor
     public Player (int life_points, float misanthropy, 
 		   float certainty, int memory_span, float optimism, 
-		   Random prng){
+		   RandomGenerator prng){
 
 	this.total_life = life_points;
 	this.life_points = life_points;
@@ -47,10 +58,8 @@ public class Player
 	this.prng = prng;
 	this.optimism = optimism;
 
-	this.memories = new ArrayList<Float>(memory_span);
-	for (int i = 0; i < memory_span; i++){
-	    memories.add(optimism);
-	}
+	this.memories = new float[memory_span];
+	amnesia(optimism);
     }  
 
     /**
@@ -95,11 +104,8 @@ public class Player
      **/
     void setMemory (int memory_span){
 	this.memory_span = memory_span;
-	this.memories = new ArrayList<Float>(memory_span);
-
-	for (int i = 0; i < memory_span; i++){
-	    memories.add((float)0.0);
-	}
+	this.memories = new float[memory_span];
+	amnesia((float)0.0);
     }
 
 
@@ -113,12 +119,46 @@ public class Player
     }
 
     /**
-     * getMemories returns the ArrayList of this Player's memories
+     * getMemories returns a copy of this Player's memories, oldest
+     * first.
      *
      * @return  memories  This Player's memories
      **/
-    ArrayList<Float> getMemories(){
-	return memories;
+    float[] getMemories(){
+
+	float[] ordered = new float[memory_span];
+	for (int i = 0; i < memory_span; i++){
+	    ordered[i] = memories[(head + i) % memory_span];
+	}
+	return ordered;
+    }
+
+    /**
+     * setMemories replaces this Player's memories with the given
+     * values, oldest first.
+     *
+     * @param  ordered  the new memories, memory_span of them
+     **/
+    void setMemories(float[] ordered){
+
+	System.arraycopy(ordered, 0, memories, 0, memory_span);
+	head = 0;
+	resum();
+    }
+
+    /**
+     * resum recomputes the memory sums from scratch, which throws
+     * away any rounding error built up by pushMemory.
+     **/
+    private void resum(){
+
+	memory_sum = 0;
+	weighted_memory_sum = 0;
+	for (int i = 0; i < memory_span; i++){
+	    float memory = memories[(head + i) % memory_span];
+	    memory_sum += memory;
+	    weighted_memory_sum += (i+1)*memory;
+	}
     }
 
     /**
@@ -126,12 +166,25 @@ public class Player
      * the player's memory is already full, this will push out the 
      * oldest memory. Just like in real life.
      *
+     * Every memory already held moves down one rank, which takes
+     * memory_sum off the weighted sum, and the new memory comes in
+     * at rank memory_span. This makes a push O(1) however long the
+     * player's memory is.
+     *
      * @param  mem_val  The value representing the memory
      **/
     void pushMemory (float mem_val){
-		
-	Collections.rotate(memories, -1);
-	memories.set( memory_span - 1, mem_val);
+
+	weighted_memory_sum += memory_span*mem_val - memory_sum;
+	memory_sum += mem_val - memories[head];
+
+	memories[head] = mem_val;
+	head = (head + 1) % memory_span;
+
+	// once per trip around the buffer, start the sums over
+	if (head == 0){
+	    resum();
+	}
     }
 
     /**
@@ -140,11 +193,32 @@ public class Player
      * @param  prng  This player's new PRNG
      *
      **/
-    void setPRNG (Random prng){
+    void setPRNG (RandomGenerator prng){
 	this.prng = prng;
     }
 
 
+    /**
+     * getPRNG returns the player's PRNG
+     *
+     * @return  prng  This player's PRNG
+     **/
+    RandomGenerator getPRNG (){
+	return prng;
+    }
+
+
+    /**
+     * getOptimism returns the value this player's memories start
+     * out as before it has played any games.
+     *
+     * @return  optimism  This player's optimism
+     **/
+    float getOptimism (){
+	return optimism;
+    }
+
+
     /**
      * setMisanthropy sets this player's level of misanthropy. 
      * Misanthropy is defined as the a in 
@@ -181,6 +255,17 @@ public class Player
     }
 
 
+    /**
+     * setDecisionFunction chooses how this player evaluates its
+     * decision function. See Sigmoid for the accuracy of each.
+     *
+     * @param  function  Sigmoid.EXACT, Sigmoid.TABLE or Sigmoid.RATIONAL
+     **/
+    void setDecisionFunction (int function){
+	this.decision_function = function;
+    }
+
+
     /**
      * getCertainty returns this player's level of certainty.
      * Certainty is defined as the b in 
@@ -207,7 +292,8 @@ public class Player
 
 	// evaluate this player's decision function at the given point
 	float threshold = 
-	    (float)(1 / (1 + exp(misanthropy  - conditions*certainty)));
+	    Sigmoid.evaluate(decision_function,
+			     misanthropy  - conditions*certainty);
 
 	// run player's random number generator
 	float mood = prng.nextFloat();
@@ -226,18 +312,15 @@ public class Player
      **/
     int getDecision (){
 
-	float conditions = 0;
-
 	// take a weighted average of memories. recent memories
 	// are weighted more heavily.
-	for (int i = 0; i < memory_span; i++){
-	    conditions += (i+1)*memories.get(i);
-	}
-	conditions /= (memory_span*(memory_span + 1)/2);
+	float conditions = (float)
+	    (weighted_memory_sum / (memory_span*(memory_span + 1)/2));
 
 	// evaluate this player's decision function at the given point
 	float threshold = 
-	    (float)(1.0/(1.0 + exp(misanthropy - conditions*certainty)));
+	    Sigmoid.evaluate(decision_function,
+			     misanthropy - conditions*certainty);
 
 	// run player's random number generator
 	float mood = prng.nextFloat();
@@ -257,8 +340,10 @@ public class Player
     void amnesia (float optimism){
 
 	for (int i = 0; i < memory_span; i++){
-	    memories.set (i, optimism);
+	    memories[i] = optimism;
 	}
+	head = 0;
+	resum();
     }
 
 
@@ -266,6 +351,9 @@ public class Player
     /**
      * birth creates a new Player with the same relevant parameters
      * as this Player, with the probability of some small mutation.
+     * The offspring draws from its parent's PRNG rather than getting
+     * one of its own, so a family of players replays exactly from
+     * one seed.
      *
      * @return  offspring  born into a cruel game where the only
      * way to win is not to play, our young heroine steps onto the
@@ -284,13 +372,13 @@ public class Player
 	    
 	    return new Player(  this.total_life, this.misanthropy,
 				mutated_certainty, this.memory_span, 
-				this.optimism, new Random());
+				this.optimism, this.prng);
 	    
 
 	}
 	return new Player( this.total_life, this.misanthropy,
 			   this.certainty, this.memory_span, 
-			   this.optimism, new Random());
+			   this.optimism, this.prng);
     }
     
     public static void main (String args[]){
@@ -340,25 +428,25 @@ public class Player
 
 	System.out.printf( "Memories: \n");
 	for (int i = 0; i < player1.getMemory(); i++ ){
-	    System.out.printf( "%d : %.2f \n", i, player1.getMemories().get(i));
+	    System.out.printf( "%d : %.2f \n", i, player1.getMemories()[i]);
 	}
 
 	player1.pushMemory((float)3.33);
 	System.out.printf( "Memories: \n");
 	for (int i = 0; i < player1.getMemory(); i++ ){
-	    System.out.printf( "%d : %.2f \n", i, player1.getMemories().get(i));
+	    System.out.printf( "%d : %.2f \n", i, player1.getMemories()[i]);
 	}
 
 	player1.pushMemory((float)2.22);
 	System.out.printf( "Memories: \n");
 	for (int i = 0; i < player1.getMemory(); i++ ){
-	    System.out.printf( "%d : %.2f \n", i, player1.getMemories().get(i));
+	    System.out.printf( "%d : %.2f \n", i, player1.getMemories()[i]);
 	}
 
 	player1.pushMemory((float)1.11);
 	System.out.printf( "Memories: \n");
 	for (int i = 0; i < player1.getMemory(); i++ ){
-	    System.out.printf( "%d : %.2f \n", i, player1.getMemories().get(i));
+	    System.out.printf( "%d : %.2f \n", i, player1.getMemories()[i]);
 	}
     }
 }
@@ -0,0 +1,34 @@
+// A PopulationGenerator decides the certainties a trial starts
+// with. Boards are filled in chunks of consecutive players, which
+// can be filled at the same time, so a generator must fill a chunk
+// from nothing but the chunk's own PRNG and the board's seed.
+//
+// See Populations for the generators there are, and for generate,
+// which fills a whole board.
+//
+// @version 17-Oct-2026
+//
+import java.util.SplittableRandom;
+
+interface PopulationGenerator {
+
+    /**
+     * fill sets the certainties of the players from index from up
+     * to, but not including, index to. The player in column i, row j
+     * of a board with m rows is at index i*m + j.
+     *
+     * @param  certainties  the certainties of the whole board
+     * @param  from  the first player of the chunk
+     * @param  to  one past the last player of the chunk
+     * @param  board_seed  the same for every chunk of the board, for
+     * choices that span chunks
+     * @param  prng  the chunk's own PRNG
+     **/
+    void fill (float[] certainties, int from, int to, long board_seed,
+	       SplittableRandom prng);
+
+    /**
+     * description returns what PDTrials prints about this population
+     **/
+    String description ();
+}
@@ -0,0 +1,392 @@
+// Populations holds the PopulationGenerators trials can start from,
+// and generate, which fills a board's certainties with one of them.
+//
+// The populations PDTrials has always had:
+//   uniform   certainties uniformly random between 1.0 and 2.0
+//   largeb    uniform, then deviant_ratio*players draws of a random
+//             player, with replacement, who gets a certainty between
+//             2.5 and 3.5
+//   smallb    the same, with deviant certainties between 0.0 and 1.0
+//   diverse   uniform, then 2*deviant_ratio*players distinct players
+//             get deviant certainties, half large and half small
+//   bimodal   every player is a deviant, half large and half small
+// and some new ones:
+//   gaussian  normally distributed certainties, mean 1.5 and standard
+//             deviation 0.25, cut off at 0
+//   clustered uniform, but the board is cut into square tiles and
+//             2*deviant_ratio of the tiles are deviant clusters,
+//             half large and half small
+//   file      certainties read from a text file, one per player
+//
+// Deviants are drawn within each chunk, in proportion to its size,
+// rather than over the whole board at once.
+//
+// @version 17-Oct-2026
+//
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+class Populations {
+
+    static final String[] NAMES = { "uniform", "largeb", "smallb",
+				    "diverse", "bimodal", "gaussian",
+				    "clustered" };
+
+    // players per chunk
+    static final int CHUNK = 1 << 16;
+
+    // the side of a cluster, in players
+    static final int TILE = 10;
+
+    private Populations (){
+    }
+
+
+    /**
+     * named returns the generator with the given name. A name of
+     * the form file:path reads the certainties from path.
+     *
+     * @param  name  one of NAMES, or file:path
+     * @param  m  the number of rows of the boards to fill
+     * @param  n  the number of columns
+     * @param  deviant_ratio  the proportion of deviants, for the
+     * populations that have them
+     *
+     * @return  the generator
+     **/
+    static PopulationGenerator named (String name, int m, int n,
+				      float deviant_ratio) throws IOException {
+
+	if (name.equals("uniform")){
+	    return new Uniform();
+	}
+	else if (name.equals("largeb")){
+	    return new Deviants(deviant_ratio, (float)2.5,
+				String.format("%.3f very large certainty values \n",
+					      deviant_ratio));
+	}
+	else if (name.equals("smallb")){
+	    return new Deviants(deviant_ratio, (float)0.0,
+				String.format("%.3f very small certainty values \n",
+					      deviant_ratio));
+	}
+	else if (name.equals("diverse")){
+	    return new Diverse(2*deviant_ratio,
+			       "Some very large certainty values, some small. \n\\\\");
+	}
+	else if (name.equals("bimodal")){
+	    return new Diverse(1,
+			       "All certainty values are very large or very small. \n\\\\");
+	}
+	else if (name.equals("gaussian")){
+	    return new Gaussian((float)1.5, (float)0.25);
+	}
+	else if (name.equals("clustered")){
+	    return new Clustered(m, 2*deviant_ratio);
+	}
+	else if (name.startsWith("file:")){
+	    return new FromFile(Path.of(name.substring(5)), m*n);
+	}
+	throw new IllegalArgumentException("unknown population " + name);
+    }
+
+
+    /**
+     * generate fills a board's certainties with the given
+     * generator. The board is cut into chunks of CHUNK players, each
+     * with its own PRNG split off the trial's PRNG in chunk order,
+     * and the chunks are filled in parallel on the common pool. The
+     * certainties only depend on the trial's PRNG, not on how the
+     * chunks are scheduled.
+     *
+     * @param  generator  the population
+     * @param  certainties  the array to fill
+     * @param  prng  the trial's PRNG
+     **/
+    static void generate (PopulationGenerator generator, float[] certainties,
+			  SplittableRandom prng){
+
+	long board_seed = prng.nextLong();
+	int chunks = (certainties.length + CHUNK - 1) / CHUNK;
+
+	SplittableRandom[] chunk_prngs = new SplittableRandom[chunks];
+	for (int k = 0; k < chunks; k++ ){
+	    chunk_prngs[k] = prng.split();
+	}
+
+	if (chunks == 1){
+	    generator.fill(certainties, 0, certainties.length, board_seed,
+			   chunk_prngs[0]);
+	    return;
+	}
+	ForkJoinPool.commonPool().invoke
+	    (new Chunks(generator, certainties, board_seed, chunk_prngs,
+			0, chunks));
+    }
+
+
+    /**
+     * Chunks fills a range of chunks, splitting the range in half
+     * until each task has one chunk.
+     **/
+    private static class Chunks extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private PopulationGenerator generator;
+	private float[] certainties;
+	private long board_seed;
+	private SplittableRandom[] chunk_prngs;
+	private int first;
+	private int last;
+
+	Chunks (PopulationGenerator generator, float[] certainties,
+		long board_seed, SplittableRandom[] chunk_prngs,
+		int first, int last){
+	    this.generator = generator;
+	    this.certainties = certainties;
+	    this.board_seed = board_seed;
+	    this.chunk_prngs = chunk_prngs;
+	    this.first = first;
+	    this.last = last;
+	}
+
+	protected void compute (){
+
+	    if (last - first == 1){
+		int from = first*CHUNK;
+		int to = Math.min(from + CHUNK, certainties.length);
+		generator.fill(certainties, from, to, board_seed,
+			       chunk_prngs[first]);
+		return;
+	    }
+	    int middle = (first + last) / 2;
+	    invokeAll(new Chunks(generator, certainties, board_seed,
+				 chunk_prngs, first, middle),
+		      new Chunks(generator, certainties, board_seed,
+				 chunk_prngs, middle, last));
+	}
+    }
+
+
+    /**
+     * share returns how many of count things spread evenly over a
+     * board fall in the chunk from from to to. The shares of all the
+     * chunks add up to count.
+     **/
+    private static int share (double proportion, int from, int to){
+	return (int)(proportion*to) - (int)(proportion*from);
+    }
+
+
+    /**
+     * mix scrambles the bits of x, as SplittableRandom does its seeds
+     **/
+    private static long mix (long x){
+	x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+	x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+	return x ^ (x >>> 31);
+    }
+
+
+    /**
+     * uniform fills a chunk with certainties uniformly random
+     * between 1.0 and 2.0
+     **/
+    private static void uniform (float[] certainties, int from, int to,
+				 SplittableRandom prng){
+	for (int c = from; c < to; c++ ){
+	    certainties[c] = prng.nextFloat() + (float)1.0;
+	}
+    }
+
+
+    private static class Uniform implements PopulationGenerator {
+
+	public void fill (float[] certainties, int from, int to,
+			  long board_seed, SplittableRandom prng){
+	    uniform(certainties, from, to, prng);
+	}
+
+	public String description (){
+	    return "Certainties ranging from .5 to 1.5, uniformly distributed \n\\\\";
+	}
+    }
+
+
+    // largeb and smallb
+    private static class Deviants implements PopulationGenerator {
+
+	private float ratio;
+	private float offset;
+	private String description;
+
+	Deviants (float ratio, float offset, String description){
+	    this.ratio = ratio;
+	    this.offset = offset;
+	    this.description = description;
+	}
+
+	public void fill (float[] certainties, int from, int to,
+			  long board_seed, SplittableRandom prng){
+
+	    uniform(certainties, from, to, prng);
+
+	    // deviants are drawn with replacement, as they always were
+	    int num_deviants = share(ratio, from, to);
+	    for (int k = 0; k < num_deviants; k++ ){
+		int c = from + prng.nextInt(to - from);
+		certainties[c] = prng.nextFloat() + offset;
+	    }
+	}
+
+	public String description (){
+	    return description;
+	}
+    }
+
+
+    // diverse and bimodal
+    private static class Diverse implements PopulationGenerator {
+
+	private float ratio;
+	private String description;
+
+	Diverse (float ratio, String description){
+	    this.ratio = ratio;
+	    this.description = description;
+	}
+
+	public void fill (float[] certainties, int from, int to,
+			  long board_seed, SplittableRandom prng){
+
+	    if (ratio < 1){
+		uniform(certainties, from, to, prng);
+	    }
+
+	    // pick distinct deviants with a partial Fisher-Yates
+	    // shuffle of the chunk's indices, and make them large
+	    // and small in turn
+	    int size = to - from;
+	    int num_deviants = share(ratio, from, to);
+	    int[] order = new int[size];
+	    for (int k = 0; k < size; k++ ){
+		order[k] = from + k;
+	    }
+
+	    for (int k = 0; k < num_deviants; k++ ){
+
+		int swap = k + prng.nextInt(size - k);
+		int c = order[swap];
+		order[swap] = order[k];
+		order[k] = c;
+
+		certainties[c] = (k % 2 == 0)
+		    ? prng.nextFloat() + (float)2.5 : prng.nextFloat();
+	    }
+	}
+
+	public String description (){
+	    return description;
+	}
+    }
+
+
+    private static class Gaussian implements PopulationGenerator {
+
+	private float mean;
+	private float deviation;
+
+	Gaussian (float mean, float deviation){
+	    this.mean = mean;
+	    this.deviation = deviation;
+	}
+
+	public void fill (float[] certainties, int from, int to,
+			  long board_seed, SplittableRandom prng){
+	    for (int c = from; c < to; c++ ){
+		certainties[c] = Math.max
+		    (0, (float)prng.nextGaussian(mean, deviation));
+	    }
+	}
+
+	public String description (){
+	    return String.format("Normally distributed certainties, mean %.2f, standard deviation %.2f \n\\\\",
+				 mean, deviation);
+	}
+    }
+
+
+    private static class Clustered implements PopulationGenerator {
+
+	private int m;
+	private float ratio;
+
+	Clustered (int m, float ratio){
+	    this.m = m;
+	    this.ratio = ratio;
+	}
+
+	public void fill (float[] certainties, int from, int to,
+			  long board_seed, SplittableRandom prng){
+
+	    for (int c = from; c < to; c++ ){
+
+		// every player of a tile sees the same draw for it,
+		// whichever chunk it is in
+		long tile = ((long)(c / m / TILE) << 32) | ((c % m) / TILE);
+		double draw = (mix(board_seed + tile) >>> 11) * 0x1.0p-53;
+
+		float offset = (float)1.0;
+		if (draw < ratio/2){
+		    offset = (float)2.5;
+		}
+		else if (draw < ratio){
+		    offset = (float)0.0;
+		}
+		certainties[c] = prng.nextFloat() + offset;
+	    }
+	}
+
+	public String description (){
+	    return String.format("Clusters of very large and very small certainty values, %dx%d \n\\\\",
+				 TILE, TILE);
+	}
+    }
+
+
+    private static class FromFile implements PopulationGenerator {
+
+	private Path path;
+	private float[] loaded;
+
+	FromFile (Path path, int players) throws IOException {
+
+	    this.path = path;
+	    String[] words =
+		Files.readString(path).trim().split("[\\s,]+");
+	    if (words.length != players){
+		throw new IllegalArgumentException
+		    (path + " has " + words.length + " certainties, not "
+		     + players);
+	    }
+	    loaded = new float[players];
+	    for (int c = 0; c < players; c++ ){
+		loaded[c] = Float.parseFloat(words[c]);
+	    }
+	}
+
+	public void fill (float[] certainties, int from, int to,
+			  long board_seed, SplittableRandom prng){
+	    System.arraycopy(loaded, from, certainties, from, to - from);
+	}
+
+	public String description (){
+	    return "Certainties from " + path + " \n\\\\";
+	}
+    }
+}
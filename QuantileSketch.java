@@ -0,0 +1,221 @@
+// QuantileSketch summarizes a stream of values well enough to give
+// any quantile of them to within a small relative error, in space
+// that grows with the log of the range of the values rather than
+// with their number. The sketches of two streams merge into the
+// sketch of both, so every thread can keep its own and they can be
+// combined whenever an answer is wanted.
+//
+// Values are counted in buckets whose bounds grow geometrically by
+// GAMMA = (1 + ACCURACY)/(1 - ACCURACY). Bucket k counts the
+// values in (GAMMA^(k-1), GAMMA^k], and a quantile that falls in
+// it is reported as 2 GAMMA^k / (GAMMA + 1), which is within
+// ACCURACY of every value in the bucket. Negative values are
+// counted the same way by their magnitude, and values closer to 0
+// than SMALLEST are counted as 0. This is the DDSketch of Masson,
+// Rim and Lee.
+//
+// A sketch is not safe for several threads at once; see TrialStats
+// for how they are shared.
+//
+// @version 17-Oct-2026
+//
+public class QuantileSketch {
+
+    // the relative error of every quantile
+    static final double ACCURACY = 0.001;
+    static final double GAMMA = (1 + ACCURACY)/(1 - ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    // magnitudes below this are counted as 0, which bounds the
+    // number of buckets
+    static final double SMALLEST = 1e-9;
+
+    private Buckets positive = new Buckets();
+    private Buckets negative = new Buckets();
+    private long zeros;
+    private long count;
+
+
+    /**
+     * add counts a value. NaN is ignored.
+     *
+     * @param  value  the value
+     **/
+    void add (double value){
+
+	if (Double.isNaN(value)){
+	    return;
+	}
+	if (value >= SMALLEST){
+	    positive.add(index(value), 1);
+	}
+	else if (value <= -SMALLEST){
+	    negative.add(index(-value), 1);
+	}
+	else {
+	    zeros++;
+	}
+	count++;
+    }
+
+
+    /**
+     * merge adds every value counted by another sketch to this one.
+     *
+     * @param  other  the other sketch. It is left as it was
+     **/
+    void merge (QuantileSketch other){
+
+	positive.merge(other.positive);
+	negative.merge(other.negative);
+	zeros += other.zeros;
+	count += other.count;
+    }
+
+
+    /**
+     * count returns the number of values counted
+     **/
+    long count (){
+	return count;
+    }
+
+
+    /**
+     * quantile returns the q quantile of the counted values, to
+     * within ACCURACY of the exact answer. It is Hyndman and Fan's
+     * definition 7, the default of R and numpy: with n values
+     * sorted from x_0 to x_(n-1), the quantile is x_h for h =
+     * q*(n - 1), interpolated linearly between the values on either
+     * side when h is not a whole number. The median of two values
+     * is their mean.
+     *
+     * @param  q  the fraction, from 0 for the smallest value to 1
+     * for the largest
+     *
+     * @return  the quantile, or NaN if nothing has been counted
+     **/
+    double quantile (double q){
+
+	if (count == 0){
+	    return Double.NaN;
+	}
+	double h = Math.max(0, Math.min(1, q)) * (count - 1);
+	long below = (long)Math.floor(h);
+	double lower = ranked(below);
+
+	if (h == below){
+	    return lower;
+	}
+	return lower + (h - below)*(ranked(below + 1) - lower);
+    }
+
+
+    /**
+     * ranked returns the value of the given rank, from 0 for the
+     * smallest counted value to count - 1 for the largest
+     **/
+    private double ranked (long rank){
+
+	// the negative values, the largest magnitudes first
+	for (int k = negative.counts.length - 1; k >= 0; k-- ){
+	    rank -= negative.counts[k];
+	    if (rank < 0){
+		return -value(negative.offset + k);
+	    }
+	}
+
+	rank -= zeros;
+	if (rank < 0){
+	    return 0;
+	}
+
+	for (int k = 0; k < positive.counts.length; k++ ){
+	    rank -= positive.counts[k];
+	    if (rank < 0){
+		return value(positive.offset + k);
+	    }
+	}
+	return value(positive.offset + positive.counts.length - 1);
+    }
+
+
+    /**
+     * index returns the bucket of a positive magnitude
+     **/
+    private static int index (double magnitude){
+	return (int)Math.ceil(Math.log(magnitude) / LOG_GAMMA);
+    }
+
+    /**
+     * value returns the magnitude that stands for a bucket
+     **/
+    private static double value (int index){
+	return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+
+    /**
+     * Buckets counts the values of one sign in a dense array,
+     * counts[k] being bucket offset + k, that grows to cover the
+     * buckets used.
+     **/
+    private static class Buckets {
+
+	int[] counts = new int[0];
+	int offset;
+
+	void add (int index, int n){
+
+	    if (counts.length == 0){
+		counts = new int[1];
+		offset = index;
+	    }
+	    else if (index < offset || index >= offset + counts.length){
+		cover(Math.min(index, offset),
+		      Math.max(index, offset + counts.length - 1));
+	    }
+	    counts[index - offset] += n;
+	}
+
+	void merge (Buckets other){
+
+	    if (other.counts.length == 0){
+		return;
+	    }
+	    if (counts.length == 0){
+		counts = other.counts.clone();
+		offset = other.offset;
+		return;
+	    }
+	    cover(Math.min(offset, other.offset),
+		  Math.max(offset + counts.length,
+			   other.offset + other.counts.length) - 1);
+	    for (int k = 0; k < other.counts.length; k++ ){
+		counts[other.offset + k - offset] += other.counts[k];
+	    }
+	}
+
+	// grows counts to cover buckets first to last, with room to
+	// spare on the side that grew so a drifting stream does not
+	// copy on every new bucket
+	private void cover (int first, int last){
+
+	    if (first >= offset && last < offset + counts.length){
+		return;
+	    }
+	    int spare = counts.length / 2;
+	    if (first < offset){
+		first -= spare;
+	    }
+	    if (last >= offset + counts.length){
+		last += spare;
+	    }
+
+	    int[] grown = new int[last - first + 1];
+	    System.arraycopy(counts, 0, grown, offset - first, counts.length);
+	    counts = grown;
+	    offset = first;
+	}
+    }
+}
@@ -0,0 +1,371 @@
+// Recorder streams a time series of a Board to a binary file: one
+// record of summary statistics per round and, every grid_every
+// rounds, a record holding every player's certainty. Records are
+// gathered in a direct buffer and written through a FileChannel a
+// megabyte at a time, so a long run on a big board is logged
+// without going through stdout.
+//
+// A recording is a sequence of records. Every record is an int
+// length, counting the bytes after it, followed by a one byte type
+// and its payload. All numbers are big endian.
+//
+//   HEADER  int magic, int version, int width, int height,
+//           int memory span, int grid_every
+//   ROUND   int round, float mean, float median, float min,
+//           float max certainty, int deaths, float cooperation rate
+//   GRID    int round, width*height float certainties, in board
+//           index order (column i, row j at i*height + j)
+//
+// A run resumed from a Checkpoint reopens its recording instead of
+// starting a new one. The header must be that of the same board and
+// grid_every, and the rounds recorded after the checkpoint's last
+// round are cut off, so the rounds played again are recorded once.
+//
+// Running main on a recording prints it as tab separated text.
+//
+// @version 17-Oct-2026
+//
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class Recorder implements Closeable {
+
+    static final int MAGIC = 0x50445243;    // "PDRC"
+    static final int VERSION = 1;
+
+    // record types
+    static final byte HEADER = 0;
+    static final byte ROUND = 1;
+    static final byte GRID = 2;
+
+    private static final int HEADER_LENGTH = 1 + 6*4;
+    private static final int ROUND_LENGTH = 1 + 7*4;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private Board board;
+    private int grid_every;
+
+
+    /**
+     * Recorder creates, or truncates, the file at the given path
+     * and writes a header for the given board to it.
+     *
+     * @param  path  the file to record to
+     * @param  board  the board to record
+     * @param  grid_every  record the certainty grid every this many
+     * rounds. 0 to never record it
+     **/
+    public Recorder (Path path, Board board, int grid_every)
+	throws IOException {
+
+	this(path, board, grid_every, 0);
+    }
+
+    /**
+     * Recorder records a board that starts from the given round. If
+     * it is round 0, or there is no recording at the given path yet,
+     * this is the constructor above. Otherwise the recording is
+     * reopened to go on from the given round, as a run resumed from
+     * a checkpoint does: it must be a recording of a board of the
+     * same size and memory span, with the same grid_every, and hold
+     * every round before the given one. Anything recorded from the
+     * given round on is cut off.
+     *
+     * @param  path  the file to record to
+     * @param  board  the board to record
+     * @param  grid_every  record the certainty grid every this many
+     * rounds. 0 to never record it
+     * @param  start  the first round to be recorded
+     **/
+    public Recorder (Path path, Board board, int grid_every, int start)
+	throws IOException {
+
+	this.board = board;
+	this.grid_every = grid_every;
+	buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	if (start > 0 && Files.exists(path) && Files.size(path) > 0){
+
+	    long end = resumeAt(path, board, grid_every, start);
+	    try (FileChannel cut =
+		 FileChannel.open(path, StandardOpenOption.WRITE)){
+		cut.truncate(end);
+	    }
+	    channel = FileChannel.open(path, StandardOpenOption.WRITE,
+				       StandardOpenOption.APPEND);
+	    return;
+	}
+
+	channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				   StandardOpenOption.WRITE,
+				   StandardOpenOption.TRUNCATE_EXISTING);
+
+	buffer.putInt(HEADER_LENGTH);
+	buffer.put(HEADER);
+	buffer.putInt(MAGIC);
+	buffer.putInt(VERSION);
+	buffer.putInt(board.getWidth());
+	buffer.putInt(board.getHeight());
+	buffer.putInt(board.getMemorySpan());
+	buffer.putInt(grid_every);
+    }
+
+    /**
+     * resumeAt checks that a recording is one of the given board
+     * that holds every round before the given one, and finds where
+     * that round's records begin. A record the recording ends in
+     * the middle of is treated as the end.
+     *
+     * @param  path  the recording
+     * @param  board  the board to record
+     * @param  grid_every  the grid_every to record with
+     * @param  start  the first round to be recorded
+     *
+     * @return  the length of the recording up to round start
+     **/
+    private static long resumeAt (Path path, Board board, int grid_every,
+				  int start) throws IOException {
+
+	try (FileChannel channel = FileChannel.open(path)){
+
+	    ByteBuffer buffer = ByteBuffer.allocate(4 + HEADER_LENGTH);
+	    if (channel.size() < 4 + HEADER_LENGTH
+		|| !read(channel, buffer, 4 + HEADER_LENGTH)
+		|| buffer.getInt() != HEADER_LENGTH
+		|| buffer.get() != HEADER || buffer.getInt() != MAGIC
+		|| buffer.getInt() != VERSION){
+		throw new IOException(path + " is not a recording");
+	    }
+	    if (buffer.getInt() != board.getWidth()
+		|| buffer.getInt() != board.getHeight()
+		|| buffer.getInt() != board.getMemorySpan()
+		|| buffer.getInt() != grid_every){
+		throw new IOException(path + " records a different board"
+				      + " or grid_every");
+	    }
+
+	    // every record after the header starts with its round
+	    long size = channel.size();
+	    long end = channel.position();
+	    int last = -1;
+	    while (end + 4 + 1 + 4 <= size){
+
+		read(channel, buffer, 4 + 1 + 4);
+		int length = buffer.getInt();
+		byte type = buffer.get();
+		int round = buffer.getInt();
+		if (end + 4 + length > size || round >= start){
+		    break;
+		}
+		if (type == ROUND){
+		    last = round;
+		}
+		end += 4 + length;
+		channel.position(end);
+	    }
+
+	    if (last != start - 1){
+		throw new IOException(path + " ends at round " + last
+				      + ", not " + (start - 1));
+	    }
+	    return end;
+	}
+    }
+
+
+    /**
+     * record appends the statistics of the round the board has just
+     * played, and its certainty grid if this is one of the rounds
+     * the grid is recorded on. Call it after each Board.round().
+     *
+     * @param  round  the number of the round just played
+     **/
+    void record (int round) throws IOException {
+
+	float[] stats = board.getSummaryStats();
+
+	ensure(4 + ROUND_LENGTH);
+	buffer.putInt(ROUND_LENGTH);
+	buffer.put(ROUND);
+	buffer.putInt(round);
+	buffer.putFloat(stats[0]);
+	buffer.putFloat(stats[1]);
+	buffer.putFloat(stats[3]);
+	buffer.putFloat(stats[2]);
+	buffer.putInt(board.getDeaths());
+	buffer.putFloat(board.getCooperationRate());
+
+	if (grid_every > 0 && round % grid_every == 0){
+	    recordGrid(round);
+	}
+    }
+
+
+    /**
+     * recordGrid appends every player's certainty. The grid can be
+     * bigger than the buffer, so it goes out a buffer at a time.
+     *
+     * @param  round  the number of the round just played
+     **/
+    private void recordGrid (int round) throws IOException {
+
+	int num_cells = board.getWidth() * board.getHeight();
+
+	ensure(4 + 1 + 4);
+	buffer.putInt(1 + 4 + 4*num_cells);
+	buffer.put(GRID);
+	buffer.putInt(round);
+
+	int next = 0;
+	while (next < num_cells){
+
+	    if (buffer.remaining() < 4){
+		flush();
+	    }
+	    FloatBuffer floats = buffer.asFloatBuffer();
+	    next = board.putCertainties(floats, next);
+	    buffer.position(buffer.position() + 4*floats.position());
+	}
+    }
+
+
+    /**
+     * ensure makes room in the buffer for the given number of bytes.
+     *
+     * @param  bytes  how many bytes are about to be put
+     **/
+    private void ensure (int bytes) throws IOException {
+
+	if (buffer.remaining() < bytes){
+	    flush();
+	}
+    }
+
+
+    /**
+     * flush writes everything in the buffer to the file.
+     **/
+    void flush () throws IOException {
+
+	buffer.flip();
+	while (buffer.hasRemaining()){
+	    channel.write(buffer);
+	}
+	buffer.clear();
+    }
+
+
+    /**
+     * close flushes the buffer and closes the file.
+     **/
+    public void close () throws IOException {
+
+	if (channel.isOpen()){
+	    flush();
+	    channel.close();
+	}
+    }
+
+
+    /**
+     * read fills the buffer with exactly the given number of bytes
+     * from the channel, ready to be read.
+     *
+     * @param  channel  the recording
+     * @param  buffer  where to put the bytes
+     * @param  bytes  how many bytes to read
+     *
+     * @return  false if the recording ended before the first byte
+     **/
+    private static boolean read (FileChannel channel, ByteBuffer buffer,
+				 int bytes) throws IOException {
+
+	buffer.clear();
+	buffer.limit(bytes);
+	while (buffer.hasRemaining()){
+	    if (channel.read(buffer) < 0){
+		if (buffer.position() == 0){
+		    return false;
+		}
+		throw new EOFException("recording ends mid record");
+	    }
+	}
+	buffer.flip();
+	return true;
+    }
+
+
+    public static void main (String args[]) throws IOException {
+
+	if (args.length != 1){
+	    System.err.println("usage: java Recorder recording");
+	    System.exit(1);
+	}
+
+	FileChannel channel = FileChannel.open(Paths.get(args[0]));
+	ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	int height = 0;
+
+	try {
+	    while (read(channel, buffer, 4)){
+
+		int length = buffer.getInt();
+		if (length > buffer.capacity()){
+		    buffer = ByteBuffer.allocate(length);
+		}
+		read(channel, buffer, length);
+
+		byte type = buffer.get();
+		if (type == HEADER){
+
+		    if (buffer.getInt() != MAGIC){
+			throw new IOException("not a recording");
+		    }
+		    int version = buffer.getInt();
+		    int width = buffer.getInt();
+		    height = buffer.getInt();
+		    System.out.printf("# version %d, %d x %d, memory span %d, grid every %d rounds \n",
+				      version, width, height, buffer.getInt(),
+				      buffer.getInt());
+		    System.out.println("round\tmean\tmedian\tmin\tmax\tdeaths\tcooperation");
+		}
+		else if (type == ROUND){
+		    System.out.printf("%d\t%.4f\t%.4f\t%.4f\t%.4f\t%d\t%.4f \n",
+				      buffer.getInt(), buffer.getFloat(),
+				      buffer.getFloat(), buffer.getFloat(),
+				      buffer.getFloat(), buffer.getInt(),
+				      buffer.getFloat());
+		}
+		else if (type == GRID){
+
+		    // one line per row, like printBoard
+		    int round = buffer.getInt();
+		    int num_cells = buffer.remaining() / 4;
+		    System.out.printf("# certainties after round %d \n", round);
+		    for (int j = 0; j < height; j++ ){
+			StringBuilder row = new StringBuilder("#");
+			for (int c = j; c < num_cells; c += height ){
+			    row.append(' ');
+			    row.append(buffer.getFloat(buffer.position() + 4*c));
+			}
+			System.out.println(row.toString());
+		    }
+		}
+	    }
+	}
+	finally {
+	    channel.close();
+	}
+    }
+}
@@ -0,0 +1,875 @@
+// ResultStore keeps the results of trials in one append-only
+// columnar file: every trial's start and end statistics together with
+// every parameter it was played with and its seed, so a results file
+// says everything about how it was made and can be read back without
+// parsing text.
+//
+// A store is a schema header followed by blocks of rows. Within a
+// block the rows are stored column by column, so reading one column
+// of a store reads only that column's part of each block, and the
+// other columns are skipped without being looked at. All numbers are
+// big endian.
+//
+//   header  int magic, int version, int number of columns, then for
+//           each column a byte type, a short name length and the
+//           name in UTF-8
+//   block   int rows, an int byte length for each column, then each
+//           column's values for those rows
+//
+// INT, FLOAT and LONG values take 4, 4 and 8 bytes, and a STRING is
+// a short length followed by its UTF-8 bytes. Rows are added to a
+// buffer and written, and forced to disk, a block at a time, so a
+// store that is appended to after a crash only loses the block that
+// was being written, which is cut off when the store is opened
+// again.
+//
+// TRIAL_NAMES and TRIAL_TYPES are the columns PDTrials and Sweep
+// write with addTrial, one row per trial. importDat reads the printed summaries of old runs,
+// the .dat files, into the same columns: one row per population,
+// holding the averages of an unknown number of trials, with the
+// parameters that can be read from the file's name and NaN or -1 for
+// those that can not.
+//
+// Running main imports .dat files, lists a store's columns or prints
+// some of its columns as tab separated text.
+//
+// @version 17-Oct-2026
+//
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ResultStore implements Closeable {
+
+    static final int MAGIC = 0x50445253;    // "PDRS"
+    static final int VERSION = 1;
+
+    // column types
+    static final byte INT = 0;
+    static final byte FLOAT = 1;
+    static final byte LONG = 2;
+    static final byte STRING = 3;
+
+    // rows per block
+    static final int BLOCK_ROWS = 4096;
+
+    // the columns of a trial. source names what wrote the row, and
+    // trials is how many trials it averages: 1 for a trial played
+    // by PDTrials or Sweep, 0 for an average imported from a .dat
+    // file. The PRNG of a PDTrials trial is split number trial of a
+    // SplittableRandom seeded with seed. That of a Sweep trial is a
+    // SplittableRandom seeded with seed, and trial is its number
+    // among the trials of its config and population
+    static final String[] TRIAL_NAMES = {
+	"source", "population", "trials", "seed", "trial",
+	"rows", "columns", "rounds", "life_points", "time_horizon",
+	"space_horizon", "neighborhood", "decision_function",
+	"misanthropy", "optimism", "deviant_ratio",
+	"convergence_window", "convergence_tolerance",
+	"start_mean", "start_median", "start_max", "start_min",
+	"start_above_median",
+	"end_mean", "end_median", "end_max", "end_min",
+	"end_above_start_median", "end_above_start_mean",
+	"rounds_played", "converged_round" };
+    static final byte[] TRIAL_TYPES = {
+	STRING, STRING, INT, LONG, INT,
+	INT, INT, INT, INT, INT,
+	INT, INT, INT,
+	FLOAT, FLOAT, FLOAT,
+	INT, FLOAT,
+	FLOAT, FLOAT, FLOAT, FLOAT,
+	FLOAT,
+	FLOAT, FLOAT, FLOAT, FLOAT,
+	FLOAT, FLOAT,
+	INT, INT };
+
+    private String[] names;
+    private byte[] types;
+    private FileChannel channel;
+
+    // the rows not yet written, by column
+    private int rows;
+    private int[][] ints;
+    private float[][] floats;
+    private long[][] longs;
+    private String[][] strings;
+
+
+    /**
+     * ResultStore opens the store at the given path for appending,
+     * creating it with the given columns if it does not exist. An
+     * existing store must have exactly these columns.
+     *
+     * @param  path  the store
+     * @param  names  the names of the columns
+     * @param  types  their types, INT, FLOAT, LONG or STRING
+     **/
+    public ResultStore (Path path, String[] names, byte[] types)
+	throws IOException {
+
+	this.names = names.clone();
+	this.types = types.clone();
+
+	ints = new int[names.length][];
+	floats = new float[names.length][];
+	longs = new long[names.length][];
+	strings = new String[names.length][];
+	for (int c = 0; c < names.length; c++ ){
+	    if (types[c] == INT){
+		ints[c] = new int[BLOCK_ROWS];
+	    }
+	    else if (types[c] == FLOAT){
+		floats[c] = new float[BLOCK_ROWS];
+	    }
+	    else if (types[c] == LONG){
+		longs[c] = new long[BLOCK_ROWS];
+	    }
+	    else if (types[c] == STRING){
+		strings[c] = new String[BLOCK_ROWS];
+	    }
+	    else {
+		throw new IllegalArgumentException("unknown type " + types[c]);
+	    }
+	}
+
+	boolean exists = Files.exists(path) && Files.size(path) > 0;
+	if (exists){
+	    try (Reader reader = new Reader(path)){
+		if (!Arrays.equals(reader.names, names)
+		    || !Arrays.equals(reader.types, types)){
+		    throw new IOException(path + " has different columns");
+		}
+		// cut off a block a crash left unfinished
+		if (reader.end < Files.size(path)){
+		    try (FileChannel cut =
+			 FileChannel.open(path, StandardOpenOption.WRITE)){
+			cut.truncate(reader.end);
+		    }
+		}
+	    }
+	}
+
+	channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				   StandardOpenOption.WRITE,
+				   StandardOpenOption.APPEND);
+	if (!exists){
+	    ByteBuffer header = ByteBuffer.allocate(headerSize(names));
+	    header.putInt(MAGIC);
+	    header.putInt(VERSION);
+	    header.putInt(names.length);
+	    for (int c = 0; c < names.length; c++ ){
+		byte[] name = names[c].getBytes(StandardCharsets.UTF_8);
+		header.put(types[c]);
+		header.putShort((short)name.length);
+		header.put(name);
+	    }
+	    write(header);
+	}
+    }
+
+    /**
+     * ResultStore opens, or creates, a store of trials, with the
+     * columns TRIAL_NAMES
+     *
+     * @param  path  the store
+     **/
+    public ResultStore (Path path) throws IOException {
+	this(path, TRIAL_NAMES, TRIAL_TYPES);
+    }
+
+    private static int headerSize (String[] names){
+
+	int size = 3*4;
+	for (String name : names){
+	    size += 1 + 2 + name.getBytes(StandardCharsets.UTF_8).length;
+	}
+	return size;
+    }
+
+
+    /**
+     * addTrial adds the row of a trial to a store of trials. It is
+     * written with the rest of its block.
+     *
+     * @param  source  what played the trial
+     * @param  population  the population it started from
+     * @param  seed  see TRIAL_NAMES
+     * @param  trial  see TRIAL_NAMES
+     * @param  settings  the parameters it was played with
+     * @param  start  the start statistics, in the order of the
+     * start_ columns
+     * @param  end  the end statistics, in the order of the end_
+     * columns
+     * @param  rounds_played  the rounds it was played for
+     * @param  converged_round  the round it converged at, or -1
+     **/
+    void addTrial (String source, String population, long seed, int trial,
+		   PDTrials settings, float[] start, float[] end,
+		   int rounds_played, int converged_round) throws IOException {
+
+	trialRow(source, population, 1, seed, trial,
+		 settings.m, settings.n, settings.num_rounds,
+		 settings.life_points, settings.time_horizon,
+		 settings.space_horizon, settings.neighborhood,
+		 settings.decision_function,
+		 settings.misanthropy, settings.optimism,
+		 settings.deviant_ratio,
+		 settings.convergence_window, settings.convergence_tolerance,
+		 start, end, rounds_played, converged_round);
+    }
+
+    /**
+     * addAverage adds the row of an average of an unknown number of
+     * trials, of which only the life points, misanthropy and
+     * optimism are known, to a store of trials. The other parameters
+     * are -1 or NaN.
+     *
+     * @param  source  where the average was read from
+     * @param  population  the population the trials started from
+     * @param  life_points  their life points, or -1
+     * @param  misanthropy  their misanthropy, or NaN
+     * @param  optimism  their optimism, or NaN
+     * @param  start  the start statistics, in the order of the
+     * start_ columns
+     * @param  end  the end statistics, in the order of the end_
+     * columns
+     **/
+    void addAverage (String source, String population, int life_points,
+		     float misanthropy, float optimism,
+		     float[] start, float[] end) throws IOException {
+
+	trialRow(source, population, 0, 0L, -1,
+		 -1, -1, -1, life_points, -1,
+		 -1, -1, -1,
+		 misanthropy, optimism, Float.NaN,
+		 0, Float.NaN,
+		 start, end, -1, -1);
+    }
+
+    // the one place that knows the order of TRIAL_NAMES
+    private void trialRow (String source, String population, int trials,
+			   long seed, int trial, int rows, int columns,
+			   int rounds, int life_points, int time_horizon,
+			   int space_horizon, int neighborhood,
+			   int decision_function, float misanthropy,
+			   float optimism, float deviant_ratio,
+			   int convergence_window,
+			   float convergence_tolerance,
+			   float[] start, float[] end,
+			   int rounds_played, int converged_round)
+	throws IOException {
+
+	if (!Arrays.equals(names, TRIAL_NAMES)){
+	    throw new IllegalStateException("not a store of trials");
+	}
+	if (start.length < 5 || end.length < 6){
+	    throw new IllegalArgumentException
+		("a trial has 5 start and 6 end statistics");
+	}
+	add(source, population, trials, seed, trial,
+	    rows, columns, rounds, life_points, time_horizon,
+	    space_horizon, neighborhood, decision_function,
+	    misanthropy, optimism, deviant_ratio,
+	    convergence_window, convergence_tolerance,
+	    start[0], start[1], start[2], start[3], start[4],
+	    end[0], end[1], end[2], end[3], end[4], end[5],
+	    rounds_played, converged_round);
+    }
+
+    /**
+     * add adds a row. It is written with the rest of its block.
+     *
+     * @param  values  the row's value for each column: an Integer,
+     * Float, Long or String as the column's type says. Any Number
+     * will do for a number
+     **/
+    private void add (Object... values) throws IOException {
+
+	if (values.length != names.length){
+	    throw new IllegalArgumentException
+		("a row has " + names.length + " values, not " + values.length);
+	}
+	for (int c = 0; c < names.length; c++ ){
+	    if (types[c] == INT){
+		ints[c][rows] = ((Number)values[c]).intValue();
+	    }
+	    else if (types[c] == FLOAT){
+		floats[c][rows] = ((Number)values[c]).floatValue();
+	    }
+	    else if (types[c] == LONG){
+		longs[c][rows] = ((Number)values[c]).longValue();
+	    }
+	    else {
+		strings[c][rows] = String.valueOf(values[c]);
+	    }
+	}
+	rows++;
+	if (rows == BLOCK_ROWS){
+	    flush();
+	}
+    }
+
+
+    /**
+     * flush writes the rows added since the last block as a block,
+     * and forces it to disk.
+     **/
+    void flush () throws IOException {
+
+	if (rows == 0){
+	    return;
+	}
+
+	int[] lengths = new int[names.length];
+	int size = 4 + 4*names.length;
+	byte[][][] encoded = new byte[names.length][][];
+	for (int c = 0; c < names.length; c++ ){
+
+	    if (types[c] == STRING){
+		encoded[c] = new byte[rows][];
+		for (int r = 0; r < rows; r++ ){
+		    encoded[c][r] = strings[c][r].getBytes(StandardCharsets.UTF_8);
+		    lengths[c] += 2 + encoded[c][r].length;
+		}
+	    }
+	    else {
+		lengths[c] = rows * ((types[c] == LONG) ? 8 : 4);
+	    }
+	    size += lengths[c];
+	}
+
+	ByteBuffer block = ByteBuffer.allocate(size);
+	block.putInt(rows);
+	for (int length : lengths){
+	    block.putInt(length);
+	}
+	for (int c = 0; c < names.length; c++ ){
+	    for (int r = 0; r < rows; r++ ){
+		if (types[c] == INT){
+		    block.putInt(ints[c][r]);
+		}
+		else if (types[c] == FLOAT){
+		    block.putFloat(floats[c][r]);
+		}
+		else if (types[c] == LONG){
+		    block.putLong(longs[c][r]);
+		}
+		else {
+		    block.putShort((short)encoded[c][r].length);
+		    block.put(encoded[c][r]);
+		}
+	    }
+	}
+	write(block);
+	channel.force(false);
+	rows = 0;
+    }
+
+    private void write (ByteBuffer buffer) throws IOException {
+
+	buffer.flip();
+	while (buffer.hasRemaining()){
+	    channel.write(buffer);
+	}
+    }
+
+
+    /**
+     * close writes the last rows and closes the store
+     **/
+    public void close () throws IOException {
+
+	try {
+	    flush();
+	}
+	finally {
+	    channel.close();
+	}
+    }
+
+
+    /**
+     * Reader reads a store one column at a time. Reading a column
+     * reads every block's header and that column's part of it, and
+     * nothing else.
+     **/
+    static class Reader implements Closeable {
+
+	String[] names;
+	byte[] types;
+	private FileChannel channel;
+	private long[] block_starts;    // where each whole block starts
+	private int[] block_rows;
+	private long rows;
+	private long end;               // where the last whole block ends
+
+	/**
+	 * Reader opens a store and finds its blocks.
+	 *
+	 * @param  path  the store
+	 **/
+	Reader (Path path) throws IOException {
+
+	    channel = FileChannel.open(path, StandardOpenOption.READ);
+	    long size = channel.size();
+
+	    ByteBuffer header = read(0, 12);
+	    if (header.getInt() != MAGIC){
+		throw new IOException(path + " is not a result store");
+	    }
+	    if (header.getInt() != VERSION){
+		throw new IOException(path + " is a later version of a result store");
+	    }
+	    names = new String[header.getInt()];
+	    types = new byte[names.length];
+
+	    long position = 12;
+	    for (int c = 0; c < names.length; c++ ){
+		ByteBuffer column = read(position, 3);
+		types[c] = column.get();
+		byte[] name = new byte[column.getShort()];
+		read(position + 3, name.length).get(name);
+		names[c] = new String(name, StandardCharsets.UTF_8);
+		position += 3 + name.length;
+	    }
+
+	    // walk the blocks, stopping at one cut short
+	    ArrayList<Long> starts = new ArrayList<Long>();
+	    ArrayList<Integer> counts = new ArrayList<Integer>();
+	    int block_header = 4 + 4*names.length;
+	    while (position + block_header <= size){
+
+		ByteBuffer block = read(position, block_header);
+		int count = block.getInt();
+		long length = block_header;
+		for (int c = 0; c < names.length; c++ ){
+		    length += block.getInt();
+		}
+		if (position + length > size){
+		    break;
+		}
+		starts.add(position);
+		counts.add(count);
+		rows += count;
+		position += length;
+	    }
+	    end = position;
+
+	    block_starts = new long[starts.size()];
+	    block_rows = new int[starts.size()];
+	    for (int b = 0; b < block_starts.length; b++ ){
+		block_starts[b] = starts.get(b);
+		block_rows[b] = counts.get(b);
+	    }
+	}
+
+	/**
+	 * rows returns the number of rows in the store
+	 **/
+	long rows (){
+	    return rows;
+	}
+
+	/**
+	 * column returns the number of the named column
+	 **/
+	int column (String name){
+
+	    for (int c = 0; c < names.length; c++ ){
+		if (names[c].equals(name)){
+		    return c;
+		}
+	    }
+	    throw new IllegalArgumentException("no column " + name);
+	}
+
+
+	/**
+	 * values returns a number column, every row of it, widened
+	 * to double.
+	 *
+	 * @param  name  the column
+	 **/
+	double[] values (String name) throws IOException {
+
+	    int c = column(name);
+	    if (types[c] == STRING){
+		throw new IllegalArgumentException(name + " is not a number");
+	    }
+	    double[] values = new double[(int)rows];
+	    int r = 0;
+	    for (int b = 0; b < block_starts.length; b++ ){
+
+		ByteBuffer part = part(b, c);
+		for (int k = 0; k < block_rows[b]; k++ ){
+		    if (types[c] == INT){
+			values[r++] = part.getInt();
+		    }
+		    else if (types[c] == FLOAT){
+			values[r++] = part.getFloat();
+		    }
+		    else {
+			values[r++] = part.getLong();
+		    }
+		}
+	    }
+	    return values;
+	}
+
+	/**
+	 * floats returns a FLOAT column
+	 **/
+	float[] floats (String name) throws IOException {
+
+	    int c = typed(name, FLOAT);
+	    float[] values = new float[(int)rows];
+	    int r = 0;
+	    for (int b = 0; b < block_starts.length; b++ ){
+		part(b, c).asFloatBuffer().get(values, r, block_rows[b]);
+		r += block_rows[b];
+	    }
+	    return values;
+	}
+
+	/**
+	 * ints returns an INT column
+	 **/
+	int[] ints (String name) throws IOException {
+
+	    int c = typed(name, INT);
+	    int[] values = new int[(int)rows];
+	    int r = 0;
+	    for (int b = 0; b < block_starts.length; b++ ){
+		part(b, c).asIntBuffer().get(values, r, block_rows[b]);
+		r += block_rows[b];
+	    }
+	    return values;
+	}
+
+	/**
+	 * longs returns a LONG column
+	 **/
+	long[] longs (String name) throws IOException {
+
+	    int c = typed(name, LONG);
+	    long[] values = new long[(int)rows];
+	    int r = 0;
+	    for (int b = 0; b < block_starts.length; b++ ){
+		part(b, c).asLongBuffer().get(values, r, block_rows[b]);
+		r += block_rows[b];
+	    }
+	    return values;
+	}
+
+	/**
+	 * strings returns a STRING column
+	 **/
+	String[] strings (String name) throws IOException {
+
+	    int c = typed(name, STRING);
+	    String[] values = new String[(int)rows];
+	    int r = 0;
+	    for (int b = 0; b < block_starts.length; b++ ){
+
+		ByteBuffer part = part(b, c);
+		for (int k = 0; k < block_rows[b]; k++ ){
+		    byte[] value = new byte[part.getShort()];
+		    part.get(value);
+		    values[r++] = new String(value, StandardCharsets.UTF_8);
+		}
+	    }
+	    return values;
+	}
+
+	private int typed (String name, byte type){
+
+	    int c = column(name);
+	    if (types[c] != type){
+		throw new IllegalArgumentException(name + " is of type "
+						   + types[c] + ", not " + type);
+	    }
+	    return c;
+	}
+
+
+	/**
+	 * part reads column c's part of block b
+	 **/
+	private ByteBuffer part (int b, int c) throws IOException {
+
+	    ByteBuffer lengths = read(block_starts[b] + 4, 4*names.length);
+	    long offset = block_starts[b] + 4 + 4*names.length;
+	    for (int k = 0; k < c; k++ ){
+		offset += lengths.getInt();
+	    }
+	    return read(offset, lengths.getInt());
+	}
+
+	private ByteBuffer read (long position, int length) throws IOException {
+
+	    ByteBuffer buffer = ByteBuffer.allocate(length);
+	    while (buffer.hasRemaining()){
+		if (channel.read(buffer, position + buffer.position()) < 0){
+		    throw new EOFException("result store cut short");
+		}
+	    }
+	    buffer.flip();
+	    return buffer;
+	}
+
+	public void close () throws IOException {
+	    channel.close();
+	}
+    }
+
+
+    // the parameters in a .dat file's name
+    private static final Pattern LIFE_POINTS = Pattern.compile("_(\\d+)lp");
+    private static final Pattern ALTRUISM = Pattern.compile("_alt(\\d+)");
+    private static final Pattern OPTIMISM = Pattern.compile("_opt(\\d+)");
+
+    // the value of a summary line is the first number after its
+    // label, so the +/- half width of a confidence interval that
+    // newer summaries print after it is passed over
+    private static final Pattern VALUE =
+	Pattern.compile(":\\s*(-?[0-9]*\\.?[0-9]+)");
+
+    /**
+     * importDat adds the summaries printed by PDTrials in an old
+     * .dat file to a store of trials, one row per population. The
+     * life points, misanthropy (alt) and optimism (opt) come from
+     * the file's name, as in hobbes_10lp or tolstoy_10lp_alt003_opt003,
+     * where alt003 is an altruism of 0.03, which is a misanthropy
+     * of -0.03.
+     *
+     * @param  dat  the .dat file
+     * @param  store  a store with the columns TRIAL_NAMES
+     *
+     * @return  the number of rows added
+     **/
+    static int importDat (Path dat, ResultStore store) throws IOException {
+
+	String file = dat.getFileName().toString();
+	int life_points = -1;
+	float misanthropy = Float.NaN;
+	float optimism = Float.NaN;
+
+	Matcher matcher = LIFE_POINTS.matcher(file);
+	if (matcher.find()){
+	    life_points = Integer.parseInt(matcher.group(1));
+	}
+	matcher = ALTRUISM.matcher(file);
+	if (matcher.find()){
+	    misanthropy = -fraction(matcher.group(1));
+	}
+	matcher = OPTIMISM.matcher(file);
+	if (matcher.find()){
+	    optimism = fraction(matcher.group(1));
+	}
+
+	// the statistics of one population, in the order of the
+	// start_ and end_ columns of TRIAL_NAMES
+	float[] stats = new float[11];
+	Arrays.fill(stats, Float.NaN);
+	String population = null;
+	int added = 0;
+
+	for (String line : Files.readAllLines(dat)){
+
+	    String text = line.replace("\\\\", "").trim();
+	    Matcher number = VALUE.matcher(text);
+	    float value = number.find() ? Float.parseFloat(number.group(1))
+		: Float.NaN;
+
+	    if (text.isEmpty() || text.startsWith("*")
+		|| text.startsWith("Summary of games")
+		|| text.startsWith("Median")
+		|| text.startsWith("Endstate median quartiles")
+		|| text.startsWith("Trials played")
+		|| text.startsWith("Average rounds played")){
+		// markers, the old skew warnings, and the lines newer
+		// summaries add that no column holds
+		continue;
+	    }
+	    else if (text.startsWith("Average startstate mean")){
+		stats[0] = value;
+	    }
+	    else if (text.startsWith("Average startstate median")){
+		stats[1] = value;
+	    }
+	    else if (text.startsWith("Average startstate max")){
+		stats[2] = value;
+	    }
+	    else if (text.startsWith("Average startstate min")){
+		stats[3] = value;
+	    }
+	    // which, despite what it says, is the proportion at or
+	    // above the starting median
+	    else if (text.startsWith("Starting proportion")){
+		stats[4] = value;
+	    }
+	    else if (text.startsWith("Average endstate mean")){
+		stats[5] = value;
+	    }
+	    else if (text.startsWith("Average endstate median")){
+		stats[6] = value;
+	    }
+	    else if (text.startsWith("Average endstate max")){
+		stats[7] = value;
+	    }
+	    else if (text.startsWith("Average endstate min")){
+		stats[8] = value;
+	    }
+	    else if (text.startsWith("Final")
+		     && text.contains("greater than starting median")){
+		stats[9] = value;
+	    }
+	    else if (text.startsWith("Final")
+		     && text.contains("greater than starting average")){
+		stats[10] = value;
+
+		// the last line of a summary
+		store.addAverage(file, population, life_points,
+				 misanthropy, optimism,
+				 Arrays.copyOfRange(stats, 0, 5),
+				 Arrays.copyOfRange(stats, 5, 11));
+		added++;
+		population = null;
+		Arrays.fill(stats, Float.NaN);
+	    }
+	    // anything else describes the population of the next
+	    // summary, and is repeated before its end state
+	    else if (population == null){
+		population = population(text);
+	    }
+	}
+	return added;
+    }
+
+    /**
+     * fraction reads the digits of a file name as a fraction after
+     * a leading 0: 015 is 0.15 and 002 is 0.02
+     **/
+    private static float fraction (String digits){
+	return Float.parseFloat(digits.substring(0, 1) + "."
+				+ digits.substring(1));
+    }
+
+    /**
+     * population returns the name in Populations.NAMES of the
+     * population an old summary describes, or the description
+     * itself if it is none of them
+     **/
+    private static String population (String description){
+
+	if (description.startsWith("All")){
+	    return "bimodal";
+	}
+	else if (description.startsWith("Some")){
+	    return "diverse";
+	}
+	else if (description.contains("uniformly")){
+	    return "uniform";
+	}
+	else if (description.contains("very large")){
+	    return "largeb";
+	}
+	else if (description.contains("very small")){
+	    return "smallb";
+	}
+	return description;
+    }
+
+
+    public static void main (String args[]) throws IOException {
+
+	String usage = "usage: java ResultStore import store file.dat ...\n"
+	    + "       java ResultStore columns store\n"
+	    + "       java ResultStore print store column ...";
+
+	if (args.length < 2){
+	    System.err.println(usage);
+	    System.exit(1);
+	}
+	Path path = Paths.get(args[1]);
+
+	if (args[0].equals("import")){
+	    try (ResultStore store = new ResultStore(path)){
+		for (int k = 2; k < args.length; k++ ){
+		    int added = importDat(Paths.get(args[k]), store);
+		    System.err.printf("%s: %d populations \n", args[k], added);
+		}
+	    }
+	}
+	else if (args[0].equals("columns")){
+	    try (Reader reader = new Reader(path)){
+		final String[] type_names = { "int", "float", "long", "string" };
+		for (int c = 0; c < reader.names.length; c++ ){
+		    System.out.println(reader.names[c] + "\t"
+				       + type_names[reader.types[c]]);
+		}
+		System.out.println(reader.rows() + " rows");
+	    }
+	}
+	else if (args[0].equals("print")){
+	    try (Reader reader = new Reader(path)){
+
+		List<Object> columns = new ArrayList<Object>();
+		for (int k = 2; k < args.length; k++ ){
+		    byte type = reader.types[reader.column(args[k])];
+		    if (type == INT){
+			columns.add(reader.ints(args[k]));
+		    }
+		    else if (type == FLOAT){
+			columns.add(reader.floats(args[k]));
+		    }
+		    else if (type == LONG){
+			columns.add(reader.longs(args[k]));
+		    }
+		    else {
+			columns.add(reader.strings(args[k]));
+		    }
+		}
+
+		System.out.println(String.join("\t", Arrays.copyOfRange(args, 2, args.length)));
+		for (int r = 0; r < reader.rows(); r++ ){
+		    StringBuilder line = new StringBuilder();
+		    for (int k = 0; k < columns.size(); k++ ){
+
+			Object column = columns.get(k);
+			line.append((k > 0) ? "\t" : "");
+			if (column instanceof int[]){
+			    line.append(((int[])column)[r]);
+			}
+			else if (column instanceof float[]){
+			    line.append(((float[])column)[r]);
+			}
+			else if (column instanceof long[]){
+			    line.append(((long[])column)[r]);
+			}
+			else {
+			    line.append(((String[])column)[r]);
+			}
+		    }
+		    System.out.println(line);
+		}
+	    }
+	}
+	else {
+	    System.err.println(usage);
+	    System.exit(1);
+	}
+    }
+}
@@ -0,0 +1,138 @@
+// SocketTransport connects the bands of a distributed board with TCP
+// sockets. Band k listens on base_port + k, connects to the band
+// below it and is connected to by the band above it, so every pair
+// of neighboring bands shares one connection and each band has two.
+// The bands may be on one machine or on several.
+//
+// An exchange writes and reads both connections at once through a
+// selector, so no band waits on a full socket buffer while its
+// neighbor waits on it.
+//
+// @version 17-Oct-2026
+//
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+public class SocketTransport implements Transport {
+
+    // how long to keep trying to reach the band below, in ms
+    private static final long CONNECT_TIMEOUT = 60000;
+
+    private SocketChannel north;    // to the band above
+    private SocketChannel south;    // to the band below
+    private Selector selector;
+    private SelectionKey north_key;
+    private SelectionKey south_key;
+
+
+    /**
+     * SocketTransport connects band k to its neighbors. Every band
+     * must be started within CONNECT_TIMEOUT of the others.
+     *
+     * @param  band  this band's number, k
+     * @param  bands  the number of bands
+     * @param  hosts  the host of each band
+     * @param  base_port  band k listens on base_port + k
+     **/
+    public SocketTransport (int band, int bands, String[] hosts,
+			    int base_port) throws IOException {
+
+	int below = (band + 1) % bands;
+
+	// listen before connecting, so the band above can connect to
+	// this one while it is still looking for the band below
+	try (ServerSocketChannel server = ServerSocketChannel.open()){
+
+	    server.bind(new InetSocketAddress(base_port + band));
+	    south = connect(new InetSocketAddress(hosts[below],
+						  base_port + below));
+	    north = server.accept();
+	}
+
+	north.setOption(StandardSocketOptions.TCP_NODELAY, true);
+	south.setOption(StandardSocketOptions.TCP_NODELAY, true);
+	north.configureBlocking(false);
+	south.configureBlocking(false);
+
+	selector = Selector.open();
+	north_key = north.register(selector, 0);
+	south_key = south.register(selector, 0);
+    }
+
+
+    /**
+     * connect connects to the given address, trying again until
+     * something is listening there or CONNECT_TIMEOUT runs out.
+     *
+     * @param  address  the address of the band below
+     *
+     * @return  the connection
+     **/
+    private static SocketChannel connect (InetSocketAddress address)
+	throws IOException {
+
+	long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+
+	while (true){
+	    try {
+		return SocketChannel.open(address);
+	    }
+	    catch (IOException e){
+		if (System.currentTimeMillis() > deadline){
+		    throw e;
+		}
+	    }
+	    try {
+		Thread.sleep(50);
+	    }
+	    catch (InterruptedException e){
+		Thread.currentThread().interrupt();
+		throw new IOException("interrupted connecting to " + address);
+	    }
+	}
+    }
+
+
+    public void exchange (ByteBuffer to_north, ByteBuffer to_south,
+			  ByteBuffer from_north, ByteBuffer from_south)
+	throws IOException {
+
+	while (to_north.hasRemaining() || to_south.hasRemaining()
+	       || from_north.hasRemaining() || from_south.hasRemaining()){
+
+	    north.write(to_north);
+	    south.write(to_south);
+	    if (north.read(from_north) < 0 || south.read(from_south) < 0){
+		throw new EOFException("a neighboring band hung up");
+	    }
+
+	    // wait for whichever connections are not done yet
+	    north_key.interestOps((to_north.hasRemaining()
+				   ? SelectionKey.OP_WRITE : 0)
+				  | (from_north.hasRemaining()
+				     ? SelectionKey.OP_READ : 0));
+	    south_key.interestOps((to_south.hasRemaining()
+				   ? SelectionKey.OP_WRITE : 0)
+				  | (from_south.hasRemaining()
+				     ? SelectionKey.OP_READ : 0));
+	    if (north_key.interestOps() != 0 || south_key.interestOps() != 0){
+		selector.select();
+		selector.selectedKeys().clear();
+	    }
+	}
+    }
+
+
+    public void close () throws IOException {
+	selector.close();
+	north.close();
+	south.close();
+    }
+}
@@ -0,0 +1,111 @@
+// SplitMix is a splittable PRNG that makes exactly the same numbers
+// as java.util.SplittableRandom, the SplitMix64 algorithm of Steele,
+// Lea and Flood, but keeps its state where it can be read. A
+// SplittableRandom can not be saved and restored, so a Board draws
+// from SplitMix streams instead, and a checkpoint of a board holds
+// the seed and gamma of each of them. See Checkpoint.
+//
+// A stream is a 64 bit seed that goes up by an odd gamma every draw.
+// Each draw is a mix of the new seed. Splitting draws the seed and
+// gamma of a new stream from this one.
+//
+// @version 17-Oct-2026
+//
+import java.util.random.RandomGenerator;
+
+public class SplitMix implements RandomGenerator {
+
+    // the gamma of the first stream, 2^64 over the golden ratio
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long seed;
+    private final long gamma;
+
+
+    /**
+     * SplitMix starts the stream SplittableRandom(seed) starts.
+     *
+     * @param  seed  the seed
+     **/
+    public SplitMix (long seed){
+	this(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * SplitMix starts a stream from a saved state.
+     *
+     * @param  seed  the stream's seed
+     * @param  gamma  the stream's gamma, which must be odd
+     **/
+    public SplitMix (long seed, long gamma){
+	this.seed = seed;
+	this.gamma = gamma;
+    }
+
+
+    /**
+     * getSeed returns the seed this stream will add gamma to for its
+     * next draw
+     *
+     * @return  seed  the seed
+     **/
+    long getSeed (){
+	return seed;
+    }
+
+
+    /**
+     * getGamma returns what this stream adds to its seed every draw
+     *
+     * @return  gamma  the gamma
+     **/
+    long getGamma (){
+	return gamma;
+    }
+
+
+    /**
+     * split returns a new stream, and moves this one on by two
+     * draws, the way SplittableRandom.split does.
+     *
+     * @return  the new stream
+     **/
+    SplitMix split (){
+	return new SplitMix(nextLong(), mixGamma(nextSeed()));
+    }
+
+
+    public long nextLong (){
+	return mix64(nextSeed());
+    }
+
+    public int nextInt (){
+	return mix32(nextSeed());
+    }
+
+    private long nextSeed (){
+	return seed += gamma;
+    }
+
+
+    private static long mix64 (long z){
+	z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+	z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+	return z ^ (z >>> 31);
+    }
+
+    private static int mix32 (long z){
+	z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+	return (int)(((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    // gammas must be odd, and ones with too few bit flips between
+    // neighbouring bits are flipped to mix better
+    private static long mixGamma (long z){
+	z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+	z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+	z = (z ^ (z >>> 33)) | 1L;
+	int n = Long.bitCount(z ^ (z >>> 1));
+	return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -0,0 +1,618 @@
+// Sweep runs PDTrials over many settings of misanthropy, optimism,
+// life_points and deviant_ratio in one batch, instead of editing
+// the fields of PDTrials by hand between runs.
+//
+// A sweep is described by a spec file of one setting per line:
+//
+//   # comments start with #
+//   mode grid                  every combination of the values below
+//   mode latin 50              or 50 Latin hypercube samples
+//   misanthropy -0.03 -0.07    values for grid, min and max for latin
+//   optimism 0.03 0.07
+//   life_points 10 50 100
+//   deviant_ratio 0.25
+//   populations uniform bimodal gaussian   any of Populations.NAMES
+//   trials 10
+//   rounds 100
+//   size 100 100               rows and columns
+//   seed 42                    else a hash of the other settings
+//   converge 20 0.001          stop games that settle, see below
+//
+// converge gives a window of rounds and a tolerance; games stop
+// before the given rounds once they converge, as PDTrials'
+// convergence_window and convergence_tolerance describe, and the
+// rounds each played and the round it converged in, or -1, are
+// written with its statistics.
+//
+// Anything left out keeps PDTrials' value. Every config is played
+// from every population num_trials times, and each of those trials
+// is a job. Jobs run on a work stealing pool. Each job gets its own
+// seed, drawn in job order from the sweep's seed before anything
+// runs, so the results do not depend on the number of threads or
+// on the order jobs finish in.
+//
+// Every finished job is appended to a journal next to the output,
+// output.journal, and forced to disk. Rerunning an interrupted sweep
+// with the same spec skips the jobs in the journal. Once every job
+// is done, the output is replaced by a ResultStore with a row of
+// ResultStore.TRIAL_NAMES for every job, in job order. Its source is
+// "Sweep", and its trial the job's number among the trials of its
+// config and population.
+//
+// The end state statistics of the trials of each config and
+// population are also gathered in a TrialStats as they finish, and
+// once the last of them is done a line with the mean, confidence
+// interval and quartiles of their end state medians goes to
+// standard error, well before the whole sweep is over.
+//
+// @version 17-Oct-2026
+//
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class Sweep {
+
+    // the swept parameters, in the order configs holds them
+    static final String[] PARAMETERS =
+	{ "misanthropy", "optimism", "life_points", "deviant_ratio" };
+    static final int MISANTHROPY = 0;
+    static final int OPTIMISM = 1;
+    static final int LIFE_POINTS = 2;
+    static final int DEVIANT_RATIO = 3;
+
+    // a journal record is the job number, its 14 statistics, the
+    // rounds it played and the round it converged in
+    private static final int RECORD_SIZE = 4 + 14*4 + 2*4;
+
+    // what to sweep
+    float[][] configs;       // configs[c][p] is parameter p of config c
+    int[] populations;
+    int num_trials = 10;
+    int num_rounds = 100;
+    int m = 100;
+    int n = 100;
+    int convergence_window;
+    float convergence_tolerance;
+    long seed;
+    int num_threads = Runtime.getRuntime().availableProcessors();
+
+    // one seed per job, and each finished job's statistics
+    private long[] job_seeds;
+    private boolean[] done;
+    private float[][] starts;
+    private float[][] results;
+    private int[] rounds_played;
+    private int[] converged_rounds;
+
+    // the end state statistics of each config and population, and
+    // how many of its trials are done
+    private TrialStats[] group_stats;
+    private AtomicIntegerArray finished;
+
+    private FileChannel journal;
+
+
+    /**
+     * Sweep reads a sweep from a spec file.
+     *
+     * @param  spec  the spec file
+     **/
+    public Sweep (Path spec) throws IOException {
+
+	PDTrials defaults = new PDTrials(0, 1, 0);
+	float[][] values = {
+	    { defaults.misanthropy }, { defaults.optimism },
+	    { defaults.life_points }, { defaults.deviant_ratio } };
+	int samples = 0;
+	populations = new int[]{ 0 };
+	num_rounds = defaults.num_rounds;
+	convergence_window = defaults.convergence_window;
+	convergence_tolerance = defaults.convergence_tolerance;
+	boolean seeded = false;
+	StringBuilder settings = new StringBuilder();
+
+	for (String line : Files.readAllLines(spec)){
+
+	    String[] words = line.replaceAll("#.*", "").trim().split("\\s+");
+	    String key = words[0];
+
+	    if (key.isEmpty()){
+		continue;
+	    }
+	    settings.append(String.join(" ", words)).append('\n');
+
+	    if (key.equals("mode")){
+		samples = words[1].equals("latin")
+		    ? Integer.parseInt(words[2]) : 0;
+	    }
+	    else if (key.equals("populations")){
+		populations = new int[words.length - 1];
+		for (int k = 1; k < words.length; k++ ){
+		    populations[k-1] = population(words[k]);
+		}
+	    }
+	    else if (key.equals("trials")){
+		num_trials = Integer.parseInt(words[1]);
+	    }
+	    else if (key.equals("rounds")){
+		num_rounds = Integer.parseInt(words[1]);
+	    }
+	    else if (key.equals("size")){
+		m = Integer.parseInt(words[1]);
+		n = Integer.parseInt(words[2]);
+	    }
+	    else if (key.equals("converge")){
+		convergence_window = Integer.parseInt(words[1]);
+		convergence_tolerance = Float.parseFloat(words[2]);
+	    }
+	    else if (key.equals("seed")){
+		seed = Long.parseLong(words[1]);
+		seeded = true;
+	    }
+	    else {
+		int p = parameter(key);
+		values[p] = new float[words.length - 1];
+		for (int k = 1; k < words.length; k++ ){
+		    values[p][k-1] = Float.parseFloat(words[k]);
+		}
+	    }
+	}
+
+	// without a seed line the seed is a hash of the settings, so
+	// that rerunning the same spec finds its own journal
+	if (!seeded){
+	    seed = 0;
+	    byte[] bytes = settings.toString().getBytes(StandardCharsets.UTF_8);
+	    for (byte b : bytes){
+		seed = mix(seed, b);
+	    }
+	}
+
+	SplittableRandom prng = new SplittableRandom(seed);
+	configs = (samples > 0) ? latin(values, samples, prng) : grid(values);
+
+	job_seeds = new long[numJobs()];
+	for (int job = 0; job < job_seeds.length; job++ ){
+	    job_seeds[job] = prng.nextLong();
+	}
+    }
+
+
+    /**
+     * parameter returns the index of the named parameter
+     **/
+    private static int parameter (String name){
+
+	for (int p = 0; p < PARAMETERS.length; p++ ){
+	    if (PARAMETERS[p].equals(name)){
+		return p;
+	    }
+	}
+	throw new IllegalArgumentException("unknown setting " + name);
+    }
+
+
+    /**
+     * population returns the index in Populations.NAMES of the
+     * named population
+     **/
+    private static int population (String name){
+
+	for (int k = 0; k < Populations.NAMES.length; k++ ){
+	    if (Populations.NAMES[k].equals(name)){
+		return k;
+	    }
+	}
+	throw new IllegalArgumentException("unknown population " + name);
+    }
+
+
+    /**
+     * grid returns every combination of the given values, the last
+     * parameter changing fastest.
+     *
+     * @param  values  values[p] are the values of parameter p
+     *
+     * @return  the configs
+     **/
+    static float[][] grid (float[][] values){
+
+	int count = 1;
+	for (float[] v : values){
+	    count *= v.length;
+	}
+
+	float[][] configs = new float[count][values.length];
+	for (int c = 0; c < count; c++ ){
+
+	    int rest = c;
+	    for (int p = values.length - 1; p >= 0; p-- ){
+		configs[c][p] = values[p][rest % values[p].length];
+		rest /= values[p].length;
+	    }
+	}
+	return configs;
+    }
+
+
+    /**
+     * latin returns a Latin hypercube sample of the given ranges:
+     * each parameter's range is cut into samples equal strata, and
+     * every stratum of every parameter is sampled exactly once.
+     * Parameters given a single value stay at it, and life points
+     * are rounded to whole points.
+     *
+     * @param  ranges  ranges[p] is the min and max of parameter p
+     * @param  samples  the number of configs
+     * @param  prng  where the sample comes from
+     *
+     * @return  the configs
+     **/
+    static float[][] latin (float[][] ranges, int samples,
+			    SplittableRandom prng){
+
+	float[][] configs = new float[samples][ranges.length];
+
+	for (int p = 0; p < ranges.length; p++ ){
+
+	    float low = ranges[p][0];
+	    float high = ranges[p][ranges[p].length - 1];
+
+	    // a random order of the strata
+	    int[] strata = new int[samples];
+	    for (int k = 0; k < samples; k++ ){
+		int swap = prng.nextInt(k + 1);
+		strata[k] = strata[swap];
+		strata[swap] = k;
+	    }
+
+	    for (int c = 0; c < samples; c++ ){
+
+		float value = low + (float)((strata[c] + prng.nextDouble())
+					    / samples * (high - low));
+		configs[c][p] = (p == LIFE_POINTS) ? Math.round(value) : value;
+	    }
+	}
+	return configs;
+    }
+
+
+    /**
+     * numJobs returns the number of jobs in this sweep. Job number
+     * (c*populations + k)*num_trials + t plays trial t of config c
+     * from population k.
+     **/
+    int numJobs (){
+	return configs.length * populations.length * num_trials;
+    }
+
+
+    /**
+     * run plays every job not already in the journal and writes the
+     * results to the output once they are all done.
+     *
+     * @param  output  the result store to write
+     **/
+    void run (Path output) throws IOException {
+
+	int jobs = numJobs();
+	done = new boolean[jobs];
+	starts = new float[jobs][];
+	results = new float[jobs][];
+	rounds_played = new int[jobs];
+	converged_rounds = new int[jobs];
+	group_stats = new TrialStats[jobs / num_trials];
+	for (int group = 0; group < group_stats.length; group++ ){
+	    group_stats[group] = new TrialStats(7);
+	}
+	finished = new AtomicIntegerArray(group_stats.length);
+
+	Path journal_path = Paths.get(output + ".journal");
+	int resumed = readJournal(journal_path);
+
+	int[] pending = new int[jobs - resumed];
+	int count = 0;
+	for (int job = 0; job < jobs; job++ ){
+	    if (!done[job]){
+		pending[count++] = job;
+	    }
+	}
+	System.err.printf("Sweep: %d configs, %d jobs, %d already done \n",
+			  configs.length, jobs, resumed);
+
+	journal = FileChannel.open(journal_path, StandardOpenOption.CREATE,
+				   StandardOpenOption.WRITE,
+				   StandardOpenOption.APPEND);
+	if (journal.size() == 0){
+	    ByteBuffer header = ByteBuffer.allocate(8);
+	    header.putLong(fingerprint()).flip();
+	    journal.write(header);
+	}
+
+	ForkJoinPool pool = new ForkJoinPool(num_threads);
+	try {
+	    pool.invoke(new Jobs(pending, 0, count));
+	}
+	finally {
+	    pool.shutdown();
+	    journal.close();
+	}
+
+	writeResults(output);
+    }
+
+
+    /**
+     * Jobs plays a range of the pending jobs, splitting it in half
+     * until each task has one job, so idle threads steal halves of
+     * the ranges left to busy ones.
+     **/
+    private class Jobs extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private int[] pending;
+	private int first;
+	private int last;
+
+	Jobs (int[] pending, int first, int last){
+	    this.pending = pending;
+	    this.first = first;
+	    this.last = last;
+	}
+
+	protected void compute (){
+
+	    if (last - first == 1){
+		play(pending[first]);
+		return;
+	    }
+	    if (last > first){
+		int middle = (first + last) / 2;
+		invokeAll(new Jobs(pending, first, middle),
+			  new Jobs(pending, middle, last));
+	    }
+	}
+    }
+
+
+    /**
+     * trials returns a PDTrials set up to play a job's trial
+     *
+     * @param  job  the job number
+     **/
+    private PDTrials trials (int job){
+
+	float[] config = configs[job / num_trials / populations.length];
+
+	PDTrials trials = new PDTrials(1, 1, job_seeds[job]);
+	trials.m = m;
+	trials.n = n;
+	trials.num_rounds = num_rounds;
+	trials.misanthropy = config[MISANTHROPY];
+	trials.optimism = config[OPTIMISM];
+	trials.life_points = (int)config[LIFE_POINTS];
+	trials.deviant_ratio = config[DEVIANT_RATIO];
+	trials.convergence_window = convergence_window;
+	trials.convergence_tolerance = convergence_tolerance;
+	return trials;
+    }
+
+    /**
+     * populationName returns the name of the population a job
+     * starts from
+     **/
+    private String populationName (int job){
+	return Populations.NAMES[populations[(job / num_trials)
+					     % populations.length]];
+    }
+
+
+    /**
+     * play plays a single job and appends it to the journal.
+     *
+     * @param  job  the job number
+     **/
+    private void play (int job){
+
+	PDTrials trials = trials(job);
+	float[][] stats = trials.playTrial
+	    (trials.generator(populationName(job)),
+	     new SplittableRandom(job_seeds[job]));
+
+	starts[job] = stats[0];
+	results[job] = stats[1];
+	rounds_played[job] = (int)stats[2][0];
+	converged_rounds[job] = (int)stats[2][1];
+	done[job] = true;
+
+	try {
+	    writeJournal(job);
+	}
+	catch (IOException e){
+	    throw new RuntimeException("could not write the journal", e);
+	}
+
+	int group = job / num_trials;
+	group_stats[group].add(results[job]);
+	if (finished.incrementAndGet(group) == num_trials){
+	    report(group);
+	}
+    }
+
+
+    /**
+     * report prints the end state medians of a config and
+     * population whose trials are all done.
+     *
+     * @param  group  the config times the number of populations
+     * plus the population's place in populations
+     **/
+    private void report (int group){
+
+	TrialStats.Summary ends = group_stats[group].snapshot();
+	System.err.printf("config %d %s: endstate median %.3f +/- %.3f, quartiles %.3f %.3f %.3f \n",
+			  group / populations.length,
+			  Populations.NAMES[populations[group % populations.length]],
+			  ends.mean(1), ends.confidence(1),
+			  ends.quantile(1, 0.25), ends.quantile(1, 0.5),
+			  ends.quantile(1, 0.75));
+    }
+
+
+    /**
+     * writeJournal appends a finished job to the journal and forces
+     * it to disk, so that it survives the sweep being killed.
+     *
+     * @param  job  the job number
+     **/
+    private synchronized void writeJournal (int job) throws IOException {
+
+	ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+	record.putInt(job);
+	for (int s = 0; s < 7; s++ ){
+	    record.putFloat(starts[job][s]);
+	}
+	for (int s = 0; s < 7; s++ ){
+	    record.putFloat(results[job][s]);
+	}
+	record.putInt(rounds_played[job]);
+	record.putInt(converged_rounds[job]);
+	record.flip();
+	while (record.hasRemaining()){
+	    journal.write(record);
+	}
+	journal.force(false);
+    }
+
+
+    /**
+     * readJournal loads the jobs finished by an earlier run of this
+     * sweep. A record cut short by a crash is ignored.
+     *
+     * @param  path  the journal
+     *
+     * @return  the number of jobs loaded
+     **/
+    private int readJournal (Path path) throws IOException {
+
+	if (!Files.exists(path) || Files.size(path) == 0){
+	    return 0;
+	}
+
+	ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path));
+	if (bytes.remaining() < 8 || bytes.getLong() != fingerprint()){
+	    throw new IOException(path + " belongs to a different sweep");
+	}
+
+	int loaded = 0;
+	while (bytes.remaining() >= RECORD_SIZE){
+
+	    int job = bytes.getInt();
+	    starts[job] = new float[7];
+	    results[job] = new float[7];
+	    for (int s = 0; s < 7; s++ ){
+		starts[job][s] = bytes.getFloat();
+	    }
+	    for (int s = 0; s < 7; s++ ){
+		results[job][s] = bytes.getFloat();
+	    }
+	    rounds_played[job] = bytes.getInt();
+	    converged_rounds[job] = bytes.getInt();
+	    if (!done[job]){
+		done[job] = true;
+		loaded++;
+		group_stats[job / num_trials].add(results[job]);
+		finished.incrementAndGet(job / num_trials);
+	    }
+	}
+
+	// drop a partial record so new records line up
+	if (bytes.hasRemaining()){
+	    try (FileChannel channel =
+		 FileChannel.open(path, StandardOpenOption.WRITE)){
+		channel.truncate(bytes.position());
+	    }
+	}
+	return loaded;
+    }
+
+
+    /**
+     * fingerprint returns a hash of everything that decides what
+     * the jobs are, so a journal is only resumed by its own sweep.
+     **/
+    private long fingerprint (){
+
+	long hash = seed;
+	hash = mix(hash, num_trials);
+	hash = mix(hash, num_rounds);
+	hash = mix(hash, m);
+	hash = mix(hash, n);
+	hash = mix(hash, convergence_window);
+	hash = mix(hash, Float.floatToIntBits(convergence_tolerance));
+	for (int population : populations){
+	    hash = mix(hash, population);
+	}
+	for (float[] config : configs){
+	    for (float value : config){
+		hash = mix(hash, Float.floatToIntBits(value));
+	    }
+	}
+	return hash;
+    }
+
+    private static long mix (long hash, long value){
+	hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+	return hash ^ (hash >>> 29);
+    }
+
+
+    /**
+     * writeResults replaces the output with a result store of every
+     * job's parameters and statistics, in job order.
+     *
+     * @param  output  the store to write
+     **/
+    private void writeResults (Path output) throws IOException {
+
+	Files.deleteIfExists(output);
+	try (ResultStore store = new ResultStore(output)){
+
+	    for (int job = 0; job < numJobs(); job++ ){
+
+		store.addTrial("Sweep", populationName(job), job_seeds[job],
+			       job % num_trials, trials(job), starts[job],
+			       results[job], rounds_played[job],
+			       converged_rounds[job]);
+	    }
+	}
+    }
+
+
+    public static void main (String args[]) throws IOException {
+
+	if (args.length < 2){
+	    System.err.println("usage: java Sweep spec output [threads]");
+	    System.exit(1);
+	}
+
+	Sweep sweep = new Sweep(Paths.get(args[0]));
+	if (args.length > 2){
+	    sweep.num_threads = Integer.parseInt(args[2]);
+	}
+	System.err.printf("Seed: %d \n", sweep.seed);
+
+	sweep.run(Paths.get(args[1]));
+    }
+}
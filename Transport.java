@@ -0,0 +1,31 @@
+// A Transport carries the halo of one band of a distributed board to
+// the bands above and below it, once a round. The bands form a ring,
+// band 0 under the last one, the way the rows of a board wrap
+// around. See Band for how a board is split into bands, and
+// SocketTransport and FileTransport for the two ways bands talk.
+//
+// @version 17-Oct-2026
+//
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+interface Transport extends Closeable {
+
+    /**
+     * exchange sends this band's edges to its neighbors and takes
+     * theirs. It returns once what this band sent has gone and what
+     * its neighbors sent has arrived. Every band calls it once a
+     * round, with buffers of the same size.
+     *
+     * @param  to_north  what to send to the band above, from its
+     * position to its limit
+     * @param  to_south  what to send to the band below
+     * @param  from_north  filled, from its position to its limit,
+     * with what the band above sent south
+     * @param  from_south  filled with what the band below sent north
+     **/
+    void exchange (ByteBuffer to_north, ByteBuffer to_south,
+		   ByteBuffer from_north, ByteBuffer from_south)
+	throws IOException;
+}
@@ -0,0 +1,264 @@
+// TrialStats gathers the statistics of trials as they finish, from
+// any number of threads at once, and can be asked for their means,
+// confidence intervals and quantiles at any time, including while
+// trials are still being played. Every trial adds one row of values,
+// such as the seven of Board.getSummaryStats, and each column is
+// summarized separately.
+//
+// Rows are added to one of STRIPES cells, the way a LongAdder
+// spreads its count over cells, and nothing is ever locked. A cell
+// holds a Summary that is never changed once it is in the cell. To
+// add a row, a thread copies the Summary of the cell its id hashes
+// to, adds the row to the copy and swaps the copy in with a compare
+// and set. If another thread swapped first, the thread tries again
+// on the next cell. A snapshot merges the Summaries the cells hold
+// at the time, each of which is complete. Copying a Summary costs a
+// few kilobytes, which is nothing next to playing a trial.
+//
+// Sums are kept in double with Neumaier's version of Kahan's
+// compensated summation, so the means of many trials lose nothing
+// to rounding, and each column also has a QuantileSketch of its
+// values.
+//
+// @version 17-Oct-2026
+//
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class TrialStats {
+
+    // a power of 2, at least the number of processors
+    static final int STRIPES =
+	Integer.highestOneBit(Math.max(1, Runtime.getRuntime()
+				       .availableProcessors() - 1)) * 2;
+
+    private int width;
+    private AtomicReferenceArray<Summary> cells =
+	new AtomicReferenceArray<Summary>(STRIPES);
+
+
+    /**
+     * TrialStats makes an empty aggregator.
+     *
+     * @param  width  the number of values in a row
+     **/
+    public TrialStats (int width){
+	this.width = width;
+    }
+
+
+    /**
+     * add adds one trial's row of values.
+     *
+     * @param  values  the row, of at least width values
+     **/
+    void add (float[] values){
+
+	long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+	int s = (int)(id >>> 32) & (STRIPES - 1);
+
+	while (true){
+
+	    Summary current = cells.get(s);
+	    Summary next = new Summary(width);
+	    if (current != null){
+		next.merge(current);
+	    }
+	    next.add(values);
+
+	    if (cells.compareAndSet(s, current, next)){
+		return;
+	    }
+	    s = (s + 1) & (STRIPES - 1);
+	}
+    }
+
+
+    /**
+     * snapshot returns the summary of every row added so far. Rows
+     * added while it runs may or may not be in it.
+     *
+     * @return  a new Summary, which later rows do not change
+     **/
+    Summary snapshot (){
+
+	Summary all = new Summary(width);
+	for (int s = 0; s < STRIPES; s++ ){
+
+	    Summary cell = cells.get(s);
+	    if (cell != null){
+		all.merge(cell);
+	    }
+	}
+	return all;
+    }
+
+
+    /**
+     * critical returns the two sided 95% critical value of
+     * Student's t distribution with the given degrees of freedom.
+     * Past the table it uses the normal value with the first three
+     * terms of its Cornish-Fisher expansion in 1/freedom, which is
+     * within 0.00001 of the exact one there.
+     *
+     * @param  freedom  the degrees of freedom, at least 1
+     **/
+    static double critical (long freedom){
+
+	final double[] table = {
+	    12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306,
+	    2.262, 2.228, 2.201, 2.179, 2.160, 2.145, 2.131, 2.120,
+	    2.110, 2.101, 2.093, 2.086, 2.080, 2.074, 2.069, 2.064,
+	    2.060, 2.056, 2.052, 2.048, 2.045, 2.042 };
+
+	if (freedom <= table.length){
+	    return table[(int)Math.max(1, freedom) - 1];
+	}
+	// the normal value z, plus (z^3 + z)/4v, (5z^5 + 16z^3 + 3z)/96v^2
+	// and (3z^7 + 19z^5 + 17z^3 - 15z)/384v^3
+	double v = freedom;
+	return 1.959963984540054 + 2.3722712303/v + 2.8224986157/(v*v)
+	    + 2.5558496795/(v*v*v);
+    }
+
+
+    /**
+     * Summary summarizes rows of values: their count, and for each
+     * column the compensated sums of its values and their squares,
+     * its least and greatest value and a sketch of its
+     * distribution.
+     **/
+    static class Summary {
+
+	private long count;
+	private double[] sums;
+	private double[] sum_errors;      // what rounding took from sums
+	private double[] squares;
+	private double[] square_errors;
+	private double[] least;
+	private double[] greatest;
+	private QuantileSketch[] sketches;
+
+	Summary (int width){
+
+	    sums = new double[width];
+	    sum_errors = new double[width];
+	    squares = new double[width];
+	    square_errors = new double[width];
+	    least = new double[width];
+	    greatest = new double[width];
+	    sketches = new QuantileSketch[width];
+	    for (int k = 0; k < width; k++ ){
+		least[k] = Double.POSITIVE_INFINITY;
+		greatest[k] = Double.NEGATIVE_INFINITY;
+		sketches[k] = new QuantileSketch();
+	    }
+	}
+
+	void add (float[] values){
+
+	    count++;
+	    for (int k = 0; k < sums.length; k++ ){
+
+		double x = values[k];
+		add(sums, sum_errors, k, x);
+		add(squares, square_errors, k, x*x);
+		least[k] = Math.min(least[k], x);
+		greatest[k] = Math.max(greatest[k], x);
+		sketches[k].add(x);
+	    }
+	}
+
+	void merge (Summary other){
+
+	    count += other.count;
+	    for (int k = 0; k < sums.length; k++ ){
+
+		add(sums, sum_errors, k, other.sums[k]);
+		sum_errors[k] += other.sum_errors[k];
+		add(squares, square_errors, k, other.squares[k]);
+		square_errors[k] += other.square_errors[k];
+		least[k] = Math.min(least[k], other.least[k]);
+		greatest[k] = Math.max(greatest[k], other.greatest[k]);
+		sketches[k].merge(other.sketches[k]);
+	    }
+	}
+
+	/**
+	 * add adds x to sums[k], keeping what rounding loses in
+	 * errors[k]
+	 **/
+	private static void add (double[] sums, double[] errors, int k,
+				 double x){
+
+	    double sum = sums[k] + x;
+	    if (Math.abs(sums[k]) >= Math.abs(x)){
+		errors[k] += (sums[k] - sum) + x;
+	    }
+	    else {
+		errors[k] += (x - sum) + sums[k];
+	    }
+	    sums[k] = sum;
+	}
+
+
+	/**
+	 * count returns the number of rows
+	 **/
+	long count (){
+	    return count;
+	}
+
+	/**
+	 * mean returns the mean of column k, NaN if there are no rows
+	 **/
+	double mean (int k){
+	    return (sums[k] + sum_errors[k]) / count;
+	}
+
+	/**
+	 * variance returns the sample variance of column k, NaN with
+	 * fewer than two rows
+	 **/
+	double variance (int k){
+
+	    if (count < 2){
+		return Double.NaN;
+	    }
+	    double sum = sums[k] + sum_errors[k];
+	    double square = squares[k] + square_errors[k];
+	    return Math.max(0, (square - sum*sum/count) / (count - 1));
+	}
+
+	/**
+	 * standardError returns the standard error of the mean of
+	 * column k
+	 **/
+	double standardError (int k){
+	    return Math.sqrt(variance(k) / count);
+	}
+
+	/**
+	 * confidence returns the half width of the 95% confidence
+	 * interval of the mean of column k
+	 **/
+	double confidence (int k){
+	    return critical(count - 1) * standardError(k);
+	}
+
+	/**
+	 * quantile returns the q quantile of column k. See
+	 * QuantileSketch
+	 **/
+	double quantile (int k, double q){
+	    return sketches[k].quantile(q);
+	}
+
+	double min (int k){
+	    return least[k];
+	}
+
+	double max (int k){
+	    return greatest[k];
+	}
+    }
+}
@@ -0,0 +1,179 @@
+// VectorDamage is the DAMAGE phase of a round for one column of a
+// Board, written with the incubating Vector API. It does what
+// Board.damage does for each player in the column, a vector of
+// players at a time: the payoffs of the player's four games are
+// summed and added to its life points, and the sum of its four
+// decisions is saved as its outcome for the round.
+//
+// The players of a column are contiguous in the decision grids, and
+// so are the players of the column to its west, so every operand is
+// a plain vector load: the game to a player's south is one element
+// on, and the game to its west is one column back. Only the last row
+// of the column, whose southern neighbor wraps to row 0, and the
+// rows left over after the last whole vector, are done one at a
+// time.
+//
+// A payoff is A + B*m + C*t + D*m*t, where m is 1 if the player
+// cooperated and t is 1 if its opponent did, which lets the payoffs
+// be worked out in byte lanes without table lookups. The loss of
+// life is widened to int lanes to be added to the life points.
+//
+// This class needs the jdk.incubator.vector module, so the JVM must
+// be started with --add-modules jdk.incubator.vector. Board only
+// loads it when asked to and the module is there.
+//
+// @version 17-Oct-2026
+//
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+class VectorDamage {
+
+    private static final VectorSpecies<Byte> BYTES =
+	ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS =
+	IntVector.SPECIES_PREFERRED;
+    private static final int PARTS = BYTES.length() / INTS.length();
+
+    private static final byte PAYOFF_A = (byte)DecisionPair.payoff(-1, -1);
+    private static final byte PAYOFF_B =
+	(byte)(DecisionPair.payoff(1, -1) - PAYOFF_A);
+    private static final byte PAYOFF_C =
+	(byte)(DecisionPair.payoff(-1, 1) - PAYOFF_A);
+    private static final byte PAYOFF_D =
+	(byte)(DecisionPair.payoff(1, 1) - DecisionPair.payoff(1, -1)
+	       - DecisionPair.payoff(-1, 1) + PAYOFF_A);
+
+
+    /**
+     * fits returns whether four payoffs, and the sums along the way
+     * to them, always fit in a byte lane.
+     *
+     * @return  true if the kernel can be used with DecisionPair's
+     * payoffs
+     **/
+    static boolean fits (){
+
+	for (int mine = -1; mine <= 1; mine += 2 ){
+	    for (int theirs = -1; theirs <= 1; theirs += 2 ){
+		if (abs(4*DecisionPair.payoff(mine, theirs)) > 127){
+		    return false;
+		}
+	    }
+	}
+	return abs(4*PAYOFF_B) <= 127 && abs(4*PAYOFF_C) <= 127
+	    && abs(4*PAYOFF_D) <= 127;
+    }
+
+    private static int abs (int x){
+	return (x < 0) ? -x : x;
+    }
+
+
+    /**
+     * damage takes the payoffs of the games of every player in one
+     * column off their life points, and saves the sums of their
+     * decisions.
+     *
+     * @param  vert_first  the vertical games' first decisions
+     * @param  vert_second  the vertical games' second decisions
+     * @param  horiz_first  the horizontal games' first decisions
+     * @param  horiz_second  the horizontal games' second decisions
+     * @param  life_points  the players' life points
+     * @param  outcomes  where to save the sums, row j at
+     * outcomes[offset + j]
+     * @param  offset  where row 0 goes in outcomes
+     * @param  column  the column
+     * @param  west  the column to its west
+     * @param  height  the number of rows
+     **/
+    static void damage (byte[] vert_first, byte[] vert_second,
+			byte[] horiz_first, byte[] horiz_second,
+			int[] life_points, byte[] outcomes, int offset,
+			int column, int west, int height){
+
+	int base = column*height;
+	int west_base = west*height;
+
+	// the vectors of the last row would reach into the next column
+	int bound = BYTES.loopBound(height - 1);
+	int j = 0;
+
+	for ( ; j < bound; j += BYTES.length() ){
+
+	    int cell = base + j;
+
+	    ByteVector north_first =
+		ByteVector.fromArray(BYTES, vert_first, cell);
+	    ByteVector north_second =
+		ByteVector.fromArray(BYTES, vert_second, cell);
+	    ByteVector south_first =
+		ByteVector.fromArray(BYTES, vert_first, cell + 1);
+	    ByteVector south_second =
+		ByteVector.fromArray(BYTES, vert_second, cell + 1);
+	    ByteVector east_first =
+		ByteVector.fromArray(BYTES, horiz_first, cell);
+	    ByteVector east_second =
+		ByteVector.fromArray(BYTES, horiz_second, cell);
+	    ByteVector west_first =
+		ByteVector.fromArray(BYTES, horiz_first, west_base + j);
+	    ByteVector west_second =
+		ByteVector.fromArray(BYTES, horiz_second, west_base + j);
+
+	    ByteVector loss = payoff(north_first, north_second)
+		.add(payoff(south_second, south_first))
+		.add(payoff(east_first, east_second))
+		.add(payoff(west_second, west_first));
+
+	    north_first.add(south_second).add(east_first).add(west_second)
+		.intoArray(outcomes, offset + j);
+
+	    for (int part = 0; part < PARTS; part++ ){
+
+		int at = cell + part*INTS.length();
+		IntVector widened = (IntVector)
+		    loss.convertShape(VectorOperators.B2I, INTS, part);
+		IntVector.fromArray(INTS, life_points, at).add(widened)
+		    .intoArray(life_points, at);
+	    }
+	}
+
+	// the rest, one at a time
+	for ( ; j < height; j++ ){
+
+	    int cell = base + j;
+	    int c_south = base + (j + 1) % height;
+	    int c_west = west_base + j;
+
+	    life_points[cell] +=
+		DecisionPair.payoff(vert_first[cell], vert_second[cell]) +
+		DecisionPair.payoff(vert_second[c_south],
+				    vert_first[c_south]) +
+		DecisionPair.payoff(horiz_first[cell], horiz_second[cell]) +
+		DecisionPair.payoff(horiz_second[c_west],
+				    horiz_first[c_west]);
+
+	    outcomes[offset + j] = (byte)
+		(vert_first[cell] + vert_second[c_south] +
+		 horiz_first[cell] + horiz_second[c_west]);
+	}
+    }
+
+
+    /**
+     * payoff returns the payoffs, lane by lane, to players who made
+     * the decisions mine against opponents who made the decisions
+     * theirs.
+     **/
+    private static ByteVector payoff (ByteVector mine, ByteVector theirs){
+
+	// 1 for cooperate, 0 for defect
+	ByteVector m = mine.add((byte)1).lanewise(VectorOperators.ASHR, 1);
+	ByteVector t = theirs.add((byte)1).lanewise(VectorOperators.ASHR, 1);
+
+	return m.mul(PAYOFF_B).add(t.mul(PAYOFF_C))
+	    .add(m.mul(t).mul(PAYOFF_D)).add(PAYOFF_A);
+    }
+}
@@ -0,0 +1,116 @@
+// Fixtures builds and drives game objects for the benchmarks.
+//
+// The game lives in the unnamed package, which code in a named
+// package cannot refer to, and JMH will only generate benchmarks in
+// a named package. Fixtures sits in the unnamed package, where it
+// can reach the game's package private methods, and takes and
+// returns plain Objects so that benchmarks.Game can call it through
+// method handles.
+//
+// @version 17-Oct-2026
+//
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+public class Fixtures {
+
+    // the same neutral start PDTrials uses
+    static final int LIFE_POINTS = 10;
+    static final float MISANTHROPY = (float)-0.07;
+    static final float OPTIMISM = (float)0.07;
+
+    /**
+     * board builds a width x height Board of players with uniformly
+     * random certainties between 1.0 and 2.0, like PDTrials.uniform.
+     *
+     * @param  width  the number of columns
+     * @param  height  the number of rows
+     * @param  time_horizon  how many rounds players remember
+     * @param  threads  the number of threads rounds run on
+     * @param  packed  whether the decision grids are bitsets
+     * @param  seed  the seed for the population and the board
+     *
+     * @return  the Board
+     **/
+    public static Object board (int width, int height, int time_horizon,
+				int threads, boolean packed, long seed){
+
+	SplittableRandom prng = new SplittableRandom(seed);
+
+	ArrayList<ArrayList<Player>> players =
+	    new ArrayList<ArrayList<Player>>(width);
+
+	for (int i = 0; i < width; i++ ){
+
+	    ArrayList<Player> column = new ArrayList<Player>(height);
+	    for (int j = 0; j < height; j++ ){
+
+		float certainty = prng.nextFloat() + (float)1.0;
+		column.add(new Player(LIFE_POINTS,
+				      certainty*MISANTHROPY, certainty,
+				      time_horizon, OPTIMISM, null));
+	    }
+	    players.add(column);
+	}
+
+	Board board = new Board(players, 1, prng.nextLong());
+	board.setThreads(threads);
+	board.setPacked(packed);
+	return board;
+    }
+
+    public static boolean vectorDamage (Object board, boolean on){
+	return ((Board)board).setVectorDamage(on);
+    }
+
+    public static void round (Object board){
+	((Board)board).round();
+    }
+
+    public static void playGames (Object board){
+	((Board)board).playGames();
+    }
+
+    public static void circleOfLife (Object board){
+	((Board)board).circleOfLife();
+    }
+
+    public static float[] summaryStats (Object board){
+	return ((Board)board).getSummaryStats();
+    }
+
+    /**
+     * player builds a single Player like the ones on a board, with
+     * its own PRNG.
+     *
+     * @param  time_horizon  how many rounds the player remembers
+     * @param  seed  the seed for the player's PRNG
+     *
+     * @return  the Player
+     **/
+    public static Object player (int time_horizon, long seed){
+	return new Player(LIFE_POINTS, MISANTHROPY, (float)1.5,
+			  time_horizon, OPTIMISM,
+			  new SplittableRandom(seed));
+    }
+
+    public static int decision (Object player){
+	return ((Player)player).getDecision();
+    }
+
+    public static void pushMemory (Object player, float mem_val){
+	((Player)player).pushMemory(mem_val);
+    }
+
+    public static Object decisionPair (int decision1, int decision2){
+	return new DecisionPair(decision1, decision2);
+    }
+
+    public static int[] payoffs (Object pair){
+	return ((DecisionPair)pair).getPayoffs();
+    }
+
+    public static int payoff (int mine, int theirs){
+	return DecisionPair.payoff(mine, theirs);
+    }
+}
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// BoardBenchmark measures the parts of a round that run on their
+// own: circleOfLife() and getSummaryStats(). The board is played
+// for a few rounds first so that certainties have spread out.
+//
+// circleOfLife() only replaces the players that playGames() queued
+// as dead, and empties the queues, so every call is set up by its
+// own playGames(), outside the timing; see Dead. On the smallest
+// boards the time is then mostly JMH's own timestamps.
+//
+// @version 17-Oct-2026
+//
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BoardBenchmark {
+
+    @Param({"10", "100", "1000", "2000"})
+    int size;
+
+    Object board;
+
+    @Setup(Level.Trial)
+    public void setUp () throws Throwable {
+	board = (Object)Game.BOARD.invokeExact(size, size, 3, 1, false,
+						42L);
+	for (int round = 0; round < 20; round++ ){
+	    Game.ROUND.invokeExact(board);
+	}
+    }
+
+    // the dead queues of the next circleOfLife(), filled before
+    // each call and not before those of the other benchmarks
+    @State(Scope.Thread)
+    public static class Dead {
+
+	@Setup(Level.Invocation)
+	public void playGames (BoardBenchmark benchmark) throws Throwable {
+	    Game.PLAY_GAMES.invokeExact(benchmark.board);
+	}
+    }
+
+    @Benchmark
+    public void circleOfLife (Dead dead) throws Throwable {
+	Game.CIRCLE_OF_LIFE.invokeExact(board);
+    }
+
+    @Benchmark
+    public float[] summaryStats () throws Throwable {
+	return (float[])Game.SUMMARY_STATS.invokeExact(board);
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// DecisionPairBenchmark compares DecisionPair.getPayoffs(), which
+// allocates an int[2] per call, with the allocation free table
+// lookup DecisionPair.payoff() that Board uses.
+//
+// @version 17-Oct-2026
+//
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecisionPairBenchmark {
+
+    // read from fields so the JIT cannot fold the games away
+    int decision1 = 1;
+    int decision2 = -1;
+    Object pair;
+
+    @Setup(Level.Trial)
+    public void setUp () throws Throwable {
+	pair = (Object)Game.DECISION_PAIR.invokeExact(decision1, decision2);
+    }
+
+    @Benchmark
+    public int[] getPayoffs () throws Throwable {
+	return (int[])Game.PAYOFFS.invokeExact(pair);
+    }
+
+    @Benchmark
+    public int payoff () throws Throwable {
+	return (int)Game.PAYOFF.invokeExact(decision1, decision2)
+	    + (int)Game.PAYOFF.invokeExact(decision2, decision1);
+    }
+}
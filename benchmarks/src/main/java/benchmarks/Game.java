@@ -0,0 +1,59 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+// Game holds method handles to the static methods of Fixtures,
+// which builds and drives the game from the unnamed package. The
+// handles are static final, so the JIT treats them as constants and
+// compiles invokeExact down to a direct call.
+//
+// @version 17-Oct-2026
+//
+final class Game {
+
+    static final MethodHandle BOARD =
+	find("board", Object.class,
+	     int.class, int.class, int.class, int.class, boolean.class,
+	     long.class);
+    static final MethodHandle VECTOR_DAMAGE =
+	find("vectorDamage", boolean.class, Object.class, boolean.class);
+    static final MethodHandle ROUND =
+	find("round", void.class, Object.class);
+    static final MethodHandle PLAY_GAMES =
+	find("playGames", void.class, Object.class);
+    static final MethodHandle CIRCLE_OF_LIFE =
+	find("circleOfLife", void.class, Object.class);
+    static final MethodHandle SUMMARY_STATS =
+	find("summaryStats", float[].class, Object.class);
+
+    static final MethodHandle PLAYER =
+	find("player", Object.class, int.class, long.class);
+    static final MethodHandle DECISION =
+	find("decision", int.class, Object.class);
+    static final MethodHandle PUSH_MEMORY =
+	find("pushMemory", void.class, Object.class, float.class);
+
+    static final MethodHandle DECISION_PAIR =
+	find("decisionPair", Object.class, int.class, int.class);
+    static final MethodHandle PAYOFFS =
+	find("payoffs", int[].class, Object.class);
+    static final MethodHandle PAYOFF =
+	find("payoff", int.class, int.class, int.class);
+
+    private Game (){
+    }
+
+    private static MethodHandle find (String name, Class<?> returns,
+				      Class<?>... parameters){
+	try {
+	    return MethodHandles.publicLookup().findStatic
+		(Class.forName("Fixtures"), name,
+		 MethodType.methodType(returns, parameters));
+	}
+	catch (ReflectiveOperationException e){
+	    throw new ExceptionInInitializerError(e);
+	}
+    }
+}
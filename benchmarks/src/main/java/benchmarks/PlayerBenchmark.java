@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// PlayerBenchmark measures Player.getDecision() and
+// Player.pushMemory() for a range of time horizons.
+//
+// @version 17-Oct-2026
+//
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+
+    @Param({"1", "4", "16", "64"})
+    int time_horizon;
+
+    Object player;
+    float memory;
+
+    @Setup(Level.Trial)
+    public void setUp () throws Throwable {
+	player = (Object)Game.PLAYER.invokeExact(time_horizon, 42L);
+    }
+
+    @Benchmark
+    public int getDecision () throws Throwable {
+	return (int)Game.DECISION.invokeExact(player);
+    }
+
+    @Benchmark
+    public void pushMemory () throws Throwable {
+	// cycle through the memory values a round can push
+	memory = (memory >= 4) ? -4 : memory + 2;
+	Game.PUSH_MEMORY.invokeExact(player, memory);
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// RoundBenchmark measures Board.round() on square boards. JMH
+// reports rounds per second as the score and, through the cells
+// counter, the number of cells updated per second.
+//
+// @version 17-Oct-2026
+//
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class RoundBenchmark {
+
+    @Param({"10", "100", "1000", "2000"})
+    int size;
+
+    @Param({"1", "4", "16", "64"})
+    int time_horizon;
+
+    @Param({"1"})
+    int threads;
+
+    @Param({"false", "true"})
+    boolean packed;
+
+    Object board;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Cells {
+	public long cells;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp () throws Throwable {
+	board = (Object)Game.BOARD.invokeExact(size, size, time_horizon,
+					       threads, packed, 42L);
+    }
+
+    @Benchmark
+    public void round (Cells counter) throws Throwable {
+	Game.ROUND.invokeExact(board);
+	counter.cells += (long)size * size;
+    }
+}
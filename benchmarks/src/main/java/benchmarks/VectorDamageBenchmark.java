@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// VectorDamageBenchmark compares Board.round() with DAMAGE run by the
+// scalar loop and by the Vector API kernel in VectorDamage. Setup
+// fails if the kernel was asked for and cannot be used.
+//
+// @version 17-Oct-2026
+//
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g",
+				  "--add-modules=jdk.incubator.vector"})
+public class VectorDamageBenchmark {
+
+    @Param({"100", "1000", "2000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean vector;
+
+    Object board;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Cells {
+	public long cells;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp () throws Throwable {
+	board = (Object)Game.BOARD.invokeExact(size, size, 1, 1, false, 42L);
+	if ((boolean)Game.VECTOR_DAMAGE.invokeExact(board, vector) != vector){
+	    throw new IllegalStateException("the Vector API is not available");
+	}
+    }
+
+    @Benchmark
+    public void round (Cells counter) throws Throwable {
+	Game.ROUND.invokeExact(board);
+	counter.cells += (long)size * size;
+    }
+}